@@ -30,6 +30,16 @@ android {
         sourceCompatibility = JavaVersion.VERSION_11
         targetCompatibility = JavaVersion.VERSION_11
     }
+    testOptions {
+        // Local tests run code that logs; android.util.Log then does nothing
+        unitTests.isReturnDefaultValues = true
+        unitTests.all {
+            // Passes -Dbacktest.* on to AlertBacktestTest and -Dbenchmark to the benchmarks
+            System.getProperties().stringPropertyNames()
+                .filter { name -> name.startsWith("backtest.") || name == "benchmark" }
+                .forEach { name -> it.systemProperty(name, System.getProperty(name)) }
+        }
+    }
 }
 
 dependencies {
@@ -44,6 +54,7 @@ dependencies {
     implementation(libs.googleid)
     implementation(libs.firebase.database)
     implementation(libs.core.splashscreen)
+    implementation(libs.work.runtime)
     testImplementation(libs.junit)
     androidTestImplementation(libs.ext.junit)
     androidTestImplementation(libs.espresso.core)
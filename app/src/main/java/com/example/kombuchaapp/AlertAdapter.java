@@ -19,33 +19,46 @@ import android.widget.TextView;
 import androidx.core.graphics.drawable.DrawableCompat;
 import androidx.core.view.ViewCompat;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 import com.example.kombuchaapp.NotificationHelper;
 
 public final class AlertAdapter {
     private AlertAdapter() {}
 
-    private static TemperatureAlert.Level lastLevelShown = null;
-    private static long lastSevereAtMs = 0;
-    private static final long SEVERE_COOLDOWN_MS = 60_000;
-
-    private static long lastCriticalPushAtMs = 0;
-    private static final long CRITICAL_PUSH_COOLDOWN = 5 * 60_000;
+    // Temperature levels per recipe, evaluated on a background thread
+    private static final AlertEngine<TemperatureAlert.Level> TEMPERATURE_ALERTS = AlertEngine.forTemperature();
+    private static final ExecutorService ALERT_THREAD = Executors.newSingleThreadExecutor();
 
     private static final long BANNER_DISPLAY_DURATION = 5000; // 5 seconds
     private static Handler bannerHandler = new Handler(Looper.getMainLooper());
     private static Runnable hideBannerRunnable = null;
 
-    public static void handleNewReading(Activity activity, String recipeId, float tempF, View statusPill) {
-        TemperatureAlert.Result r = TemperatureAlert.evaluateF(tempF);
-        View root = activity.findViewById(android.R.id.content);
+    /**
+     * Feeds a temperature reading to the recipe's alert engine. The status
+     * pill, banner, animations and notification only react when the level
+     * changes, not on every reading.
+     */
+    public static void handleNewReading(Activity activity, String recipeId, float tempF, long timestampMs,
+                                        View statusPill) {
+        String id = recipeId != null ? recipeId : "";
+        ALERT_THREAD.execute(() -> {
+            AlertEngine.Transition<TemperatureAlert.Level> transition =
+                    TEMPERATURE_ALERTS.offer(id, tempF, timestampMs);
+            if (transition == null) return;
+            bannerHandler.post(() -> {
+                if (activity.isFinishing() || activity.isDestroyed()) return;
+                showTransition(activity, transition, statusPill);
+            });
+        });
+    }
 
-        if (r.level != TemperatureAlert.Level.OPTIMAL
-                && r.level != TemperatureAlert.Level.UNKNOWN
-                && r.level != lastLevelShown) {
-            // Show alert banner at top instead of Snackbar at bottom
-            showAlertBanner(activity, r.title + " • " + r.message, r.color);
-            lastLevelShown = r.level;
-        }
+    private static void showTransition(Activity activity, AlertEngine.Transition<TemperatureAlert.Level> transition,
+                                       View statusPill) {
+        TemperatureAlert.Result r = TemperatureAlert.evaluateF(transition.value);
+        TemperatureAlert.Level level = transition.to;
+        View root = activity.findViewById(android.R.id.content);
 
         if (statusPill != null) {
             statusPill.setVisibility(View.VISIBLE);
@@ -53,27 +66,36 @@ public final class AlertAdapter {
 
             if (statusPill instanceof android.widget.TextView) {
                 ((android.widget.TextView) statusPill).setText(
-                        r.level == TemperatureAlert.Level.OPTIMAL ? "OPTIMAL" :
-                                r.level == TemperatureAlert.Level.WARNING ? "WARNING" :
-                                        r.level == TemperatureAlert.Level.CRITICAL ? "CRITICAL" :
-                                                r.level == TemperatureAlert.Level.LETHAL ? "LETHAL" :
-                                                        r.level == TemperatureAlert.Level.DORMANT ? "DORMANT" : "—"
+                        level == TemperatureAlert.Level.OPTIMAL ? "OPTIMAL" :
+                                level == TemperatureAlert.Level.WARNING ? "WARNING" :
+                                        level == TemperatureAlert.Level.CRITICAL ? "CRITICAL" :
+                                                level == TemperatureAlert.Level.LETHAL ? "LETHAL" :
+                                                        level == TemperatureAlert.Level.DORMANT ? "DORMANT" : "—"
                 );
                 statusPill.setContentDescription("Temperature status: " + r.title);
             }
         }
 
-        long now = System.currentTimeMillis();
-        switch (r.level) {
+        // Within the level's cooldown only the pill changes
+        if (!transition.alert) return;
+
+        // Show alert banner at top instead of Snackbar at bottom
+        showAlertBanner(activity, r.title + " • " + r.message, r.color);
+
+        switch (level) {
             case LETHAL:
-                if (now - lastSevereAtMs > SEVERE_COOLDOWN_MS) {
-                    flashOverlay(root, 0x80B71C1C);
-                    shake(root);
-                    lastSevereAtMs = now;
-                }
+                flashOverlay(root, 0x80B71C1C);
+                shake(root);
                 break;
             case CRITICAL:
                 wobble(statusPill != null ? statusPill : root);
+                NotificationHelper.notifyCritical(
+                        activity.getApplicationContext(),
+                        transition.recipeId,
+                        r.title,
+                        r.message,
+                        transition.value
+                );
                 break;
             case WARNING:
                 pulse(statusPill != null ? statusPill : root);
@@ -81,26 +103,16 @@ public final class AlertAdapter {
             default:
                 break;
         }
-
-        if (r.level == TemperatureAlert.Level.CRITICAL) {
-            if (now - lastCriticalPushAtMs > CRITICAL_PUSH_COOLDOWN) {
-                lastCriticalPushAtMs = now;
-                Context ctx = activity.getApplicationContext();
-                NotificationHelper.notifyCritical(
-                        ctx,
-                        recipeId != null ? recipeId : "",
-                        r.title,
-                        r.message,
-                        tempF
-                );
-            }
-        }
     }
 
-    public static void resetDebounce() {
-        lastLevelShown = null;
-        lastSevereAtMs = 0;
-        lastCriticalPushAtMs = 0;
+    /**
+     * Forgets the level shown for a recipe, so the pill is set again from the
+     * next reading. Alert cooldowns are kept, so reopening a screen does not
+     * alert again.
+     */
+    public static void resetLevel(String recipeId) {
+        String id = recipeId != null ? recipeId : "";
+        ALERT_THREAD.execute(() -> TEMPERATURE_ALERTS.clearLevel(id));
     }
 
     /**
@@ -0,0 +1,203 @@
+package com.example.kombuchaapp;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turns a stream of readings into alert level changes, per recipe, for one
+ * sensor channel. A level is only left once the reading is more than the
+ * hysteresis margin past it, and a new level is only entered once it has held
+ * for that level's dwell time, so a reading hovering at a boundary does not
+ * flip the level back and forth. Only changes are reported, and a change
+ * only asks for an alert if the level has not alerted within its cooldown.
+ *
+ * Times are reading timestamps, not the clock, so readings can be replayed.
+ * Plain Java and not thread-safe: confine each engine to one thread.
+ */
+public final class AlertEngine<L extends Enum<L>> {
+
+    /** Cooldown of a level that never alerts. */
+    public static final long NO_ALERT = -1;
+
+    public interface Classifier<L> {
+        L classify(float value);
+    }
+
+    public static final class Transition<L> {
+        public final String recipeId;
+        /** Level before the change, or null for the first reading of the recipe. */
+        public final L from;
+        public final L to;
+        public final float value;
+        public final long timestampMs;
+        /** True if the UI should alert: banner, animation, notification. */
+        public final boolean alert;
+
+        Transition(String recipeId, L from, L to, float value, long timestampMs, boolean alert) {
+            this.recipeId = recipeId;
+            this.from = from;
+            this.to = to;
+            this.value = value;
+            this.timestampMs = timestampMs;
+            this.alert = alert;
+        }
+    }
+
+    private final Classifier<L> classifier;
+    private final float hysteresis;
+    // Indexed by level ordinal
+    private final long[] dwellMs;
+    private final long[] cooldownMs;
+
+    private final Map<String, State> states = new HashMap<>();
+
+    /**
+     * @param dwellMs    how long each level must hold before it is entered, by ordinal
+     * @param cooldownMs minimum time between alerts of each level, by ordinal, or {@link #NO_ALERT}
+     */
+    public AlertEngine(Classifier<L> classifier, float hysteresis, long[] dwellMs, long[] cooldownMs) {
+        if (dwellMs.length != cooldownMs.length) {
+            throw new IllegalArgumentException("dwellMs and cooldownMs must have one entry per level");
+        }
+        this.classifier = classifier;
+        this.hysteresis = hysteresis;
+        this.dwellMs = dwellMs.clone();
+        this.cooldownMs = cooldownMs.clone();
+    }
+
+    /**
+     * Temperature alerts on {@link TemperatureAlert} levels, with a 1°F margin.
+     * Lethal heat is entered at once; other levels must hold for 2 minutes.
+     */
+    public static AlertEngine<TemperatureAlert.Level> forTemperature() {
+        int levels = TemperatureAlert.Level.values().length;
+        long[] dwell = new long[levels];
+        long[] cooldown = new long[levels];
+        for (TemperatureAlert.Level level : TemperatureAlert.Level.values()) {
+            int i = level.ordinal();
+            switch (level) {
+                case LETHAL:
+                    dwell[i] = 0;
+                    cooldown[i] = 60_000;
+                    break;
+                case CRITICAL:
+                    dwell[i] = 2 * 60_000;
+                    cooldown[i] = 5 * 60_000;
+                    break;
+                case WARNING:
+                case DORMANT:
+                    dwell[i] = 2 * 60_000;
+                    cooldown[i] = 10 * 60_000;
+                    break;
+                default:
+                    dwell[i] = 2 * 60_000;
+                    cooldown[i] = NO_ALERT;
+                    break;
+            }
+        }
+        return new AlertEngine<>(TemperatureAlert::levelF, 1f, dwell, cooldown);
+    }
+
+    /**
+     * Feeds one reading. Returns the level change it completes, or null.
+     * Readings older than the last one of the recipe are ignored.
+     */
+    public Transition<L> offer(String recipeId, float value, long timestampMs) {
+        State state = states.get(recipeId);
+        if (state == null) {
+            state = new State(cooldownMs.length);
+            states.put(recipeId, state);
+        }
+        if (timestampMs < state.lastTimestampMs) {
+            return null;
+        }
+        state.lastTimestampMs = timestampMs;
+
+        L candidate = classifyFrom(state.level, value);
+        if (state.level == null) {
+            // Nothing shown yet: show the first reading's level at once
+            return commit(recipeId, state, candidate, value, timestampMs);
+        }
+        if (candidate == state.level) {
+            state.pending = null;
+            return null;
+        }
+        if (candidate != state.pending) {
+            state.pending = candidate;
+            state.pendingSinceMs = timestampMs;
+        }
+        if (timestampMs - state.pendingSinceMs < dwellMs[candidate.ordinal()]) {
+            return null;
+        }
+        return commit(recipeId, state, candidate, value, timestampMs);
+    }
+
+    /** Current level of a recipe, or null before its first reading. */
+    public L level(String recipeId) {
+        State state = states.get(recipeId);
+        return state != null ? state.level : null;
+    }
+
+    /**
+     * Forgets the level of a recipe, so the next reading is reported as a new
+     * first level, e.g. for a screen opened again. Cooldowns are kept, so this
+     * does not alert again.
+     */
+    public void clearLevel(String recipeId) {
+        State state = states.get(recipeId);
+        if (state != null) {
+            state.level = null;
+            state.pending = null;
+        }
+    }
+
+    /** Forgets everything about a recipe, e.g. when it is completed or deleted. */
+    public void remove(String recipeId) {
+        states.remove(recipeId);
+    }
+
+    /**
+     * The level of a value, staying at {@code current} while the value is
+     * within the hysteresis margin of it.
+     */
+    private L classifyFrom(L current, float value) {
+        L raw = classifier.classify(value);
+        if (current == null || raw == current || hysteresis <= 0) {
+            return raw;
+        }
+        if (classifier.classify(value - hysteresis) == current
+                || classifier.classify(value + hysteresis) == current) {
+            return current;
+        }
+        return raw;
+    }
+
+    private Transition<L> commit(String recipeId, State state, L level, float value, long timestampMs) {
+        L from = state.level;
+        state.level = level;
+        state.pending = null;
+
+        int i = level.ordinal();
+        boolean alert = false;
+        if (cooldownMs[i] != NO_ALERT
+                && (state.lastAlertMs[i] == Long.MIN_VALUE || timestampMs - state.lastAlertMs[i] >= cooldownMs[i])) {
+            alert = true;
+            state.lastAlertMs[i] = timestampMs;
+        }
+        return new Transition<>(recipeId, from, level, value, timestampMs, alert);
+    }
+
+    private final class State {
+        L level;
+        L pending;
+        long pendingSinceMs;
+        long lastTimestampMs = Long.MIN_VALUE;
+        final long[] lastAlertMs;
+
+        State(int levels) {
+            lastAlertMs = new long[levels];
+            Arrays.fill(lastAlertMs, Long.MIN_VALUE);
+        }
+    }
+}
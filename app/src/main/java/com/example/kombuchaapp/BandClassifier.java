@@ -0,0 +1,118 @@
+package com.example.kombuchaapp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Classifies a reading into one of a fixed set of bands, e.g. temperature
+ * ranges, by binary search over a sorted table of band bounds. Results are
+ * built once with the table, so classifying a reading allocates nothing.
+ *
+ * Bands are listed from the lowest value up: the first band covers everything
+ * below the first bound, and each {@link Builder#from} or
+ * {@link Builder#above} starts the next band at a higher bound. NaN and
+ * infinite readings get the invalid result. Immutable and thread-safe.
+ */
+public final class BandClassifier<R> {
+
+    // Upper bound of band i, ascending; the last band has none
+    private final float[] bounds;
+    // Whether band i includes its upper bound
+    private final boolean[] inclusive;
+    private final R[] results;
+    private final R invalid;
+
+    private BandClassifier(float[] bounds, boolean[] inclusive, R[] results, R invalid) {
+        this.bounds = bounds;
+        this.inclusive = inclusive;
+        this.results = results;
+        this.invalid = invalid;
+    }
+
+    /** Starts a table whose lowest band, below every bound, has {@code lowest}. */
+    public static <R> Builder<R> startingWith(R lowest) {
+        return new Builder<>(lowest);
+    }
+
+    public R classify(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            return invalid;
+        }
+        // First band whose upper bound the value does not pass
+        int lo = 0;
+        int hi = bounds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            float bound = bounds[mid];
+            if (value < bound || (value == bound && inclusive[mid])) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return results[lo];
+    }
+
+    /** Classifies {@code values[from..to)} into the same indices of {@code out}. */
+    public void classifyAll(float[] values, int from, int to, R[] out) {
+        if (from < 0 || to > values.length || to > out.length || from > to) {
+            throw new IndexOutOfBoundsException("from " + from + ", to " + to);
+        }
+        for (int i = from; i < to; i++) {
+            out[i] = classify(values[i]);
+        }
+    }
+
+    public void classifyAll(float[] values, R[] out) {
+        classifyAll(values, 0, values.length, out);
+    }
+
+    public static final class Builder<R> {
+        private final List<Float> bounds = new ArrayList<>();
+        private final List<Boolean> inclusive = new ArrayList<>();
+        private final List<R> results = new ArrayList<>();
+        private R invalid;
+
+        private Builder(R lowest) {
+            results.add(lowest);
+        }
+
+        /** The next band starts at {@code bound}, inclusive. */
+        public Builder<R> from(float bound, R result) {
+            return add(bound, false, result);
+        }
+
+        /** The next band starts just above {@code bound}. */
+        public Builder<R> above(float bound, R result) {
+            return add(bound, true, result);
+        }
+
+        /** Result for NaN and infinite readings. */
+        public Builder<R> invalid(R result) {
+            invalid = result;
+            return this;
+        }
+
+        @SuppressWarnings("unchecked")
+        public BandClassifier<R> build() {
+            float[] b = new float[bounds.size()];
+            boolean[] inc = new boolean[bounds.size()];
+            for (int i = 0; i < b.length; i++) {
+                b[i] = bounds.get(i);
+                inc[i] = inclusive.get(i);
+            }
+            return new BandClassifier<>(b, inc, (R[]) results.toArray(), invalid);
+        }
+
+        private Builder<R> add(float bound, boolean belowInclusive, R result) {
+            if (Float.isNaN(bound) || Float.isInfinite(bound)
+                    || (!bounds.isEmpty() && bound <= bounds.get(bounds.size() - 1))) {
+                throw new IllegalArgumentException("Band bounds must be finite and ascending: " + bound);
+            }
+            bounds.add(bound);
+            inclusive.add(belowInclusive);
+            results.add(result);
+            return this;
+        }
+    }
+}
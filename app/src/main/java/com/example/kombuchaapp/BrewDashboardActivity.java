@@ -0,0 +1,127 @@
+package com.example.kombuchaapp;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.view.View;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.activity.OnBackPressedCallback;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.appcompat.widget.Toolbar;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.kombuchaapp.models.LiveReading;
+import com.example.kombuchaapp.models.UserSettings;
+import com.example.kombuchaapp.repositories.LiveReadingsRepository;
+import com.example.kombuchaapp.repositories.SettingsRepository;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Live temperature, pH and fermentation stage of every brew in progress.
+ */
+public class BrewDashboardActivity extends AppCompatActivity {
+
+    private static final String TAG = "BrewDashboardActivity";
+
+    private ProgressBar progressBar;
+    private TextView tvNoBrews;
+    private BrewDashboardAdapter adapter;
+
+    private LiveReadingsRepository liveReadingsRepository;
+    private SettingsRepository settingsRepository;
+    private ListenerRegistration liveListener;
+    private boolean loaded;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_brew_dashboard);
+
+        liveReadingsRepository = new LiveReadingsRepository();
+        settingsRepository = new SettingsRepository();
+
+        Toolbar toolbar = findViewById(R.id.toolbar);
+        setSupportActionBar(toolbar);
+        Objects.requireNonNull(getSupportActionBar()).setDisplayHomeAsUpEnabled(true);
+        getSupportActionBar().setDisplayShowHomeEnabled(true);
+        toolbar.setNavigationOnClickListener(v ->
+                FizzTransitionUtil.play(BrewDashboardActivity.this, this::finish)
+        );
+
+        getOnBackPressedDispatcher().addCallback(this, new OnBackPressedCallback(true) {
+            @Override
+            public void handleOnBackPressed() {
+                FizzTransitionUtil.play(BrewDashboardActivity.this,
+                        BrewDashboardActivity.this::finish);
+            }
+        });
+
+        progressBar = findViewById(R.id.progressBar);
+        tvNoBrews = findViewById(R.id.tv_no_brews);
+
+        RecyclerView recyclerView = findViewById(R.id.brews_recycler_view);
+        recyclerView.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new BrewDashboardAdapter(this);
+        recyclerView.setAdapter(adapter);
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        loadTemperatureUnit();
+        startLiveListener();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Readings keep arriving while brewing; stop listening when not visible
+        if (liveListener != null) {
+            liveListener.remove();
+            liveListener = null;
+        }
+    }
+
+    private void loadTemperatureUnit() {
+        settingsRepository.getUserSettings(new SettingsRepository.OnSettingsLoadedListener() {
+            @Override
+            public void onSuccess(UserSettings settings) {
+                runOnUiThread(() -> adapter.setTemperatureUnit(settings.getTemperatureUnit()));
+            }
+
+            @Override
+            public void onFailure(String error) {
+                Log.w(TAG, "Could not load temperature unit preference: " + error);
+            }
+        });
+    }
+
+    private void startLiveListener() {
+        if (!loaded) {
+            progressBar.setVisibility(View.VISIBLE);
+        }
+
+        liveListener = liveReadingsRepository.listen(new LiveReadingsRepository.OnLiveReadingsListener() {
+            @Override
+            public void onSuccess(List<LiveReading> readings) {
+                loaded = true;
+                progressBar.setVisibility(View.GONE);
+                tvNoBrews.setVisibility(readings.isEmpty() ? View.VISIBLE : View.GONE);
+                adapter.submitList(readings);
+            }
+
+            @Override
+            public void onFailure(String error) {
+                progressBar.setVisibility(View.GONE);
+                Toast.makeText(BrewDashboardActivity.this,
+                        "Failed to load live readings: " + error, Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+}
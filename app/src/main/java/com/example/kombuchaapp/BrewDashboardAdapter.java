@@ -0,0 +1,120 @@
+package com.example.kombuchaapp;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Color;
+import android.text.format.DateUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.kombuchaapp.models.LiveReading;
+
+import java.util.Locale;
+
+public class BrewDashboardAdapter extends ListAdapter<LiveReading, BrewDashboardAdapter.BrewViewHolder> {
+
+    private static final DiffUtil.ItemCallback<LiveReading> DIFF_CALLBACK = new DiffUtil.ItemCallback<LiveReading>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull LiveReading oldItem, @NonNull LiveReading newItem) {
+            return oldItem.getRecipeId().equals(newItem.getRecipeId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull LiveReading oldItem, @NonNull LiveReading newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private final Context context;
+    private String temperatureUnit = "celsius";
+
+    public BrewDashboardAdapter(Context context) {
+        super(DIFF_CALLBACK);
+        this.context = context;
+    }
+
+    public void setTemperatureUnit(String temperatureUnit) {
+        if (temperatureUnit.equals(this.temperatureUnit)) return;
+        this.temperatureUnit = temperatureUnit;
+        notifyDataSetChanged();
+    }
+
+    @NonNull
+    @Override
+    public BrewViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.item_brew_live, parent, false);
+        return new BrewViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull BrewViewHolder holder, int position) {
+        LiveReading reading = getItem(position);
+
+        holder.tvName.setText(reading.getRecipeName());
+
+        float tempF = reading.getTemperatureF();
+        if (Float.isNaN(tempF)) {
+            holder.tvTemperature.setText("--");
+            holder.tvTemperature.setTextColor(Color.parseColor("#757575"));
+        } else {
+            holder.tvTemperature.setText(formatTemperature(tempF));
+            holder.tvTemperature.setTextColor(TemperatureAlert.evaluateF(tempF).color);
+        }
+
+        float ph = reading.getPh();
+        if (Float.isNaN(ph)) {
+            holder.tvPh.setText("--");
+            holder.tvPh.setTextColor(Color.parseColor("#757575"));
+            holder.tvStage.setVisibility(View.GONE);
+        } else {
+            PhFermentationStage.Result stage = PhFermentationStage.evaluate(ph);
+            holder.tvPh.setText(String.format(Locale.getDefault(), "%.2f", ph));
+            holder.tvPh.setTextColor(stage.color);
+            holder.tvStage.setText(stage.title);
+            holder.tvStage.setBackgroundColor(stage.color);
+            holder.tvStage.setVisibility(View.VISIBLE);
+        }
+
+        long updated = reading.getLastUpdatedMs();
+        if (updated > 0) {
+            holder.tvUpdated.setText("Updated " + DateUtils.getRelativeTimeSpanString(
+                    updated, System.currentTimeMillis(), DateUtils.MINUTE_IN_MILLIS));
+        } else {
+            holder.tvUpdated.setText("No readings yet");
+        }
+
+        holder.itemView.setOnClickListener(v -> {
+            Intent intent = new Intent(context, ViewRecipeActivity.class);
+            intent.putExtra("recipe_id", reading.getRecipeId());
+            context.startActivity(intent);
+        });
+    }
+
+    private String formatTemperature(float tempF) {
+        if ("fahrenheit".equalsIgnoreCase(temperatureUnit)) {
+            return String.format(Locale.getDefault(), "%.1f°F", tempF);
+        } else {
+            return String.format(Locale.getDefault(), "%.1f°C", (tempF - 32) * 5 / 9);
+        }
+    }
+
+    static class BrewViewHolder extends RecyclerView.ViewHolder {
+        TextView tvName, tvTemperature, tvPh, tvStage, tvUpdated;
+
+        BrewViewHolder(@NonNull View itemView) {
+            super(itemView);
+            tvName = itemView.findViewById(R.id.brew_name);
+            tvTemperature = itemView.findViewById(R.id.brew_temperature);
+            tvPh = itemView.findViewById(R.id.brew_ph);
+            tvStage = itemView.findViewById(R.id.brew_stage);
+            tvUpdated = itemView.findViewById(R.id.brew_updated);
+        }
+    }
+}
@@ -47,7 +47,7 @@ public class CreateANewRecipe extends AppCompatActivity {
         setContentView(R.layout.activity_create_anew_recipe);
 
         // Initialize repository
-        recipeRepository = new RecipeRepository();
+        recipeRepository = new RecipeRepository(this);
 
         // Initialize UI components
         initViews();
@@ -67,7 +67,7 @@ public class DataInsightsActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_data_insights);
 
-        insightsRepository = new DataInsightsRepository();
+        insightsRepository = new DataInsightsRepository(this);
 
         // Initialize toolbar
         Toolbar toolbar = findViewById(R.id.toolbar);
@@ -159,22 +159,37 @@ public class DataInsightsActivity extends AppCompatActivity {
     }
 
     private void loadInsights() {
-        showLoading(true);
+        // Show the last computed insights at once and only recompute if something changed
+        DataInsights cached = insightsRepository.getCachedInsights();
+        boolean showingCached = cached != null;
+        if (showingCached) {
+            showInsights(cached, false);
+            if (!insightsRepository.isCacheStale()) {
+                return;
+            }
+        } else {
+            showLoading(true);
+        }
 
         insightsRepository.calculateInsights(new DataInsightsRepository.OnInsightsLoadedListener() {
             @Override
             public void onSuccess(DataInsights insights) {
                 runOnUiThread(() -> {
                     showLoading(false);
-
-                    if (insights.getTotalRecipes() == 0) {
-                        showNoDataState();
-                    } else {
-                        displayInsights(insights);
-                    }
+                    // Refreshing cached insights in place, so don't replay the chart animations
+                    showInsights(insights, !showingCached);
                 });
             }
 
+            @Override
+            public void onPartialResult(DataInsights insights) {
+                // Already on the main thread; show the stored statistics while the rest loads
+                if (!showingCached) {
+                    showLoading(false);
+                    displayInsights(insights, true);
+                }
+            }
+
             @Override
             public void onFailure(String error) {
                 runOnUiThread(() -> {
@@ -183,13 +198,24 @@ public class DataInsightsActivity extends AppCompatActivity {
                             "Error loading insights: " + error,
                             Toast.LENGTH_SHORT).show();
                     Log.e(TAG, "Failed to load insights: " + error);
-                    showNoDataState();
+                    // Keep showing cached insights if there are any
+                    if (!showingCached) {
+                        showNoDataState();
+                    }
                 });
             }
         });
     }
 
-    private void displayInsights(DataInsights insights) {
+    private void showInsights(DataInsights insights, boolean animate) {
+        if (insights.getTotalRecipes() == 0) {
+            showNoDataState();
+        } else {
+            displayInsights(insights, animate);
+        }
+    }
+
+    private void displayInsights(DataInsights insights, boolean animate) {
         noDataCard.setVisibility(View.GONE);
         insightsCard.setVisibility(View.VISIBLE);
 
@@ -207,7 +233,8 @@ public class DataInsightsActivity extends AppCompatActivity {
 
         // Temperature statistics
         if (insights.getAvgTemperatureC() > 0) {
-            tvAvgTemp.setText(String.format(Locale.getDefault(), "%.1f°C", insights.getAvgTemperatureC()));
+            tvAvgTemp.setText(String.format(Locale.getDefault(), "%.1f°C ± %.1f",
+                    insights.getAvgTemperatureC(), insights.getTempStdDevC()));
         } else {
             tvAvgTemp.setText("N/A");
         }
@@ -256,11 +283,11 @@ public class DataInsightsActivity extends AppCompatActivity {
         }
 
         // Update charts
-        updateStatusPieChart(insights);
-        updateTeaTypesBarChart(insights);
+        updateStatusPieChart(insights, animate);
+        updateTeaTypesBarChart(insights, animate);
     }
 
-    private void updateStatusPieChart(DataInsights insights) {
+    private void updateStatusPieChart(DataInsights insights, boolean animate) {
         Map<String, Integer> statusCounts = insights.getStatusCounts();
 
         if (statusCounts.isEmpty()) {
@@ -306,11 +333,13 @@ public class DataInsightsActivity extends AppCompatActivity {
         data.setValueFormatter(new PercentFormatter(statusPieChart));
 
         statusPieChart.setData(data);
-        statusPieChart.animateY(1000);
+        if (animate) {
+            statusPieChart.animateY(1000);
+        }
         statusPieChart.invalidate();
     }
 
-    private void updateTeaTypesBarChart(DataInsights insights) {
+    private void updateTeaTypesBarChart(DataInsights insights, boolean animate) {
         Map<String, Integer> teaCounts = insights.getTeaTypeCounts();
 
         if (teaCounts.isEmpty()) {
@@ -340,7 +369,9 @@ public class DataInsightsActivity extends AppCompatActivity {
         teaTypesBarChart.setData(barData);
         teaTypesBarChart.getXAxis().setValueFormatter(new IndexAxisValueFormatter(labels));
         teaTypesBarChart.getXAxis().setLabelCount(labels.size());
-        teaTypesBarChart.animateY(1000);
+        if (animate) {
+            teaTypesBarChart.animateY(1000);
+        }
         teaTypesBarChart.invalidate();
     }
 
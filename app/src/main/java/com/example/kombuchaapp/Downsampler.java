@@ -0,0 +1,135 @@
+package com.example.kombuchaapp;
+
+/**
+ * Reduces a long reading series to roughly the number of points a chart can
+ * actually show. X values are the reading indices, which is what the detail
+ * charts plot. Both methods write the selected indices (ascending) into
+ * {@code out} and return how many were written; the first and last index of
+ * the range are always kept so the chart keeps its full X extent, so
+ * {@code out} must hold at least two indices.
+ */
+public final class Downsampler {
+    private Downsampler() {}
+
+    /**
+     * Largest-Triangle-Three-Buckets: keeps the visual shape of the line with
+     * {@code threshold} points. Good for smooth curves such as pH.
+     */
+    public static int lttb(float[] ys, int from, int to, int threshold, int[] out) {
+        int n = to - from;
+        if (n <= 0) return 0;
+        if (threshold >= n) {
+            return copyAll(from, to, out);
+        }
+        if (threshold < 3) {
+            return endpoints(from, to, out);
+        }
+
+        int count = 0;
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = from;
+        out[count++] = a;
+
+        for (int i = 0; i < threshold - 2; i++) {
+            // Average of the next bucket is the third point of the triangle
+            int avgStart = from + (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min(from + (int) Math.floor((i + 2) * every) + 1, to);
+            double avgX = 0;
+            double avgY = 0;
+            int avgLength = avgEnd - avgStart;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += j;
+                avgY += ys[j];
+            }
+            if (avgLength > 0) {
+                avgX /= avgLength;
+                avgY /= avgLength;
+            } else {
+                avgX = to - 1;
+                avgY = ys[to - 1];
+            }
+
+            // Pick the point in this bucket forming the largest triangle
+            int rangeStart = from + (int) Math.floor(i * every) + 1;
+            int rangeEnd = from + (int) Math.floor((i + 1) * every) + 1;
+            double ax = a;
+            double ay = ys[a];
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((ax - avgX) * (ys[j] - ay) - (ax - j) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            out[count++] = next;
+            a = next;
+        }
+
+        out[count++] = to - 1;
+        return count;
+    }
+
+    /**
+     * Min/max per bucket: keeps the lowest and highest reading of every bucket,
+     * so short spikes (e.g. a temperature crossing an alert threshold) are never
+     * dropped. Emits at most {@code 2 * buckets + 2} points.
+     */
+    public static int minMax(float[] ys, int from, int to, int buckets, int[] out) {
+        int n = to - from;
+        if (n <= 0) return 0;
+        if (2 * buckets + 2 >= n) {
+            return copyAll(from, to, out);
+        }
+        if (buckets < 1) {
+            return endpoints(from, to, out);
+        }
+
+        int count = 0;
+        out[count++] = from;
+
+        double every = (double) (n - 2) / buckets;
+        for (int b = 0; b < buckets; b++) {
+            int start = from + 1 + (int) Math.floor(b * every);
+            int end = Math.min(from + 1 + (int) Math.floor((b + 1) * every), to - 1);
+            if (start >= end) continue;
+
+            int minIndex = start;
+            int maxIndex = start;
+            for (int j = start + 1; j < end; j++) {
+                if (ys[j] < ys[minIndex]) minIndex = j;
+                if (ys[j] > ys[maxIndex]) maxIndex = j;
+            }
+
+            // Keep index order so the line is drawn left to right
+            if (minIndex == maxIndex) {
+                out[count++] = minIndex;
+            } else if (minIndex < maxIndex) {
+                out[count++] = minIndex;
+                out[count++] = maxIndex;
+            } else {
+                out[count++] = maxIndex;
+                out[count++] = minIndex;
+            }
+        }
+
+        out[count++] = to - 1;
+        return count;
+    }
+
+    private static int endpoints(int from, int to, int[] out) {
+        out[0] = from;
+        if (to - from == 1) return 1;
+        out[1] = to - 1;
+        return 2;
+    }
+
+    private static int copyAll(int from, int to, int[] out) {
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            out[count++] = i;
+        }
+        return count;
+    }
+}
@@ -66,7 +66,7 @@ public class EditRecipeActivity extends AppCompatActivity {
         }
 
         // Initialize repository
-        recipeRepository = new RecipeRepository();
+        recipeRepository = new RecipeRepository(this);
 
         // Initialize UI components
         initViews();
@@ -2,15 +2,31 @@ package com.example.kombuchaapp;
 
 import android.app.Activity;
 import android.app.Application;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.os.Bundle;
 import android.view.View;
 
+import androidx.core.content.ContextCompat;
+
+import com.example.kombuchaapp.models.ReadingTimestamps;
+
 public class HapticsInitializer extends Application {
 
     @Override
     public void onCreate() {
         super.onCreate();
 
+        // ReadingTimestamps caches the device time zone
+        ContextCompat.registerReceiver(this, new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                ReadingTimestamps.refreshZone();
+            }
+        }, new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED), ContextCompat.RECEIVER_NOT_EXPORTED);
+
         registerActivityLifecycleCallbacks(new ActivityLifecycleCallbacks() {
             @Override public void onActivityCreated(Activity a, Bundle b) { attach(a); }
             @Override public void onActivityStarted(Activity a) {}
@@ -5,6 +5,7 @@ import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.text.SpannableString;
 import android.text.style.ForegroundColorSpan;
+import android.util.Log;
 import android.view.MenuItem;
 import android.view.View;
 import android.widget.Button;
@@ -16,6 +17,7 @@ import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.ContextCompat;
@@ -26,21 +28,28 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.kombuchaapp.models.Recipe;
+import com.example.kombuchaapp.repositories.BatchDeleter;
+import com.example.kombuchaapp.repositories.BrewMonitorWorker;
+import com.example.kombuchaapp.repositories.LiveReadingsRepository;
 import com.example.kombuchaapp.repositories.RecipeRepository;
+import com.example.kombuchaapp.repositories.SensorRouter;
 import com.google.firebase.analytics.FirebaseAnalytics;
 import com.google.firebase.auth.AuthCredential;
 import com.google.firebase.auth.EmailAuthProvider;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
-import com.google.firebase.firestore.WriteBatch;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnRecipeDeletedListener {
 
+    private static final String TAG = "MainActivity";
     private static final String PREFS_NAME = "SettingsCache";
 
     Button newRecipeButton, logoutButton, myBrewButton, discoverButton;
@@ -53,6 +62,22 @@ public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnR
     private FirebaseAuth fAuth;
     private RecipeRepository recipeRepository;
     private RecipeAdapter recipeAdapter;
+    // Discover feed paging: a small first page for a fast first card, then larger ones
+    private static final int DISCOVER_FIRST_PAGE_SIZE = 10;
+    private static final int DISCOVER_PAGE_SIZE = 20;
+    // Start loading the next page when this few cards are left below the screen
+    private static final int DISCOVER_PREFETCH_DISTANCE = 5;
+
+    private DocumentSnapshot discoverCursor;
+    private boolean discoverHasMore;
+    private boolean discoverLoading;
+    // Bumped on every reload, so pages requested for an earlier list are dropped
+    private int discoverGeneration;
+
+    // My Brews follows the recipe collection while this screen is started
+    private ListenerRegistration myRecipesListener;
+    // Latest list from the listener; null until the first snapshot
+    private List<Recipe> myRecipes;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -68,7 +93,14 @@ public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnR
 
         mFirebaseAnalytics = FirebaseAnalytics.getInstance(this);
         fAuth = FirebaseAuth.getInstance();
-        recipeRepository = new RecipeRepository();
+        recipeRepository = new RecipeRepository(this);
+
+        // Finish deletions an earlier run was killed in the middle of
+        if (fAuth.getCurrentUser() != null) {
+            new BatchDeleter(this).resumePending();
+            // Keep an eye on running brews while the app is closed
+            BrewMonitorWorker.schedule(this);
+        }
 
         // Initialize existing buttons
         newRecipeButton = findViewById(R.id.NewRecipeButton);
@@ -85,8 +117,8 @@ public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnR
         // Setup RecyclerView
         setupRecyclerView();
 
-        // Load recipes
-        loadMyRecipes();
+        // Recipes arrive from the listener started in onStart()
+        showLoading(true);
 
         //Existing button listeners
         newRecipeButton.setOnClickListener(v -> {
@@ -104,7 +136,9 @@ public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnR
 
         myBrewButton.setOnClickListener(v -> {
             recipeAdapter.setDiscoverMode(false);
-            loadMyRecipes();
+            // Drop any Discover page still on its way
+            discoverGeneration++;
+            showMyRecipes();
             myBrewButton.setTypeface(null, android.graphics.Typeface.BOLD);
             discoverButton.setTypeface(null, android.graphics.Typeface.NORMAL);
             // Show create button in My Brews mode
@@ -137,6 +171,11 @@ public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnR
                 Intent intent = new Intent(MainActivity.this, SettingsActivity.class);
                 FizzTransitionUtil.play(MainActivity.this, () -> startActivity(intent));
                 return true;
+            } else if (itemId == R.id.menu_dashboard) {
+                // Navigate to the live dashboard of brews in progress
+                Intent intent = new Intent(MainActivity.this, BrewDashboardActivity.class);
+                FizzTransitionUtil.play(MainActivity.this, () -> startActivity(intent));
+                return true;
             } else if (itemId == R.id.menu_insights) {
                 // Navigate to insights
                 Intent intent = new Intent(MainActivity.this, DataInsightsActivity.class);
@@ -158,16 +197,38 @@ public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnR
     }
 
     @Override
-    protected void onResume() {
-        super.onResume();
-        // Reload recipes when returning to this activity
-        loadMyRecipes();
+    protected void onStart() {
+        super.onStart();
+        // Edits made on other screens, and purges finishing, arrive as single-document changes
+        startMyRecipesListener();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (myRecipesListener != null) {
+            myRecipesListener.remove();
+            myRecipesListener = null;
+        }
     }
 
     private void setupRecyclerView() {
         recipeAdapter = new RecipeAdapter(this, this);
-        recipesRecyclerView.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        recipesRecyclerView.setLayoutManager(layoutManager);
         recipesRecyclerView.setAdapter(recipeAdapter);
+
+        // Fetch the next Discover page before the user reaches the end
+        recipesRecyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (!recipeAdapter.isDiscoverMode() || discoverLoading || !discoverHasMore) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= recipeAdapter.getItemCount() - DISCOVER_PREFETCH_DISTANCE) {
+                    loadNextDiscoverPage();
+                }
+            }
+        });
     }
 
     private void showLoading(boolean show) {
@@ -187,11 +248,12 @@ public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnR
 
     @Override
     public void onRecipeDeleted() {
-        // Callback from adapter when a recipe is deleted
-        loadMyRecipes(); // Reload the list
+        // Callback from adapter when a recipe is deleted; the recipe listener
+        // delivers the removal, so there is nothing to reload
     }
 
     private void logout() {
+        BrewMonitorWorker.cancel(this);
         fAuth.signOut();
         Toast.makeText(this, "Logged out successfully", Toast.LENGTH_SHORT).show();
         Intent intent = new Intent(MainActivity.this, Login.class);
@@ -201,41 +263,108 @@ public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnR
         });
     }
 
-    private void loadMyRecipes() {
-        showLoading(true);
-        recipeRepository.getAllRecipes(new RecipeRepository.OnRecipesLoadedListener() {
+    private void startMyRecipesListener() {
+        if (myRecipesListener != null) return;
+
+        myRecipesListener = recipeRepository.listenToRecipes(new RecipeRepository.OnRecipesLoadedListener() {
             @Override
             public void onSuccess(List<Recipe> recipes) {
-                showLoading(false);
-                recipeAdapter.setRecipes(recipes);
-                toggleEmptyState(recipes.isEmpty());
+                myRecipes = recipes;
+                // Kept for when the user switches back from Discover
+                if (!recipeAdapter.isDiscoverMode()) {
+                    showMyRecipes();
+                }
             }
 
             @Override
             public void onFailure(String error) {
+                // The listener stops after an error; start again on the next onStart()
+                myRecipesListener = null;
                 showLoading(false);
                 Toast.makeText(MainActivity.this, "Error: " + error, Toast.LENGTH_SHORT).show();
             }
         });
     }
 
+    private void showMyRecipes() {
+        if (myRecipes == null) {
+            // Still waiting for the first snapshot
+            showLoading(true);
+            return;
+        }
+        showLoading(false);
+        recipeAdapter.setRecipes(myRecipes);
+        toggleEmptyState(myRecipes.isEmpty());
+    }
+
     private void loadDiscoverRecipes() {
-        showLoading(true);
-        recipeRepository.getAllPublishedRecipes(new RecipeRepository.OnRecipesLoadedListener() {
-            @Override
-            public void onSuccess(List<Recipe> recipes) {
-                showLoading(false);
-                recipeAdapter.setRecipes(recipes);
-                toggleEmptyState(recipes.isEmpty());
-            }
+        showLoading(recipeAdapter.getItemCount() == 0);
+        discoverGeneration++;
+        discoverCursor = null;
+        discoverHasMore = false;
+        discoverLoading = true;
+        int generation = discoverGeneration;
+
+        recipeRepository.getPublishedRecipesPage(null, DISCOVER_FIRST_PAGE_SIZE,
+                new RecipeRepository.OnRecipePageLoadedListener() {
+                    @Override
+                    public void onSuccess(List<Recipe> recipes, DocumentSnapshot lastDocument, boolean hasMore) {
+                        if (generation != discoverGeneration) return;
+                        discoverLoading = false;
+                        discoverCursor = lastDocument;
+                        discoverHasMore = hasMore;
+                        showLoading(false);
+                        recipeAdapter.setRecipes(recipes);
+                        toggleEmptyState(recipes.isEmpty());
+                    }
 
-            @Override
-            public void onFailure(String error) {
-                showLoading(false);
-                Toast.makeText(MainActivity.this, "Error: " + error, Toast.LENGTH_SHORT).show();
-            }
-        });
+                    @Override
+                    public void onLikesLoaded(String recipeId, int likes, boolean liked) {
+                        if (generation != discoverGeneration) return;
+                        recipeAdapter.updateDiscoverLikes(recipeId, likes, liked);
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        if (generation != discoverGeneration) return;
+                        discoverLoading = false;
+                        showLoading(false);
+                        Toast.makeText(MainActivity.this, "Error: " + error, Toast.LENGTH_SHORT).show();
+                    }
+                });
     }
+
+    private void loadNextDiscoverPage() {
+        discoverLoading = true;
+        int generation = discoverGeneration;
+
+        recipeRepository.getPublishedRecipesPage(discoverCursor, DISCOVER_PAGE_SIZE,
+                new RecipeRepository.OnRecipePageLoadedListener() {
+                    @Override
+                    public void onSuccess(List<Recipe> recipes, DocumentSnapshot lastDocument, boolean hasMore) {
+                        if (generation != discoverGeneration) return;
+                        discoverLoading = false;
+                        discoverCursor = lastDocument;
+                        discoverHasMore = hasMore;
+                        recipeAdapter.appendRecipes(recipes);
+                    }
+
+                    @Override
+                    public void onLikesLoaded(String recipeId, int likes, boolean liked) {
+                        if (generation != discoverGeneration) return;
+                        recipeAdapter.updateDiscoverLikes(recipeId, likes, liked);
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        if (generation != discoverGeneration) return;
+                        // Leave hasMore set, so scrolling again retries the page
+                        discoverLoading = false;
+                        Log.e(TAG, "Failed to load more recipes: " + error);
+                    }
+                });
+    }
+
     private void toggleEmptyState(boolean isEmpty) {
         TextView emptyStateText = findViewById(R.id.emptyStateText);
         RecyclerView recyclerView = findViewById(R.id.recipesRecyclerView);
@@ -323,6 +452,11 @@ public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnR
         FirebaseFirestore db = FirebaseFirestore.getInstance();
         DocumentReference userDocRef = db.collection("users").document(userId);
 
+        // Free the user's sensors for other brews; the deletion goes ahead either way
+        new SensorRouter().releaseUser(userId, () -> deleteUserRecipes(userDocRef, user));
+    }
+
+    private void deleteUserRecipes(DocumentReference userDocRef, FirebaseUser user) {
         // First, delete all recipes and their subcollections
         userDocRef.collection("Recipes").get()
                 .addOnSuccessListener(recipesSnapshot -> {
@@ -343,57 +477,38 @@ public class MainActivity extends AppCompatActivity implements RecipeAdapter.OnR
     private void deleteRecipesWithSubcollections(DocumentReference userDocRef,
                                                  com.google.firebase.firestore.QuerySnapshot recipesSnapshot,
                                                  FirebaseUser user) {
-        final int[] pendingDeletes = {recipesSnapshot.size()};
-
+        String userId = user.getUid();
+        List<String> collections = new ArrayList<>();
+        List<String> documents = new ArrayList<>();
         for (QueryDocumentSnapshot recipeDoc : recipesSnapshot) {
-            DocumentReference recipeRef = recipeDoc.getReference();
-
-            // Delete temperature_readings subcollection
-            deleteSubcollection(recipeRef.collection("temperature_readings"), () -> {
-                // Delete ph_readings subcollection
-                deleteSubcollection(recipeRef.collection("ph_readings"), () -> {
-                    // Delete the recipe document itself
-                    recipeRef.delete().addOnCompleteListener(task -> {
-                        pendingDeletes[0]--;
-                        if (pendingDeletes[0] == 0) {
-                            // All recipes deleted, now delete user document and auth
-                            deleteUserDocumentAndAuth(userDocRef, user);
-                        }
-                    });
-                });
-            });
+            collections.addAll(BatchDeleter.recipeCollections(userId, recipeDoc.getId()));
+            documents.add(recipeDoc.getReference().getPath());
         }
-    }
-
-    private void deleteSubcollection(com.google.firebase.firestore.CollectionReference collectionRef,
-                                     Runnable onComplete) {
-        // Firestore WriteBatch has a limit of 500 operations, so we need to batch in chunks
-        final int BATCH_SIZE = 450; // Use 450 to leave some margin
-
-        collectionRef.limit(BATCH_SIZE).get().addOnSuccessListener(snapshot -> {
-            if (snapshot.isEmpty()) {
-                onComplete.run();
-                return;
-            }
+        collections.add(userDocRef.collection("reading_rollups").getPath());
+        documents.add(userDocRef.collection(LiveReadingsRepository.COLLECTION)
+                .document(LiveReadingsRepository.DOCUMENT).getPath());
+
+        // Every recipe's readings, then the recipes themselves, in batches of 450 deletes
+        new BatchDeleter(this).delete("account/" + userId, collections, documents,
+                deleted -> {
+                    if (deletionProgressDialog != null) {
+                        deletionProgressDialog.setMessage("Deleting your data... " + deleted + " items removed");
+                    }
+                },
+                new BatchDeleter.OnDeleteListener() {
+                    @Override
+                    public void onSuccess(int deleted) {
+                        // All recipes deleted, now delete user document and auth
+                        deleteUserDocumentAndAuth(userDocRef, user);
+                    }
 
-            FirebaseFirestore db = FirebaseFirestore.getInstance();
-            WriteBatch batch = db.batch();
-            for (QueryDocumentSnapshot doc : snapshot) {
-                batch.delete(doc.getReference());
-            }
-            batch.commit().addOnCompleteListener(task -> {
-                // If we deleted a full batch, there might be more documents
-                if (snapshot.size() >= BATCH_SIZE) {
-                    // Recursively delete next batch
-                    deleteSubcollection(collectionRef, onComplete);
-                } else {
-                    onComplete.run();
-                }
-            });
-        }).addOnFailureListener(e -> {
-            // Continue even if subcollection doesn't exist
-            onComplete.run();
-        });
+                    @Override
+                    public void onFailure(String error) {
+                        // Keep the account so the remaining data can still be deleted
+                        dismissDeletionProgress();
+                        Toast.makeText(MainActivity.this, "Error deleting data: " + error, Toast.LENGTH_LONG).show();
+                    }
+                });
     }
 
     private void deleteUserDocumentAndAuth(DocumentReference userDocRef, FirebaseUser user) {
@@ -0,0 +1,141 @@
+package com.example.kombuchaapp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides when {@link NotificationHelper} posts. Alerts of one severity that
+ * arrive within the coalescing window are delivered together, keeping only
+ * the newest alert per recipe, and deliveries across all severities are
+ * limited to a number per rate window; what is over the limit waits for the
+ * next free slot.
+ *
+ * Plain Java and not thread-safe; callers synchronize.
+ */
+final class NotificationBatcher {
+
+    static final class Alert {
+        final int severity;
+        final String recipeId;
+        final String title;
+        final String message;
+
+        Alert(int severity, String recipeId, String title, String message) {
+            this.severity = severity;
+            this.recipeId = recipeId;
+            this.title = title;
+            this.message = message;
+        }
+    }
+
+    static final class Batch {
+        final int severity;
+        /** Alerts new or changed since the last delivery of this severity. */
+        final List<Alert> updated;
+        /** Every alert of this severity still shown, including the updated ones. */
+        final List<Alert> active;
+
+        Batch(int severity, List<Alert> updated, List<Alert> active) {
+            this.severity = severity;
+            this.updated = updated;
+            this.active = active;
+        }
+    }
+
+    private final long windowMs;
+    private final long rateWindowMs;
+
+    // Indexed by severity
+    private final List<Map<String, Alert>> pending = new ArrayList<>();
+    private final List<Map<String, Alert>> active = new ArrayList<>();
+    private final long[] dueMs;
+
+    // Times of the last deliveries, oldest at deliveryIndex
+    private final long[] deliveredMs;
+    private int deliveryIndex;
+
+    NotificationBatcher(int severities, long windowMs, int maxDeliveries, long rateWindowMs) {
+        this.windowMs = windowMs;
+        this.rateWindowMs = rateWindowMs;
+        for (int i = 0; i < severities; i++) {
+            pending.add(new LinkedHashMap<>());
+            active.add(new LinkedHashMap<>());
+        }
+        dueMs = new long[severities];
+        deliveredMs = new long[maxDeliveries];
+        Arrays.fill(deliveredMs, Long.MIN_VALUE);
+    }
+
+    /** Queues an alert, replacing one of the same recipe and severity not yet delivered. */
+    void offer(Alert alert, long nowMs) {
+        Map<String, Alert> queue = pending.get(alert.severity);
+        if (queue.isEmpty()) {
+            dueMs[alert.severity] = nowMs + windowMs;
+        }
+        queue.put(alert.recipeId, alert);
+    }
+
+    /**
+     * Takes the batches that are due and within the rate limit, most severe
+     * (lowest) first. With {@code flush} the coalescing window and the rate
+     * limit are skipped, since nothing may be left to deliver later; the
+     * deliveries still count toward the limit.
+     */
+    List<Batch> drain(long nowMs, boolean flush) {
+        List<Batch> batches = new ArrayList<>();
+        for (int severity = 0; severity < pending.size(); severity++) {
+            Map<String, Alert> queue = pending.get(severity);
+            if (queue.isEmpty() || (!flush && dueMs[severity] > nowMs)) continue;
+            if (!flush && rateLimitedUntil(nowMs) > nowMs) break;
+
+            deliveredMs[deliveryIndex] = nowMs;
+            deliveryIndex = (deliveryIndex + 1) % deliveredMs.length;
+
+            Map<String, Alert> shown = active.get(severity);
+            for (Alert alert : queue.values()) {
+                // Re-insert so the newest alerts are listed last
+                shown.remove(alert.recipeId);
+                shown.put(alert.recipeId, alert);
+            }
+            batches.add(new Batch(severity, new ArrayList<>(queue.values()), new ArrayList<>(shown.values())));
+            queue.clear();
+        }
+        return batches;
+    }
+
+    /** When {@link #drain} next has something to deliver, or {@link Long#MAX_VALUE}. */
+    long nextDrainMs(long nowMs) {
+        long next = Long.MAX_VALUE;
+        for (int severity = 0; severity < pending.size(); severity++) {
+            if (!pending.get(severity).isEmpty()) {
+                next = Math.min(next, dueMs[severity]);
+            }
+        }
+        return next == Long.MAX_VALUE ? next : Math.max(next, rateLimitedUntil(nowMs));
+    }
+
+    /** Forgets shown alerts of a severity whose recipe is not in {@code recipeIds}, e.g. dismissed ones. */
+    void retain(int severity, Collection<String> recipeIds) {
+        Iterator<String> it = active.get(severity).keySet().iterator();
+        while (it.hasNext()) {
+            if (!recipeIds.contains(it.next())) it.remove();
+        }
+    }
+
+    void clear() {
+        for (int severity = 0; severity < pending.size(); severity++) {
+            pending.get(severity).clear();
+            active.get(severity).clear();
+        }
+    }
+
+    private long rateLimitedUntil(long nowMs) {
+        long oldest = deliveredMs[deliveryIndex];
+        return oldest == Long.MIN_VALUE ? nowMs : Math.max(nowMs, oldest + rateWindowMs);
+    }
+}
@@ -8,11 +8,29 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.graphics.Color;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.service.notification.StatusBarNotification;
 
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 import androidx.core.content.ContextCompat;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Posts brew alerts. Alerts go through a {@link NotificationBatcher}: those of
+ * one kind that arrive within a few seconds are posted together, as one
+ * notification per recipe under a group summary. A recipe's notification is
+ * updated in place, only the summary makes a sound, and posting is limited to
+ * a few times a minute.
+ */
 public final class NotificationHelper {
     private NotificationHelper() {}
 
@@ -24,10 +42,37 @@ public final class NotificationHelper {
     private static final String CHANNEL_NAME_PH = "pH Alerts";
     private static final String CHANNEL_DESC_PH = "Kombucha pH phase and harvest alerts";
 
-    private static final int ID_BASE_CRITICAL = 40000;
-    private static final int ID_BASE_PH = 41000;
+    // Severities, most severe first
+    private static final int SEVERITY_CRITICAL = 0;
+    private static final int SEVERITY_HARVEST = 1;
+
+    // Recipe notifications are tagged with the recipe id under these ids
+    private static final int ID_CRITICAL = 40000;
+    private static final int ID_PH = 41000;
+    private static final int ID_SUMMARY_CRITICAL = 40001;
+    private static final int ID_SUMMARY_PH = 41001;
+
+    private static final String GROUP_CRITICAL = "com.example.kombuchaapp.TEMP_ALERTS";
+    private static final String GROUP_PH = "com.example.kombuchaapp.PH_ALERTS";
+
+    private static final long COALESCE_WINDOW_MS = 2_000;
+    private static final int MAX_POSTS_PER_MINUTE = 4;
+
+    // Guarded by BATCHER
+    private static final NotificationBatcher BATCHER =
+            new NotificationBatcher(2, COALESCE_WINDOW_MS, MAX_POSTS_PER_MINUTE, 60_000);
+    private static final Map<String, PendingIntent> contentIntents = new HashMap<>();
+    private static Context appContext;
+
+    private static final Handler handler = new Handler(Looper.getMainLooper());
+    private static final Runnable drainRunnable = () -> drain(false);
+
+    private static volatile boolean channelsCreated;
 
     public static void ensureChannels(Context context) {
+        if (channelsCreated) {
+            return;
+        }
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             NotificationManager nm = context.getSystemService(NotificationManager.class);
             if (nm == null) {
@@ -56,6 +101,7 @@ public final class NotificationHelper {
             chPh.enableVibration(true);
             nm.createNotificationChannel(chPh);
         }
+        channelsCreated = true;
     }
 
     public static void notifyCritical(Context context,
@@ -63,61 +109,67 @@ public final class NotificationHelper {
                                       String title,
                                       String message,
                                       float currentF) {
+        String content = message + "  •  Current: " + String.format(Locale.getDefault(), "%.1f°F", currentF);
+        enqueue(context, new NotificationBatcher.Alert(SEVERITY_CRITICAL, recipeId, title, content));
+    }
 
-        ensureChannels(context);
+    public static void notifyReadyToHarvest(Context context,
+                                            String recipeId,
+                                            String title,
+                                            String message,
+                                            float currentPh) {
+        String content = message + "  •  Current pH: " + String.format(Locale.getDefault(), "%.2f", currentPh);
+        enqueue(context, new NotificationBatcher.Alert(SEVERITY_HARVEST, recipeId, title, content));
+    }
 
-        NotificationManagerCompat nmc = NotificationManagerCompat.from(context);
-        if (!nmc.areNotificationsEnabled()) {
-            return;
+    /**
+     * Posts queued alerts now instead of after the coalescing window, for
+     * callers that may not live that long, like background work. The rate
+     * limit is skipped too, since they have already recorded the alerts as
+     * notified.
+     */
+    public static void flush(Context context) {
+        synchronized (BATCHER) {
+            appContext = context.getApplicationContext();
         }
+        drain(true);
+    }
 
-        if (Build.VERSION.SDK_INT >= 33) {
-            int granted = ContextCompat.checkSelfPermission(
-                    context, android.Manifest.permission.POST_NOTIFICATIONS);
-            if (granted != PackageManager.PERMISSION_GRANTED) {
-                return;
-            }
+    private static void enqueue(Context context, NotificationBatcher.Alert alert) {
+        if (alert.recipeId == null) {
+            alert = new NotificationBatcher.Alert(alert.severity, "", alert.title, alert.message);
+        }
+        synchronized (BATCHER) {
+            appContext = context.getApplicationContext();
+            BATCHER.offer(alert, SystemClock.elapsedRealtime());
         }
+        scheduleDrain();
+    }
 
-        Intent intent = new Intent(context, ViewRecipeActivity.class);
-        intent.putExtra("recipe_id", recipeId);
-        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
-
-        int reqCode = (recipeId != null ? recipeId.hashCode() : 0);
-        PendingIntent pi = PendingIntent.getActivity(
-                context,
-                reqCode,
-                intent,
-                Build.VERSION.SDK_INT >= 23
-                        ? PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-                        : PendingIntent.FLAG_UPDATE_CURRENT
-        );
-
-        String content = message + "  •  Current: " + String.format("%.1f°F", currentF);
-
-        NotificationCompat.Builder nb = new NotificationCompat.Builder(context, CHANNEL_ID_CRITICAL)
-                .setSmallIcon(android.R.drawable.stat_notify_error)
-                .setContentTitle(title)
-                .setContentText(content)
-                .setStyle(new NotificationCompat.BigTextStyle().bigText(content))
-                .setPriority(NotificationCompat.PRIORITY_HIGH)
-                .setCategory(NotificationCompat.CATEGORY_ALARM)
-                .setContentIntent(pi)
-                .setAutoCancel(true);
-
-        int notifId = ID_BASE_CRITICAL + Math.abs(reqCode);
-        try {
-            nmc.notify(notifId, nb.build());
-        } catch (SecurityException ignored) {
+    private static void drain(boolean flush) {
+        synchronized (BATCHER) {
+            List<NotificationBatcher.Batch> batches = BATCHER.drain(SystemClock.elapsedRealtime(), flush);
+            for (NotificationBatcher.Batch batch : batches) {
+                post(appContext, batch);
+            }
         }
+        scheduleDrain();
     }
 
-    public static void notifyReadyToHarvest(Context context,
-                                            String recipeId,
-                                            String title,
-                                            String message,
-                                            float currentPh) {
+    private static void scheduleDrain() {
+        long delay;
+        synchronized (BATCHER) {
+            long now = SystemClock.elapsedRealtime();
+            long next = BATCHER.nextDrainMs(now);
+            if (next == Long.MAX_VALUE) return;
+            delay = Math.max(0, next - now);
+        }
+        handler.removeCallbacks(drainRunnable);
+        handler.postDelayed(drainRunnable, delay);
+    }
 
+    /** Posts or updates the recipes of a batch and the summary of their group. Called holding BATCHER. */
+    private static void post(Context context, NotificationBatcher.Batch batch) {
         ensureChannels(context);
 
         NotificationManagerCompat nmc = NotificationManagerCompat.from(context);
@@ -133,36 +185,97 @@ public final class NotificationHelper {
             }
         }
 
-        Intent intent = new Intent(context, ViewRecipeActivity.class);
-        intent.putExtra("recipe_id", recipeId);
-        intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
-
-        int reqCode = (recipeId != null ? recipeId.hashCode() : 0) ^ 0x0F0F0F0F;
-        PendingIntent pi = PendingIntent.getActivity(
-                context,
-                reqCode,
-                intent,
-                Build.VERSION.SDK_INT >= 23
-                        ? PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-                        : PendingIntent.FLAG_UPDATE_CURRENT
-        );
-
-        String content = message + "  •  Current pH: " + String.format("%.2f", currentPh);
-
-        NotificationCompat.Builder nb = new NotificationCompat.Builder(context, CHANNEL_ID_PH)
-                .setSmallIcon(android.R.drawable.stat_notify_more)
-                .setContentTitle(title)
-                .setContentText(content)
-                .setStyle(new NotificationCompat.BigTextStyle().bigText(content))
-                .setPriority(NotificationCompat.PRIORITY_DEFAULT)
-                .setCategory(NotificationCompat.CATEGORY_STATUS)
-                .setContentIntent(pi)
-                .setAutoCancel(true);
-
-        int notifId = ID_BASE_PH + Math.abs(reqCode);
+        boolean critical = batch.severity == SEVERITY_CRITICAL;
+        String channelId = critical ? CHANNEL_ID_CRITICAL : CHANNEL_ID_PH;
+        String group = critical ? GROUP_CRITICAL : GROUP_PH;
+        int id = critical ? ID_CRITICAL : ID_PH;
+        int icon = critical ? android.R.drawable.stat_notify_error : android.R.drawable.stat_notify_more;
+        int priority = critical ? NotificationCompat.PRIORITY_HIGH : NotificationCompat.PRIORITY_DEFAULT;
+        String category = critical ? NotificationCompat.CATEGORY_ALARM : NotificationCompat.CATEGORY_STATUS;
+
         try {
-            nmc.notify(notifId, nb.build());
+            for (NotificationBatcher.Alert alert : batch.updated) {
+                NotificationCompat.Builder nb = new NotificationCompat.Builder(context, channelId)
+                        .setSmallIcon(icon)
+                        .setContentTitle(alert.title)
+                        .setContentText(alert.message)
+                        .setStyle(new NotificationCompat.BigTextStyle().bigText(alert.message))
+                        .setPriority(priority)
+                        .setCategory(category)
+                        .setContentIntent(recipeIntent(context, alert))
+                        .setGroup(group)
+                        .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY)
+                        .setAutoCancel(true);
+                nmc.notify(alert.recipeId, id, nb.build());
+            }
+
+            // Recipes whose notification was dismissed leave the summary
+            Set<String> shown = new HashSet<>();
+            NotificationManager nm = context.getSystemService(NotificationManager.class);
+            if (nm != null) {
+                for (StatusBarNotification sbn : nm.getActiveNotifications()) {
+                    if (sbn.getId() == id && sbn.getTag() != null) shown.add(sbn.getTag());
+                }
+            }
+            for (NotificationBatcher.Alert alert : batch.updated) {
+                shown.add(alert.recipeId);
+            }
+            BATCHER.retain(batch.severity, shown);
+            List<NotificationBatcher.Alert> active = batch.active;
+            active.removeIf(alert -> !shown.contains(alert.recipeId));
+
+            String summaryTitle = critical
+                    ? (active.size() == 1 ? "1 brew needs attention" : active.size() + " brews need attention")
+                    : (active.size() == 1 ? "1 brew ready to harvest" : active.size() + " brews ready to harvest");
+            NotificationCompat.InboxStyle inbox = new NotificationCompat.InboxStyle()
+                    .setBigContentTitle(summaryTitle);
+            for (NotificationBatcher.Alert alert : active) {
+                inbox.addLine(alert.title);
+            }
+            NotificationBatcher.Alert newest = active.get(active.size() - 1);
+
+            NotificationCompat.Builder summary = new NotificationCompat.Builder(context, channelId)
+                    .setSmallIcon(icon)
+                    .setContentTitle(summaryTitle)
+                    .setContentText(newest.title)
+                    .setStyle(inbox)
+                    .setPriority(priority)
+                    .setCategory(category)
+                    .setContentIntent(dashboardIntent(context))
+                    .setGroup(group)
+                    .setGroupSummary(true)
+                    .setGroupAlertBehavior(NotificationCompat.GROUP_ALERT_SUMMARY)
+                    .setAutoCancel(true);
+            nmc.notify(critical ? ID_SUMMARY_CRITICAL : ID_SUMMARY_PH, summary.build());
         } catch (SecurityException ignored) {
         }
     }
+
+    private static PendingIntent recipeIntent(Context context, NotificationBatcher.Alert alert) {
+        String key = alert.severity + ":" + alert.recipeId;
+        PendingIntent pi = contentIntents.get(key);
+        if (pi == null) {
+            Intent intent = new Intent(context, ViewRecipeActivity.class);
+            intent.putExtra("recipe_id", alert.recipeId);
+            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+
+            int reqCode = alert.recipeId.hashCode() ^ (alert.severity == SEVERITY_CRITICAL ? 0 : 0x0F0F0F0F);
+            pi = PendingIntent.getActivity(context, reqCode, intent,
+                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+            contentIntents.put(key, pi);
+        }
+        return pi;
+    }
+
+    private static PendingIntent dashboardIntent(Context context) {
+        PendingIntent pi = contentIntents.get("dashboard");
+        if (pi == null) {
+            Intent intent = new Intent(context, BrewDashboardActivity.class);
+            intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+            pi = PendingIntent.getActivity(context, ID_SUMMARY_CRITICAL, intent,
+                    PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+            contentIntents.put("dashboard", pi);
+        }
+        return pi;
+    }
 }
@@ -22,43 +22,50 @@ public final class PhAlert {
         }
     }
 
-    public static Result evaluate(float ph) {
-        if (Float.isNaN(ph) || Float.isInfinite(ph)) {
-            return new Result(
-                    Level.UNKNOWN,
-                    "No pH reading",
-                    "Waiting for a valid pH reading…"
-            );
-        }
+    private static final Result NO_READING = new Result(
+            Level.UNKNOWN,
+            "No pH reading",
+            "Waiting for a valid pH reading…"
+    );
 
-        if (ph < 3.5f) {
-            return new Result(
-                    Level.VINEGARY,
-                    "Vinegary (pH < 3.5)",
-                    "Very tart and sour. Consider harvesting or diluting."
-            );
-        }
+    private static final Result VINEGARY = new Result(
+            Level.VINEGARY,
+            "Vinegary (pH < 3.5)",
+            "Very tart and sour. Consider harvesting or diluting."
+    );
 
-        if (ph < 4.0f) {
-            return new Result(
-                    Level.TANGY,
-                    "Tangy (pH 3.5–4.0)",
-                    "Nicely tart. This is a common harvest range."
-            );
-        }
+    private static final Result TANGY = new Result(
+            Level.TANGY,
+            "Tangy (pH 3.5–4.0)",
+            "Nicely tart. This is a common harvest range."
+    );
 
-        if (ph <= 4.5f) {
-            return new Result(
-                    Level.SWEET,
-                    "Sweet (pH 4.0–4.5)",
-                    "Still quite sweet. Let it ferment longer if you want more tang."
-            );
-        }
+    private static final Result SWEET = new Result(
+            Level.SWEET,
+            "Sweet (pH 4.0–4.5)",
+            "Still quite sweet. Let it ferment longer if you want more tang."
+    );
+
+    private static final Result OUTSIDE_RANGE = new Result(
+            Level.UNKNOWN,
+            "Outside range",
+            "pH is outside the expected kombucha range."
+    );
+
+    private static final BandClassifier<Result> BANDS = BandClassifier.startingWith(VINEGARY)
+            .from(3.5f, TANGY)
+            .from(4.0f, SWEET)
+            .above(4.5f, OUTSIDE_RANGE)
+            .invalid(NO_READING)
+            .build();
+
+    /** Shared, immutable result for a pH reading. */
+    public static Result evaluate(float ph) {
+        return BANDS.classify(ph);
+    }
 
-        return new Result(
-                Level.UNKNOWN,
-                "Outside range",
-                "pH is outside the expected kombucha range."
-        );
+    /** Evaluates a whole series of pH readings into {@code out}. */
+    public static void evaluateAll(float[] phs, Result[] out) {
+        BANDS.classifyAll(phs, out);
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,5 @@
 package com.example.kombuchaapp;
 
-import android.graphics.Color;
-
 public final class PhFermentationStage {
     private PhFermentationStage() {}
 
@@ -27,57 +25,63 @@ public final class PhFermentationStage {
         }
     }
 
-    public static Result evaluate(float ph) {
-        if (Float.isNaN(ph) || Float.isInfinite(ph)) {
-            return new Result(
-                    Stage.UNKNOWN,
-                    "No Reading",
-                    "Waiting for pH sensor data",
-                    Color.parseColor("#9E9E9E")
-            );
-        }
+    private static final Result NO_READING = new Result(
+            Stage.UNKNOWN,
+            "No Reading",
+            "Waiting for pH sensor data",
+            0xFF9E9E9E
+    );
 
-        if (ph >= 4.5f) {
-            return new Result(
-                    Stage.INITIAL,
-                    "Initial",
-                    "Fermentation just started. Sweet tea taste.",
-                    Color.parseColor("#2196F3") // Blue
-            );
-        }
+    private static final Result INITIAL = new Result(
+            Stage.INITIAL,
+            "Initial",
+            "Fermentation just started. Sweet tea taste.",
+            0xFF2196F3 // Blue
+    );
 
-        if (ph >= 3.5f) {
-            return new Result(
-                    Stage.ACTIVE,
-                    "Active",
-                    "Fermentation in progress. Becoming tangy.",
-                    Color.parseColor("#FF9800") // Orange
-            );
-        }
+    private static final Result ACTIVE = new Result(
+            Stage.ACTIVE,
+            "Active",
+            "Fermentation in progress. Becoming tangy.",
+            0xFFFF9800 // Orange
+    );
 
-        if (ph >= 2.5f) {
-            return new Result(
-                    Stage.OPTIMAL,
-                    "Optimal",
-                    "Perfect for harvesting! Balanced flavor.",
-                    Color.parseColor("#4CAF50") // Green
-            );
-        }
+    private static final Result OPTIMAL = new Result(
+            Stage.OPTIMAL,
+            "Optimal",
+            "Perfect for harvesting! Balanced flavor.",
+            0xFF4CAF50 // Green
+    );
 
-        if (ph > 0) {
-            return new Result(
-                    Stage.TASTE_TEST,
-                    "Taste Test",
-                    "Very tart and acidic. Taste before bottling.",
-                    Color.parseColor("#F44336") // Red
-            );
-        }
+    private static final Result TASTE_TEST = new Result(
+            Stage.TASTE_TEST,
+            "Taste Test",
+            "Very tart and acidic. Taste before bottling.",
+            0xFFF44336 // Red
+    );
+
+    private static final Result OUT_OF_RANGE = new Result(
+            Stage.UNKNOWN,
+            "Unknown",
+            "pH reading out of range",
+            0xFF9E9E9E
+    );
+
+    private static final BandClassifier<Result> BANDS = BandClassifier.startingWith(OUT_OF_RANGE)
+            .above(0f, TASTE_TEST)
+            .from(2.5f, OPTIMAL)
+            .from(3.5f, ACTIVE)
+            .from(4.5f, INITIAL)
+            .invalid(NO_READING)
+            .build();
+
+    /** Shared, immutable stage for a pH reading. */
+    public static Result evaluate(float ph) {
+        return BANDS.classify(ph);
+    }
 
-        return new Result(
-                Stage.UNKNOWN,
-                "Unknown",
-                "pH reading out of range",
-                Color.parseColor("#9E9E9E")
-        );
+    /** Evaluates a whole series of pH readings into {@code out}. */
+    public static void evaluateAll(float[] phs, Result[] out) {
+        BANDS.classifyAll(phs, out);
     }
 }
@@ -0,0 +1,174 @@
+package com.example.kombuchaapp;
+
+import com.example.kombuchaapp.models.ReadingTimestamps;
+
+import java.util.Arrays;
+
+/**
+ * In-place buffer of one sensor channel (temperature or pH) for the detail charts.
+ * Snapshot listeners apply document changes to it instead of re-parsing the whole
+ * collection, so a new reading costs one insert instead of a full rebuild.
+ */
+public final class ReadingSeries {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private float[] values = new float[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    // Axis labels are formatted on first use; only a handful are ever drawn
+    private String[] labels = new String[INITIAL_CAPACITY];
+    private int size;
+
+    // Min/max are kept up to date on append and recomputed lazily after removals
+    private float min = Float.NaN;
+    private float max = Float.NaN;
+    private boolean rangeDirty;
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public float valueAt(int index) {
+        return values[index];
+    }
+
+    /**
+     * Epoch millis of the reading, or {@link ReadingTimestamps#INVALID} if it had no usable timestamp.
+     */
+    public long timestampAt(int index) {
+        return timestamps[index];
+    }
+
+    /**
+     * Short "MM/dd HH:mm" label for the X-axis, falling back to the reading number.
+     */
+    public String labelAt(int index) {
+        String label = labels[index];
+        if (label == null) {
+            long timestamp = timestamps[index];
+            label = timestamp != ReadingTimestamps.INVALID
+                    ? ReadingTimestamps.formatLabel(timestamp)
+                    : String.valueOf(index + 1);
+            labels[index] = label;
+        }
+        return label;
+    }
+
+    /**
+     * Backing array of values; only the first {@link #size()} entries are valid.
+     * Exposed for {@link Downsampler} so sampling does not copy the series.
+     */
+    float[] rawValues() {
+        return values;
+    }
+
+    public void clear() {
+        Arrays.fill(labels, 0, size, null);
+        size = 0;
+        min = Float.NaN;
+        max = Float.NaN;
+        rangeDirty = false;
+    }
+
+    public void insert(int index, float value, long timestamp) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+        ensureCapacity(size + 1);
+        if (index < size) {
+            System.arraycopy(values, index, values, index + 1, size - index);
+            System.arraycopy(timestamps, index, timestamps, index + 1, size - index);
+            System.arraycopy(labels, index, labels, index + 1, size - index);
+        }
+        values[index] = value;
+        timestamps[index] = timestamp;
+        labels[index] = null;
+        size++;
+        widenRange(value);
+    }
+
+    /**
+     * Inserts all readings of {@code older} before the first one, with one
+     * copy instead of an insert per reading.
+     */
+    public void prepend(ReadingSeries older) {
+        int count = older.size;
+        if (count == 0) return;
+        ensureCapacity(size + count);
+        System.arraycopy(values, 0, values, count, size);
+        System.arraycopy(timestamps, 0, timestamps, count, size);
+        System.arraycopy(older.values, 0, values, 0, count);
+        System.arraycopy(older.timestamps, 0, timestamps, 0, count);
+        // Formatted again on use; fallback labels would show the old index
+        Arrays.fill(labels, 0, size + count, null);
+        size += count;
+        for (int i = 0; i < count; i++) {
+            widenRange(older.values[i]);
+        }
+    }
+
+    public void set(int index, float value, long timestamp) {
+        checkIndex(index);
+        values[index] = value;
+        timestamps[index] = timestamp;
+        labels[index] = null;
+        rangeDirty = true;
+    }
+
+    public void remove(int index) {
+        checkIndex(index);
+        int tail = size - index - 1;
+        if (tail > 0) {
+            System.arraycopy(values, index + 1, values, index, tail);
+            System.arraycopy(timestamps, index + 1, timestamps, index, tail);
+            System.arraycopy(labels, index + 1, labels, index, tail);
+        }
+        size--;
+        labels[size] = null;
+        rangeDirty = true;
+    }
+
+    public float minValue() {
+        recomputeRangeIfDirty();
+        return min;
+    }
+
+    public float maxValue() {
+        recomputeRangeIfDirty();
+        return max;
+    }
+
+    private void widenRange(float value) {
+        if (rangeDirty) return;
+        if (Float.isNaN(min) || value < min) min = value;
+        if (Float.isNaN(max) || value > max) max = value;
+    }
+
+    private void recomputeRangeIfDirty() {
+        if (!rangeDirty) return;
+        rangeDirty = false;
+        min = Float.NaN;
+        max = Float.NaN;
+        for (int i = 0; i < size; i++) {
+            widenRange(values[i]);
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed <= values.length) return;
+        int newCapacity = Math.max(needed, values.length * 2);
+        values = Arrays.copyOf(values, newCapacity);
+        timestamps = Arrays.copyOf(timestamps, newCapacity);
+        labels = Arrays.copyOf(labels, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+}
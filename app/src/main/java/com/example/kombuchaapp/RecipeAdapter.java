@@ -4,7 +4,6 @@ import android.app.AlertDialog;
 import android.content.Context;
 import android.content.Intent;
 import android.graphics.Color;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -15,17 +14,23 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.core.content.ContextCompat;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.kombuchaapp.models.Recipe;
+import com.example.kombuchaapp.repositories.LikeWriteQueue;
+import com.example.kombuchaapp.repositories.ReadingStore;
 import com.example.kombuchaapp.repositories.RecipeRepository;
+import com.example.kombuchaapp.repositories.SensorRouter;
+import com.example.kombuchaapp.repositories.UsernameCache;
 import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -35,11 +40,47 @@ import java.util.Map;
 public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeViewHolder> {
 
     private static final String TAG = "RecipeAdapter";
+
+    // Change payload for a row whose like count or like state changed and nothing else
+    static final Object PAYLOAD_LIKES = new Object();
+
+    private static final DiffUtil.ItemCallback<Recipe> DIFF_CALLBACK = new DiffUtil.ItemCallback<Recipe>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull Recipe oldItem, @NonNull Recipe newItem) {
+            return oldItem.getRecipeId() != null && oldItem.getRecipeId().equals(newItem.getRecipeId());
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Recipe oldItem, @NonNull Recipe newItem) {
+            return oldItem.contentHash() == newItem.contentHash() && sameLikes(oldItem, newItem);
+        }
+
+        @Override
+        public Object getChangePayload(@NonNull Recipe oldItem, @NonNull Recipe newItem) {
+            // Only the likes changed: update the like views instead of rebinding the card
+            return oldItem.contentHash() == newItem.contentHash() ? PAYLOAD_LIKES : null;
+        }
+
+        private boolean sameLikes(Recipe oldItem, Recipe newItem) {
+            if (oldItem.getLikes() != newItem.getLikes()) return false;
+            List<String> oldLikedBy = oldItem.getLikedBy() != null ? oldItem.getLikedBy() : Collections.emptyList();
+            List<String> newLikedBy = newItem.getLikedBy() != null ? newItem.getLikedBy() : Collections.emptyList();
+            return oldLikedBy.equals(newLikedBy);
+        }
+    };
+
     private Context context;
-    private List<Recipe> recipes;
+    // Diffs each new list against the shown one on a background thread
+    private final AsyncListDiffer<Recipe> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+    // Last list submitted; the differ may still be working on it
+    private List<Recipe> recipes = Collections.emptyList();
+    // What each tab showed when it was left, restored when switching back
+    private List<Recipe> myBrewsShown = Collections.emptyList();
+    private List<Recipe> discoverShown = Collections.emptyList();
+    // Likes loaded for recipes of a list the differ has not shown yet: count, liked (1/0)
+    private final Map<String, int[]> lateLikes = new HashMap<>();
     private RecipeRepository recipeRepository;
     private OnRecipeDeletedListener deleteListener;
-    private FirebaseFirestore db;
     private FirebaseAuth auth;
 
     public interface OnRecipeDeletedListener {
@@ -48,10 +89,8 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
 
     public RecipeAdapter(Context context, OnRecipeDeletedListener deleteListener) {
         this.context = context;
-        this.recipes = new ArrayList<>();
-        this.recipeRepository = new RecipeRepository();
+        this.recipeRepository = new RecipeRepository(context);
         this.deleteListener = deleteListener;
-        this.db = FirebaseFirestore.getInstance();
         this.auth = FirebaseAuth.getInstance();
     }
 
@@ -75,36 +114,187 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
 
     @Override
     public void onBindViewHolder(@NonNull RecipeViewHolder holder, int position) {
-        Recipe recipe = recipes.get(position);
+        Recipe recipe = differ.getCurrentList().get(position);
         holder.bind(recipe);
     }
 
+    @Override
+    public void onBindViewHolder(@NonNull RecipeViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty() || !onlyLikesChanged(payloads)) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        holder.bindLikes(differ.getCurrentList().get(position));
+    }
+
+    private static boolean onlyLikesChanged(List<Object> payloads) {
+        for (Object payload : payloads) {
+            if (payload != PAYLOAD_LIKES) return false;
+        }
+        return true;
+    }
+
     @Override
     public int getItemCount() {
-        return recipes.size();
+        return differ.getCurrentList().size();
     }
 
+    /**
+     * Replaces the shown recipes. Only rows that were added, moved or changed
+     * are updated, once the diff has been computed off the main thread.
+     */
     public void setRecipes(List<Recipe> recipes) {
-        this.recipes = recipes;
-        notifyDataSetChanged();
+        submit(new ArrayList<>(recipes));
+    }
+
+    /**
+     * Adds a page of recipes at the end without rebinding the ones already shown.
+     */
+    public void appendRecipes(List<Recipe> page) {
+        List<Recipe> updated = new ArrayList<>(recipes.size() + page.size());
+        updated.addAll(recipes);
+        updated.addAll(page);
+        submit(updated);
     }
 
     public void addRecipe(Recipe recipe) {
-        recipes.add(0, recipe);
-        notifyItemInserted(0);
+        List<Recipe> updated = new ArrayList<>(recipes.size() + 1);
+        updated.add(recipe);
+        updated.addAll(recipes);
+        submit(updated);
+    }
+
+    public void removeRecipe(String recipeId) {
+        List<Recipe> updated = new ArrayList<>(recipes.size());
+        for (Recipe recipe : recipes) {
+            if (!recipeId.equals(recipe.getRecipeId())) {
+                updated.add(recipe);
+            }
+        }
+        submit(updated);
+    }
+
+    private void submit(List<Recipe> updated) {
+        recipes = Collections.unmodifiableList(updated);
+        differ.submitList(recipes, this::applyLateLikes);
+    }
+
+    /**
+     * Sets the loaded like count and like state of a Discover recipe and
+     * rebinds only its like views. A recipe whose list is still being diffed
+     * gets them once the list is shown.
+     */
+    public void updateDiscoverLikes(String recipeId, int likes, boolean liked) {
+        if (!isDiscoverMode) {
+            // Kept for when the tab is shown again
+            for (Recipe recipe : discoverShown) {
+                if (recipeId.equals(recipe.getRecipeId())) setLikes(recipe, likes, liked);
+            }
+            return;
+        }
+        int position = positionOf(recipeId);
+        if (position != RecyclerView.NO_POSITION) {
+            setLikes(differ.getCurrentList().get(position), likes, liked);
+            notifyItemChanged(position, PAYLOAD_LIKES);
+        }
+        if (recipes != differ.getCurrentList()) {
+            lateLikes.put(recipeId, new int[]{likes, liked ? 1 : 0});
+        }
+    }
+
+    private void applyLateLikes() {
+        if (lateLikes.isEmpty()) return;
+        for (Map.Entry<String, int[]> entry : lateLikes.entrySet()) {
+            int position = positionOf(entry.getKey());
+            if (position == RecyclerView.NO_POSITION) continue;
+            setLikes(differ.getCurrentList().get(position), entry.getValue()[0], entry.getValue()[1] == 1);
+            notifyItemChanged(position, PAYLOAD_LIKES);
+        }
+        lateLikes.clear();
+    }
+
+    private void setLikes(Recipe recipe, int likes, boolean liked) {
+        String userId = auth.getUid();
+        List<String> likedBy = new ArrayList<>();
+        if (liked && userId != null) {
+            likedBy.add(userId);
+        }
+        recipe.setLikes(likes);
+        recipe.setLikedBy(likedBy);
     }
 
-    public void removeRecipe(int position) {
-        recipes.remove(position);
-        notifyItemRemoved(position);
+    /**
+     * Position of a recipe in the shown list, or {@link RecyclerView#NO_POSITION}.
+     * Listeners look their recipe up by id, since a reload replaces the shown
+     * objects without rebinding rows whose content did not change.
+     */
+    private int positionOf(String recipeId) {
+        List<Recipe> shown = differ.getCurrentList();
+        for (int i = 0; i < shown.size(); i++) {
+            if (shown.get(i).getRecipeId() != null && shown.get(i).getRecipeId().equals(recipeId)) {
+                return i;
+            }
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * The shown instance of a recipe, or null if it is no longer shown.
+     */
+    private Recipe currentRecipe(String recipeId) {
+        int position = positionOf(recipeId);
+        return position != RecyclerView.NO_POSITION ? differ.getCurrentList().get(position) : null;
+    }
+
+    /**
+     * Sets the user's like on the shown recipe locally, adjusting its count, and
+     * rebinds only its like views.
+     */
+    private void showLiked(String recipeId, String userId, boolean liked) {
+        // The row may have been recycled or the list reloaded; it is found again by id
+        int position = positionOf(recipeId);
+        if (position == RecyclerView.NO_POSITION) return;
+        Recipe recipe = differ.getCurrentList().get(position);
+        if (recipe.getLikedBy() == null) {
+            recipe.setLikedBy(new ArrayList<>());
+        }
+        if (recipe.getLikedBy().contains(userId) == liked) return;
+
+        if (liked) {
+            recipe.getLikedBy().add(userId);
+            recipe.setLikes(recipe.getLikes() + 1);
+        } else {
+            recipe.getLikedBy().remove(userId);
+            recipe.setLikes(recipe.getLikes() - 1);
+        }
+        notifyItemChanged(position, PAYLOAD_LIKES);
     }
 
     private boolean isDiscoverMode = false;
 
+    public boolean isDiscoverMode() {
+        return isDiscoverMode;
+    }
+
+    /**
+     * Switches between My Brews and Discover. The two use different card
+     * layouts, so the rows of the old tab are removed before the new tab's
+     * last list is put back; reloading it then only updates what changed.
+     */
     public void setDiscoverMode(boolean discover) {
-        this.isDiscoverMode = discover;
-        notifyDataSetChanged();
+        if (discover == isDiscoverMode) return;
+
+        if (isDiscoverMode) {
+            discoverShown = recipes;
+        } else {
+            myBrewsShown = recipes;
+        }
+        // Clearing is applied at once, so no row outlives the switch of view type
+        differ.submitList(null);
+        isDiscoverMode = discover;
+        submit(new ArrayList<>(discover ? discoverShown : myBrewsShown));
     }
+
     @Override
     public int getItemViewType(int position) {
         return isDiscoverMode ? 1 : 0;
@@ -179,6 +369,10 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
             // Set status with color
             if (recipeStatus != null){
                 String status = recipe.getStatus() != null ? recipe.getStatus() : "draft";
+                // Readings are being deleted in the background
+                if (recipe.isPurging()) {
+                    status = recipe.getPurgeFailed() != null ? "purge failed" : "purging";
+                }
                 recipeStatus.setText(status.toUpperCase());
                 setStatusColor(status);
             }
@@ -218,7 +412,7 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
                 }
                 // Delete button - show confirmation dialog
                 if (btnDelete != null)
-                    btnDelete.setOnClickListener(v -> showDeleteConfirmation(recipe, getAdapterPosition()));
+                    btnDelete.setOnClickListener(v -> showDeleteConfirmation(recipe));
 
                 // Always read from recipe object directly
                 if (btnPublish != null) {
@@ -236,15 +430,21 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
 
 
                     // Handle Publish/Unpublish click
+                    String recipeId = recipe.getRecipeId();
                     btnPublish.setOnClickListener(v -> {
-                        boolean newState = !(recipe.getPublished() != null && recipe.getPublished());
+                        Recipe current = currentRecipe(recipeId);
+                        if (current == null) return;
+                        boolean newState = !(current.getPublished() != null && current.getPublished());
 
-                        recipeRepository.updateRecipePublished(recipe.getRecipeId(), newState, new RecipeRepository.OnUpdateListener() {
+                        recipeRepository.updateRecipePublished(recipeId, newState, new RecipeRepository.OnUpdateListener() {
                             @Override
                             public void onSuccess(String message) {
 
                                 // Update recipe state
-                                recipe.setPublished(newState);
+                                Recipe shown = currentRecipe(recipeId);
+                                if (shown != null) {
+                                    shown.setPublished(newState);
+                                }
 
                                 // Update UI right away
                                 if (newState) {
@@ -294,53 +494,30 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
                 // Set initial icon and color based on like state
                 updateLikeButton(btnLike, isLiked);
 
+                String recipeId = recipe.getRecipeId();
                 btnLike.setOnClickListener(v -> {
+                    Recipe current = currentRecipe(recipeId);
+                    if (current == null) return;
+                    boolean userAlreadyLiked = current.getLikedBy() != null
+                            && current.getLikedBy().contains(currentUserId);
+
+                    // Shown at once; the write goes out once the taps on this recipe settle
+                    showLiked(recipeId, currentUserId, !userAlreadyLiked);
+
+                    LikeWriteQueue.getInstance().setLiked(current.getUserId(), recipeId, currentUserId,
+                            !userAlreadyLiked, userAlreadyLiked, new LikeWriteQueue.OnLikeSettledListener() {
+                                @Override
+                                public void onSettled(boolean liked) {
+                                    showLiked(recipeId, currentUserId, liked);
+                                }
 
-                    String ownerUserId = recipe.getUserId();
-                    String recipeId = recipe.getRecipeId();
-
-                    boolean userAlreadyLiked = recipe.getLikedBy().contains(currentUserId);
-
-                    // Optimistic UI update
-                    if (userAlreadyLiked) {
-                        // unlike
-                        recipe.getLikedBy().remove(currentUserId);
-                        recipe.setLikes(recipe.getLikes() - 1);
-                        updateLikeButton(btnLike, false);
-                        likeCount.setText(String.valueOf(recipe.getLikes()));
-                    } else {
-                        // like
-                        recipe.getLikedBy().add(currentUserId);
-                        recipe.setLikes(recipe.getLikes() + 1);
-                        updateLikeButton(btnLike, true);
-                        likeCount.setText(String.valueOf(recipe.getLikes()));
-                    }
-
-                    // Apply toggle in Firestore
-                    recipeRepository.toggleLike(recipeId, ownerUserId, currentUserId, new RecipeRepository.OnUpdateListener() {
-                        @Override
-                        public void onSuccess(String message) {
-                            // UI already updated optimistically
-                        }
-
-                        @Override
-                        public void onFailure(String error) {
-                            // Revert optimistic update on failure
-                            if (!userAlreadyLiked) {
-                                // Was a like, revert to unlike
-                                recipe.getLikedBy().remove(currentUserId);
-                                recipe.setLikes(recipe.getLikes() - 1);
-                                updateLikeButton(btnLike, false);
-                            } else {
-                                // Was an unlike, revert to like
-                                recipe.getLikedBy().add(currentUserId);
-                                recipe.setLikes(recipe.getLikes() + 1);
-                                updateLikeButton(btnLike, true);
-                            }
-                            likeCount.setText(String.valueOf(recipe.getLikes()));
-                            Toast.makeText(context, "Failed: " + error, Toast.LENGTH_SHORT).show();
-                        }
-                    });
+                                @Override
+                                public void onFailure(boolean liked, String error) {
+                                    // Back to what the server has
+                                    showLiked(recipeId, currentUserId, liked);
+                                    Toast.makeText(context, "Failed: " + error, Toast.LENGTH_SHORT).show();
+                                }
+                            });
                 });
             }
 
@@ -358,25 +535,34 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
             }
         }
 
+        /**
+         * Updates only the like count and like button, for {@link #PAYLOAD_LIKES}.
+         */
+        void bindLikes(Recipe recipe) {
+            if (likeCount != null) {
+                likeCount.setText(String.valueOf(recipe.getLikes()));
+            }
+
+            String currentUserId = FirebaseAuth.getInstance().getUid();
+            if (btnLike != null && isDiscoverMode && currentUserId != null) {
+                boolean isLiked = recipe.getLikedBy() != null && recipe.getLikedBy().contains(currentUserId);
+                updateLikeButton(btnLike, isLiked);
+            }
+        }
+
         private void loadPublisherUsername(String userId, TextView publisherView) {
+            // The view may be rebound to another recipe before the lookup returns
+            publisherView.setTag(userId);
             if (userId == null) {
                 publisherView.setText("by Unknown");
                 return;
             }
 
-            db.collection("users").document(userId).get()
-                    .addOnSuccessListener(documentSnapshot -> {
-                        if (documentSnapshot.exists()) {
-                            String username = documentSnapshot.getString("fName");
-                            publisherView.setText("by " + (username != null ? username : "Unknown"));
-                        } else {
-                            publisherView.setText("by Unknown");
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Failed to load publisher username", e);
-                        publisherView.setText("by Unknown");
-                    });
+            UsernameCache.getInstance().get(userId, username -> {
+                if (userId.equals(publisherView.getTag())) {
+                    publisherView.setText("by " + (username != null ? username : "Unknown"));
+                }
+            });
         }
 
         private void updateLikeButton(ImageButton button, boolean isLiked) {
@@ -403,6 +589,10 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
                 case "completed":
                     recipeStatus.setBackgroundColor(Color.parseColor("#4CAF50")); // Green
                     break;
+                case "purging":
+                case "purge failed":
+                    recipeStatus.setBackgroundColor(Color.parseColor("#B71C1C")); // Dark red
+                    break;
                 default:
                     recipeStatus.setBackgroundColor(Color.parseColor("#4A148C")); // Purple
                     break;
@@ -416,11 +606,11 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
             return sdf.format(date);
         }
 
-        private void showDeleteConfirmation(Recipe recipe, int position) {
+        private void showDeleteConfirmation(Recipe recipe) {
             AlertDialog dialog = new AlertDialog.Builder(context)
                     .setTitle("Delete Recipe")
                     .setMessage("Are you sure you want to delete \"" + recipe.getRecipeName() + "\"? This action cannot be undone.")
-                    .setPositiveButton("Delete", (d, which) -> deleteRecipe(recipe, position))
+                    .setPositiveButton("Delete", (d, which) -> deleteRecipe(recipe))
                     .setNegativeButton("Cancel", null)
                     .setIcon(android.R.drawable.ic_dialog_alert)
                     .create();
@@ -432,15 +622,18 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
             }
         }
 
-        private void deleteRecipe(Recipe recipe, int position) {
+        private void deleteRecipe(Recipe recipe) {
             // First, remove from sensor control to prevent new sensor writes during deletion
             // Then delete the recipe in the callback to avoid race condition
             removeRecipeForSensors(recipe.getRecipeId(), () -> {
-                // Now delete the recipe (which will delete all subcollections first)
+                // Now delete the recipe (its readings are deleted in the background)
                 recipeRepository.deleteRecipe(recipe.getRecipeId(), new RecipeRepository.OnUpdateListener() {
                     @Override
                     public void onSuccess(String message) {
-                        removeRecipe(position);
+                        ReadingStore store = ReadingStore.getInstance(context);
+                        ReadingStore.io().execute(() -> store.deleteRecipe(recipe.getRecipeId()));
+
+                        removeRecipe(recipe.getRecipeId());
                         Toast.makeText(context, message, Toast.LENGTH_SHORT).show();
                         if (deleteListener != null) {
                             deleteListener.onRecipeDeleted();
@@ -456,42 +649,8 @@ public class RecipeAdapter extends RecyclerView.Adapter<RecipeAdapter.RecipeView
         }
 
         private void removeRecipeForSensors(String deletedRecipeId, Runnable onComplete) {
-            // First, read the current active_config document
-            db.collection("sensor_control").document("active_config").get()
-                    .addOnSuccessListener(documentSnapshot -> {
-                        if (documentSnapshot.exists()) {
-                            String activeRecipeId = documentSnapshot.getString("active_recipe_id");
-
-                            // Check if the deleted recipe is the one that's currently active
-                            if (deletedRecipeId.equals(activeRecipeId)) {
-                                // If it is, clear the active config by setting fields to null
-                                Map<String, Object> updates = new HashMap<>();
-                                updates.put("active_recipe_id", null);
-                                updates.put("active_user_id", null);
-
-                                db.collection("sensor_control").document("active_config")
-                                        .update(updates)
-                                        .addOnSuccessListener(aVoid -> {
-                                            Log.d(TAG, "Active recipe cleared from sensor_control because it was deleted.");
-                                            onComplete.run();
-                                        })
-                                        .addOnFailureListener(e -> {
-                                            Log.e(TAG, "Failed to clear active recipe from sensor_control", e);
-                                            onComplete.run(); // Proceed with delete anyway
-                                        });
-                            } else {
-                                // Recipe is not active, proceed with delete
-                                onComplete.run();
-                            }
-                        } else {
-                            // No active config exists, proceed with delete
-                            onComplete.run();
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Failed to check active sensor config", e);
-                        onComplete.run(); // Proceed with delete anyway
-                    });
+            // Free the recipe's sensors, then delete; the delete goes ahead even if this fails
+            new SensorRouter().release(deletedRecipeId, onComplete);
         }
     }
 }
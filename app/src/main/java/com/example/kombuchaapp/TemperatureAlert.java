@@ -1,7 +1,5 @@
 package com.example.kombuchaapp;
 
-import android.graphics.Color;
-
 public final class TemperatureAlert {
     private TemperatureAlert() {}
 
@@ -17,25 +15,34 @@ public final class TemperatureAlert {
         }
     }
 
+    private static final Result DORMANT = new Result(Level.DORMANT, "Dormant (<50°F)", "Fermentation may stall. Warm to 75–80°F.", 0xFF546E7A);
+    private static final Result LETHAL = new Result(Level.LETHAL, "Lethal (>90°F)", "Risk of SCOBY death. Cool down immediately!", 0xFFB71C1C);
+    private static final Result CRITICAL = new Result(Level.CRITICAL, "Critical (<65°F or >85°F)", "Outside safe range. Adjust the range to be between 65°F and 85°F.", 0xFFD32F2F);
+    private static final Result WARNING = new Result(Level.WARNING, "Warning (65–75°F or 80–85°F)", "Not ideal. Aim for 75–80°F.", 0xFFF57C00);
+    private static final Result OPTIMAL = new Result(Level.OPTIMAL, "Optimal (75–80°F)", "Perfect brewing temperature.", 0xFF388E3C);
+    private static final Result NO_READING = new Result(Level.UNKNOWN, "No reading", "Waiting for a valid sensor reading…", 0xFF9E9E9E);
+
+    private static final BandClassifier<Result> BANDS = BandClassifier.startingWith(DORMANT)
+            .from(50f, CRITICAL)
+            .from(65f, WARNING)
+            .from(75f, OPTIMAL)
+            .from(80f, WARNING)
+            .above(85f, CRITICAL)
+            .above(90f, LETHAL)
+            .invalid(NO_READING)
+            .build();
+
+    /** Shared, immutable result for a temperature in °F. */
     public static Result evaluateF(float tempF) {
-        if (Float.isNaN(tempF) || Float.isInfinite(tempF)) {
-            return new Result(Level.UNKNOWN, "No reading", "Waiting for a valid sensor reading…", Color.parseColor("#9E9E9E"));
-        }
-        if (tempF < 50f) {
-            return new Result(Level.DORMANT, "Dormant (<50°F)", "Fermentation may stall. Warm to 75–80°F.", Color.parseColor("#546E7A"));
-        }
-        if (tempF > 90f) {
-            return new Result(Level.LETHAL, "Lethal (>90°F)", "Risk of SCOBY death. Cool down immediately!", Color.parseColor("#B71C1C"));
-        }
-        if (tempF < 65f || tempF > 85f) {
-            return new Result(Level.CRITICAL, "Critical (<65°F or >85°F)", "Outside safe range. Adjust the range to be between 65°F and 85°F.", Color.parseColor("#D32F2F"));
-        }
-        if ((tempF >= 65f && tempF < 75f) || (tempF >= 80f && tempF <= 85f)) {
-            return new Result(Level.WARNING, "Warning (65–75°F or 80–85°F)", "Not ideal. Aim for 75–80°F.", Color.parseColor("#F57C00"));
-        }
-        if (tempF >= 75f && tempF < 80f) {
-            return new Result(Level.OPTIMAL, "Optimal (75–80°F)", "Perfect brewing temperature.", Color.parseColor("#388E3C"));
-        }
-        return new Result(Level.UNKNOWN, "Unknown", "Could not classify temperature.", Color.parseColor("#9E9E9E"));
+        return BANDS.classify(tempF);
+    }
+
+    /** Evaluates a whole series of temperatures in °F into {@code out}. */
+    public static void evaluateAllF(float[] tempsF, Result[] out) {
+        BANDS.classifyAll(tempsF, out);
+    }
+
+    public static Level levelF(float tempF) {
+        return BANDS.classify(tempF).level;
     }
 }
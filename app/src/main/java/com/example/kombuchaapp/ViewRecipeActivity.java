@@ -6,6 +6,7 @@ import android.os.Build;
 import android.os.Bundle;
 import android.text.Html;
 import android.util.Log;
+import android.view.MotionEvent;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
@@ -20,10 +21,16 @@ import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.Toolbar;
 
+import com.example.kombuchaapp.models.ReadingTimestamps;
 import com.example.kombuchaapp.models.Recipe;
 import com.example.kombuchaapp.models.SensorReadings;
 import com.example.kombuchaapp.models.UserSettings;
+import com.example.kombuchaapp.repositories.BrewMonitorWorker;
+import com.example.kombuchaapp.repositories.InsightsCache;
+import com.example.kombuchaapp.repositories.ReadingPurgeWorker;
+import com.example.kombuchaapp.repositories.ReadingStore;
 import com.example.kombuchaapp.repositories.RecipeRepository;
+import com.example.kombuchaapp.repositories.SensorRouter;
 import com.example.kombuchaapp.repositories.SettingsRepository;
 import com.example.kombuchaapp.AlertAdapter;
 import com.example.kombuchaapp.TemperatureAlert;
@@ -37,16 +44,19 @@ import com.github.mikephil.charting.components.YAxis;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
-import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
+import com.github.mikephil.charting.formatter.ValueFormatter;
+import com.github.mikephil.charting.listener.ChartTouchListener;
+import com.github.mikephil.charting.listener.OnChartGestureListener;
 import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.ListenerRegistration;
 import com.google.firebase.firestore.Query;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Date;
@@ -60,6 +70,9 @@ public class ViewRecipeActivity extends AppCompatActivity {
 
     private static final String TAG = "ViewRecipeActivity";
 
+    // Long series are downsampled to roughly the chart's pixel width, never below this
+    private static final int MIN_SAMPLE_BUDGET = 200;
+
     // UI Components
     private TextView tvRecipeName, tvStatus, tvTeaLeaf, tvWater, tvSugar, tvScoby,
             tvKombuchaStarter, tvFlavor, tvCreatedDate, tvBrewingStartDate,
@@ -81,20 +94,36 @@ public class ViewRecipeActivity extends AppCompatActivity {
     // Repository
     private RecipeRepository recipeRepository;
     private SettingsRepository settingsRepository;
+    private SensorRouter sensorRouter;
     private FirebaseFirestore db;
     private String recipeId;
     private Recipe currentRecipe;
     private String temperatureUnit = "celsius"; // Default
 
-    private ListenerRegistration readingsListener;
+    // One stream per channel feeds the chart, the live value and the alerts
     private ListenerRegistration tempReadingsListener;
     private ListenerRegistration phReadingsListener;
-    private ListenerRegistration phNotifyListener;
+    private boolean readingStreamsActive;
+    private ChannelHistory tempHistory;
+    private ChannelHistory phHistory;
+    // Live values and alerts are shown while the recipe is brewing
+    private boolean liveReadingsShown;
 
     private boolean hasHarvestNotified = false;
 
-    // Store current readings for re-rendering when unit changes
-    private List<SensorReadings> currentTempReadings = new ArrayList<>();
+    // Chart series, loaded from the local reading store and then updated in
+    // place from snapshot document changes
+    private ReadingSeries tempSeries = new ReadingSeries();
+    private ReadingSeries phSeries = new ReadingSeries();
+    private int[] sampleIndices = new int[0];
+
+    // The charts open on this much recent history; older readings are paged
+    // in when the user pans to the start
+    private static final long HISTORY_WINDOW_MS = 2 * 24 * 60 * 60 * 1000L;
+    private static final int OLDER_PAGE_SIZE = 500;
+    private static final int OLDER_PAGE_TRIGGER = 5;
+    private final LatestReading latestTemp = new LatestReading();
+    private final LatestReading latestPh = new LatestReading();
 
     // Store latest live readings for unit conversion updates
     private float latestLiveTempC = Float.NaN;
@@ -113,8 +142,9 @@ public class ViewRecipeActivity extends AppCompatActivity {
             return;
         }
 
-        recipeRepository = new RecipeRepository();
+        recipeRepository = new RecipeRepository(this);
         settingsRepository = new SettingsRepository();
+        sensorRouter = new SensorRouter();
         db = FirebaseFirestore.getInstance();
 
         // Initialize toolbar
@@ -142,10 +172,6 @@ public class ViewRecipeActivity extends AppCompatActivity {
         setupTempChart();
         setupPhChart();
 
-        // Load temperature and pH readings
-        loadTemperatureReadings();
-        loadPhReadings();
-
         // Load user settings for temperature unit
         loadUserSettings();
 
@@ -251,8 +277,8 @@ public class ViewRecipeActivity extends AppCompatActivity {
 
                 runOnUiThread(() -> {
                     // If unit changed and we have chart data, re-render with new unit
-                    if (unitChanged && !currentTempReadings.isEmpty()) {
-                        updateTemperatureChart(currentTempReadings);
+                    if (unitChanged && !tempSeries.isEmpty()) {
+                        updateTemperatureChart();
                     }
 
                     // Also update live temperature display if we have a latest reading
@@ -353,13 +379,20 @@ public class ViewRecipeActivity extends AppCompatActivity {
                     showLoading(false);
                     currentRecipe = recipe;
                     displayRecipe(recipe);
+
+                    // Readings still on the server are on their way out
+                    if (recipe.isPurging()) {
+                        clearReadingHistory();
+                        if (recipe.getPurgeFailed() != null) {
+                            showPurgeFailed(recipe);
+                        }
+                    }
                     displayPhRange(recipe);
                     displayReview(recipe);
 
-                    // Start live reading listeners if brewing
+                    // Show live readings if brewing
                     if ("brewing".equalsIgnoreCase(recipe.getStatus())) {
-                        startReadingListener();
-                        startPhListener();
+                        startLiveReadings();
                     }
                 });
             }
@@ -540,6 +573,7 @@ public class ViewRecipeActivity extends AppCompatActivity {
     }
 
     private void logout() {
+        BrewMonitorWorker.cancel(this);
         FirebaseAuth.getInstance().signOut();
         Toast.makeText(this, "Logged out successfully", Toast.LENGTH_SHORT).show();
         Intent intent = new Intent(ViewRecipeActivity.this, Login.class);
@@ -680,41 +714,22 @@ public class ViewRecipeActivity extends AppCompatActivity {
     }
 
     private void startBrewingProcess() {
-        showLoading(true);
-
-        // Check the central sensor_control document
-        db.collection("sensor_control").document("active_config").get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        // Check if another recipe is already active
-                        String activeRecipeId = documentSnapshot.getString("active_recipe_id");
-
-                        // If a recipe is active and it's not the current one, block the process
-                        if (activeRecipeId != null && !activeRecipeId.equals(recipeId)) {
-                            runOnUiThread(() -> {
-                                showLoading(false);
-                                Toast.makeText(ViewRecipeActivity.this,
-                                        "Another recipe is already brewing. Please complete it first.",
-                                        Toast.LENGTH_LONG).show();
-                            });
-                            return; // Stop here
-                        }
-                    }
+        // New readings would be caught by the purge of the old ones
+        if (currentRecipe != null && currentRecipe.isPurging() && currentRecipe.getPurgeFailed() != null) {
+            showPurgeFailed(currentRecipe);
+            return;
+        }
+        if (currentRecipe != null && currentRecipe.isPurging()) {
+            Toast.makeText(this, "Previous sensor data is still being deleted. Try again shortly.",
+                    Toast.LENGTH_SHORT).show();
+            loadRecipe();
+            return;
+        }
 
-                    // If the document doesn't exist, or no recipe is active, proceed to start brewing.
-                    runOnUiThread(() -> updateRecipeStatus("brewing"));
+        showLoading(true);
 
-                })
-                .addOnFailureListener(e -> {
-                    // If we can't check the status, it's safer to block and show an error.
-                    runOnUiThread(() -> {
-                        showLoading(false);
-                        Log.e(TAG, "Failed to check active brewing status", e);
-                        Toast.makeText(ViewRecipeActivity.this,
-                                "Failed to check brewing status: " + e.getMessage(),
-                                Toast.LENGTH_SHORT).show();
-                    });
-                });
+        // Route a free sensor to this recipe, then start brewing
+        claimSensor(() -> updateRecipeStatus("brewing"));
     }
 
     private void pauseBrewing() {
@@ -751,34 +766,8 @@ public class ViewRecipeActivity extends AppCompatActivity {
     private void resumeBrewing() {
         showLoading(true);
 
-        // Check if another recipe is active
-        db.collection("sensor_control").document("active_config").get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        String activeRecipeId = documentSnapshot.getString("active_recipe_id");
-
-                        if (activeRecipeId != null && !activeRecipeId.equals(recipeId)) {
-                            runOnUiThread(() -> {
-                                showLoading(false);
-                                Toast.makeText(ViewRecipeActivity.this,
-                                        "Another recipe is already brewing. Please complete it first.",
-                                        Toast.LENGTH_LONG).show();
-                            });
-                            return;
-                        }
-                    }
-
-                    // Resume brewing - change status and reactivate sensors
-                    runOnUiThread(() -> updateRecipeStatus("brewing"));
-                })
-                .addOnFailureListener(e -> {
-                    runOnUiThread(() -> {
-                        showLoading(false);
-                        Toast.makeText(ViewRecipeActivity.this,
-                                "Failed to check brewing status: " + e.getMessage(),
-                                Toast.LENGTH_SHORT).show();
-                    });
-                });
+        // Resume brewing - reclaim a sensor, then change status
+        claimSensor(() -> updateRecipeStatus("brewing"));
     }
 
     private void confirmBackToDraft() {
@@ -801,121 +790,118 @@ public class ViewRecipeActivity extends AppCompatActivity {
             return;
         }
 
-        // First, delete all temperature and pH readings for this recipe
-        // We need to wait for both deletions to complete
-        final boolean[] tempDeleted = {false};
-        final boolean[] phDeleted = {false};
-        final boolean[] hasError = {false};
+        // Remove from sensor control
+        removeRecipeForSensors();
 
-        String userId = user.getUid();
+        // Drop the local copy too, otherwise the charts would keep showing it
+        ReadingStore store = ReadingStore.getInstance(this);
+        ReadingStore.io().execute(() -> store.deleteRecipe(recipeId));
 
-        // Delete temperature readings
-        db.collection("users")
-                .document(userId)
-                .collection("Recipes")
-                .document(recipeId)
-                .collection("temperature_readings")
-                .get()
-                .addOnSuccessListener(tempSnapshots -> {
-                    if (tempSnapshots.isEmpty()) {
-                        tempDeleted[0] = true;
-                        checkAndProceedToUpdateStatus(tempDeleted, phDeleted, hasError, userId);
-                    } else {
-                        // Count how many we need to delete
-                        int totalTemp = tempSnapshots.size();
-                        final int[] deletedTemp = {0};
-
-                        for (com.google.firebase.firestore.DocumentSnapshot doc : tempSnapshots.getDocuments()) {
-                            doc.getReference().delete()
-                                    .addOnSuccessListener(aVoid -> {
-                                        deletedTemp[0]++;
-                                        if (deletedTemp[0] == totalTemp) {
-                                            tempDeleted[0] = true;
-                                            Log.d(TAG, "All temperature readings deleted");
-                                            checkAndProceedToUpdateStatus(tempDeleted, phDeleted, hasError, userId);
-                                        }
-                                    })
-                                    .addOnFailureListener(e -> {
-                                        Log.e(TAG, "Failed to delete temperature reading", e);
-                                        hasError[0] = true;
-                                        tempDeleted[0] = true;
-                                        checkAndProceedToUpdateStatus(tempDeleted, phDeleted, hasError, userId);
-                                    });
-                        }
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch temperature readings", e);
-                    hasError[0] = true;
-                    tempDeleted[0] = true;
-                    checkAndProceedToUpdateStatus(tempDeleted, phDeleted, hasError, userId);
+        // The recipe is draft at once; its readings are deleted in the background
+        recipeRepository.resetToDraft(recipeId, new RecipeRepository.OnUpdateListener() {
+            @Override
+            public void onSuccess(String message) {
+                runOnUiThread(() -> {
+                    showLoading(false);
+                    Toast.makeText(ViewRecipeActivity.this,
+                            "Recipe moved back to draft. Sensor data is being deleted.",
+                            Toast.LENGTH_SHORT).show();
+                    clearReadingHistory();
+                    loadRecipe();
                 });
+            }
 
-        // Delete pH readings
-        db.collection("users")
-                .document(userId)
-                .collection("Recipes")
-                .document(recipeId)
-                .collection("ph_readings")
-                .get()
-                .addOnSuccessListener(phSnapshots -> {
-                    if (phSnapshots.isEmpty()) {
-                        phDeleted[0] = true;
-                        checkAndProceedToUpdateStatus(tempDeleted, phDeleted, hasError, userId);
-                    } else {
-                        // Count how many we need to delete
-                        int totalPh = phSnapshots.size();
-                        final int[] deletedPh = {0};
-
-                        for (com.google.firebase.firestore.DocumentSnapshot doc : phSnapshots.getDocuments()) {
-                            doc.getReference().delete()
-                                    .addOnSuccessListener(aVoid -> {
-                                        deletedPh[0]++;
-                                        if (deletedPh[0] == totalPh) {
-                                            phDeleted[0] = true;
-                                            Log.d(TAG, "All pH readings deleted");
-                                            checkAndProceedToUpdateStatus(tempDeleted, phDeleted, hasError, userId);
-                                        }
-                                    })
-                                    .addOnFailureListener(e -> {
-                                        Log.e(TAG, "Failed to delete pH reading", e);
-                                        hasError[0] = true;
-                                        phDeleted[0] = true;
-                                        checkAndProceedToUpdateStatus(tempDeleted, phDeleted, hasError, userId);
-                                    });
-                        }
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch pH readings", e);
-                    hasError[0] = true;
-                    phDeleted[0] = true;
-                    checkAndProceedToUpdateStatus(tempDeleted, phDeleted, hasError, userId);
+            @Override
+            public void onFailure(String error) {
+                runOnUiThread(() -> {
+                    showLoading(false);
+                    Toast.makeText(ViewRecipeActivity.this,
+                            "Failed to update status: " + error,
+                            Toast.LENGTH_SHORT).show();
                 });
+            }
+        });
+    }
+
+    /**
+     * Offers to retry a purge of the recipe's readings that the background
+     * worker gave up on; until then the recipe cannot brew.
+     */
+    private void showPurgeFailed(Recipe recipe) {
+        boolean deleting = ReadingPurgeWorker.MODE_DELETE.equals(recipe.getPurgeFailed());
+        new AlertDialog.Builder(this)
+                .setTitle(deleting ? "Couldn't delete recipe" : "Couldn't delete sensor data")
+                .setMessage("The previous sensor data could not be deleted. Check your connection and try again.")
+                .setPositiveButton("Retry", (dialog, which) ->
+                        recipeRepository.retryPurge(recipeId, recipe.getPurgeFailed(),
+                                new RecipeRepository.OnUpdateListener() {
+                                    @Override
+                                    public void onSuccess(String message) {
+                                        Toast.makeText(ViewRecipeActivity.this, message, Toast.LENGTH_SHORT).show();
+                                        loadRecipe();
+                                    }
+
+                                    @Override
+                                    public void onFailure(String error) {
+                                        Toast.makeText(ViewRecipeActivity.this,
+                                                "Couldn't retry: " + error, Toast.LENGTH_LONG).show();
+                                    }
+                                }))
+                .setNegativeButton("Later", null)
+                .show();
+    }
+
+    /**
+     * Stops the history listeners and empties the charts, for a recipe whose
+     * readings are being purged.
+     */
+    private void clearReadingHistory() {
+        stopReadingStreams();
+        tempSeries = new ReadingSeries();
+        phSeries = new ReadingSeries();
+        updateTemperatureChart();
+        updatePhChart();
+    }
+
+    private void confirmRebrew() {
+        new AlertDialog.Builder(this)
+                .setTitle("Rebrew Recipe")
+                .setMessage("This will restart brewing for this recipe. Previous completion date will be cleared.")
+                .setPositiveButton("Yes, Rebrew", (dialog, which) -> rebrew())
+                .setNegativeButton("Cancel", null)
+                .show();
     }
 
-    private void checkAndProceedToUpdateStatus(boolean[] tempDeleted, boolean[] phDeleted, boolean[] hasError, String userId) {
-        // Only proceed when both temp and pH deletions are complete
-        if (tempDeleted[0] && phDeleted[0]) {
-            // Remove from sensor control
-            removeRecipeForSensors();
+    private void rebrew() {
+        showLoading(true);
 
-            // Clear brewing dates and update status to draft
+        // Route a free sensor to this recipe before restarting
+        claimSensor(() -> {
+            // Clear completion date and restart brewing
             Map<String, Object> updates = new HashMap<>();
-            updates.put("status", "draft");
-            updates.put("brewingStartDate", null);
+            updates.put("status", "brewing");
+            updates.put("brewingStartDate", Timestamp.now());
             updates.put("completionDate", null);
 
-            db.collection("users").document(userId)
+            FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+            if (user == null) {
+                showLoading(false);
+                Toast.makeText(ViewRecipeActivity.this, "Error: User not logged in", Toast.LENGTH_SHORT).show();
+                return;
+            }
+
+            db.collection("users").document(user.getUid())
                     .collection("Recipes").document(recipeId)
                     .update(updates)
                     .addOnSuccessListener(aVoid -> {
                         runOnUiThread(() -> {
+                            hasHarvestNotified = false;
+                            startLiveReadings();
+                            BrewMonitorWorker.schedule(ViewRecipeActivity.this);
                             showLoading(false);
-                            String message = hasError[0] ?
-                                    "Recipe moved back to draft. Some sensor data may not have been deleted." :
-                                    "Recipe moved back to draft. All sensor data deleted.";
-                            Toast.makeText(ViewRecipeActivity.this, message, Toast.LENGTH_SHORT).show();
+                            Toast.makeText(ViewRecipeActivity.this,
+                                    "Brewing restarted!",
+                                    Toast.LENGTH_SHORT).show();
                             loadRecipe();
                         });
                     })
@@ -923,89 +909,11 @@ public class ViewRecipeActivity extends AppCompatActivity {
                         runOnUiThread(() -> {
                             showLoading(false);
                             Toast.makeText(ViewRecipeActivity.this,
-                                    "Failed to update status: " + e.getMessage(),
+                                    "Failed to restart brewing: " + e.getMessage(),
                                     Toast.LENGTH_SHORT).show();
                         });
                     });
-        }
-    }
-
-    private void confirmRebrew() {
-        new AlertDialog.Builder(this)
-                .setTitle("Rebrew Recipe")
-                .setMessage("This will restart brewing for this recipe. Previous completion date will be cleared.")
-                .setPositiveButton("Yes, Rebrew", (dialog, which) -> rebrew())
-                .setNegativeButton("Cancel", null)
-                .show();
-    }
-
-    private void rebrew() {
-        showLoading(true);
-
-        // Check if another recipe is active
-        db.collection("sensor_control").document("active_config").get()
-                .addOnSuccessListener(documentSnapshot -> {
-                    if (documentSnapshot.exists()) {
-                        String activeRecipeId = documentSnapshot.getString("active_recipe_id");
-
-                        if (activeRecipeId != null && !activeRecipeId.equals(recipeId)) {
-                            runOnUiThread(() -> {
-                                showLoading(false);
-                                Toast.makeText(ViewRecipeActivity.this,
-                                        "Another recipe is already brewing. Please complete it first.",
-                                        Toast.LENGTH_LONG).show();
-                            });
-                            return;
-                        }
-                    }
-
-                    // Clear completion date and restart brewing
-                    Map<String, Object> updates = new HashMap<>();
-                    updates.put("status", "brewing");
-                    updates.put("brewingStartDate", Timestamp.now());
-                    updates.put("completionDate", null);
-
-                    FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-                    if (user == null) {
-                        showLoading(false);
-                        Toast.makeText(ViewRecipeActivity.this, "Error: User not logged in", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-
-                    db.collection("users").document(user.getUid())
-                            .collection("Recipes").document(recipeId)
-                            .update(updates)
-                            .addOnSuccessListener(aVoid -> {
-                                runOnUiThread(() -> {
-                                    addRecipeForSensors();
-                                    // Start listeners for live readings
-                                    startReadingListener();
-                                    startPhListener();
-                                    hasHarvestNotified = false;
-                                    showLoading(false);
-                                    Toast.makeText(ViewRecipeActivity.this,
-                                            "Brewing restarted!",
-                                            Toast.LENGTH_SHORT).show();
-                                    loadRecipe();
-                                });
-                            })
-                            .addOnFailureListener(e -> {
-                                runOnUiThread(() -> {
-                                    showLoading(false);
-                                    Toast.makeText(ViewRecipeActivity.this,
-                                            "Failed to restart brewing: " + e.getMessage(),
-                                            Toast.LENGTH_SHORT).show();
-                                });
-                            });
-                })
-                .addOnFailureListener(e -> {
-                    runOnUiThread(() -> {
-                        showLoading(false);
-                        Toast.makeText(ViewRecipeActivity.this,
-                                "Failed to check brewing status: " + e.getMessage(),
-                                Toast.LENGTH_SHORT).show();
-                    });
-                });
+        });
     }
 
     private void updateRecipeStatus(String newStatus) {
@@ -1015,18 +923,16 @@ public class ViewRecipeActivity extends AppCompatActivity {
             @Override
             public void onSuccess(String message) {
                 runOnUiThread(() -> {
-                    // If starting brewing, also set as active recipe in sensor_control
+                    // The sensor was claimed before brewing started
                     if ("brewing".equals(newStatus)) {
-                        addRecipeForSensors();
-                        startReadingListener();
-                        startPhListener();
                         hasHarvestNotified = false;
+                        startLiveReadings();
+                        BrewMonitorWorker.schedule(ViewRecipeActivity.this);
                     }
 
                     if ("completed".equals(newStatus)) {
                         removeRecipeForSensors();
-                        stopReadingListener();
-                        stopPhListener();
+                        stopLiveReadings();
                         tvTempAlert.setVisibility(View.GONE);
                     }
 
@@ -1049,57 +955,92 @@ public class ViewRecipeActivity extends AppCompatActivity {
     }
 
     private void removeRecipeForSensors() {
-        FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
-        if (currentUser == null) {
-            Log.w(TAG, "Cannot remove recipe for sensors: No user logged in.");
-            return;
-        }
+        // Frees the sensor for other brews; a late release never frees a sensor claimed since
+        sensorRouter.release(recipeId, () -> Log.d(TAG, "Sensors of " + recipeId + " released"));
+    }
 
-        // To "remove" the active recipe, we set the fields to null.
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("active_recipe_id", null);
-        updates.put("active_user_id", null);
+    /**
+     * Lets the user pick a sensor that is free or already routed to this
+     * recipe, claims it, and then runs {@code onClaimed}. Expects the loading
+     * spinner to be showing; hides it if no sensor is claimed.
+     */
+    private void claimSensor(Runnable onClaimed) {
+        sensorRouter.getAvailableSensors(recipeId, new SensorRouter.OnSensorsLoadedListener() {
+            @Override
+            public void onSuccess(List<String> sensorIds) {
+                showSensorPicker(sensorIds, onClaimed);
+            }
 
-        db.collection("sensor_control")
-                .document("active_config")
-                .update(updates)
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Active recipe and user removed from sensor_control.");
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to remove active recipe from sensor_control", e);
-                });
+            @Override
+            public void onFailure(String error) {
+                showLoading(false);
+                Toast.makeText(ViewRecipeActivity.this,
+                        "Failed to check sensors: " + error,
+                        Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
+    private void showSensorPicker(List<String> sensorIds, Runnable onClaimed) {
+        String lastSensor = currentRecipe != null ? currentRecipe.getSensorId() : null;
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this)
+                .setTitle("Choose a sensor")
+                .setNegativeButton("Cancel", (dialog, which) -> showLoading(false))
+                .setOnCancelListener(dialog -> showLoading(false));
+
+        if (sensorIds.isEmpty()) {
+            // No registered sensor is free; a new one can be named by its ID
+            EditText input = new EditText(this);
+            input.setHint("Sensor ID");
+            if (lastSensor != null) {
+                input.setText(lastSensor);
+            }
+            builder.setMessage("No free sensors found. Enter the ID of the sensor in this brew's fermenter.")
+                    .setView(input)
+                    .setPositiveButton("Start", (dialog, which) -> {
+                        String sensorId = input.getText().toString().trim();
+                        if (sensorId.isEmpty()) {
+                            showLoading(false);
+                            return;
+                        }
+                        claim(sensorId, onClaimed);
+                    });
+        } else {
+            // Preselect the sensor this recipe used last
+            int[] checked = {Math.max(0, sensorIds.indexOf(lastSensor))};
+            builder.setSingleChoiceItems(sensorIds.toArray(new String[0]), checked[0],
+                            (dialog, which) -> checked[0] = which)
+                    .setPositiveButton("Start", (dialog, which) -> claim(sensorIds.get(checked[0]), onClaimed));
+        }
+
+        builder.show();
     }
 
-    private void addRecipeForSensors() {
+    private void claim(String sensorId, Runnable onClaimed) {
         FirebaseUser currentUser = FirebaseAuth.getInstance().getCurrentUser();
         if (currentUser == null) {
+            showLoading(false);
             Toast.makeText(ViewRecipeActivity.this, "Error: No user logged in", Toast.LENGTH_SHORT).show();
             return;
         }
-        String userId = currentUser.getUid();
 
-        // Create a map to hold the active recipe and user ID.
-        Map<String, Object> activeConfig = new HashMap<>();
-        activeConfig.put("active_recipe_id", recipeId);
-        activeConfig.put("active_user_id", userId);
+        sensorRouter.claim(sensorId, currentUser.getUid(), recipeId, new RecipeRepository.OnUpdateListener() {
+            @Override
+            public void onSuccess(String message) {
+                if (currentRecipe != null) currentRecipe.setSensorId(sensorId);
+                Toast.makeText(ViewRecipeActivity.this, message, Toast.LENGTH_SHORT).show();
+                onClaimed.run();
+            }
 
-        // Set the data on the 'active_config' document, overwriting previous values.
-        db.collection("sensor_control")
-                .document("active_config")
-                .set(activeConfig)
-                .addOnSuccessListener(aVoid -> {
-                    Log.d(TAG, "Active recipe and user set in sensor_control: " + recipeId);
-                    Toast.makeText(ViewRecipeActivity.this,
-                            "Recipe activated for sensor readings!",
-                            Toast.LENGTH_SHORT).show();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to set active recipe in sensor_control", e);
-                    Toast.makeText(ViewRecipeActivity.this,
-                            "Warning: Couldn't activate sensors: " + e.getMessage(),
-                            Toast.LENGTH_LONG).show();
-                });
+            @Override
+            public void onFailure(String error) {
+                showLoading(false);
+                Toast.makeText(ViewRecipeActivity.this,
+                        "Couldn't claim sensor: " + error,
+                        Toast.LENGTH_LONG).show();
+            }
+        });
     }
 
     private String formatDate(Timestamp timestamp) {
@@ -1116,130 +1057,92 @@ public class ViewRecipeActivity extends AppCompatActivity {
     @Override
     protected void onStart() {
         super.onStart();
+        startReadingStreams();
         if (currentRecipe != null && "brewing".equalsIgnoreCase(currentRecipe.getStatus())) {
-            startReadingListener();
-            startPhListener();
+            startLiveReadings();
         }
     }
 
     @Override
     protected void onStop() {
         super.onStop();
-        stopReadingListener();
-        stopPhListener();
-        stopChartListener();
+        stopLiveReadings();
+        stopReadingStreams();
         AlertAdapter.cleanup();
     }
 
-    private void startReadingListener() {
-        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-        if (user == null) return;
-        stopReadingListener();
-        readingsListener = db.collection("users")
-                .document(user.getUid())
-                .collection("Recipes")
-                .document(recipeId)
-                .collection("temperature_readings")
-                .orderBy("timestamp", Query.Direction.DESCENDING)
-                .limit(1)
-                .addSnapshotListener((snap, err) -> {
-                    if (err != null || snap == null || snap.isEmpty()) return;
-
-                    Double tempFd = snap.getDocuments().get(0).getDouble("temperature_f");
-                    if (tempFd == null) return;
-                    float tempF = tempFd.floatValue();
-
-                    // Convert F to C for internal storage
-                    float tempC = (tempF - 32) * 5 / 9;
-
-                    // Update live temperature display
-                    updateLiveTemperature(tempC);
-
-                    AlertAdapter.handleNewReading(this, recipeId, tempF, tvTempAlert);
-
-                    TemperatureAlert.Result r = TemperatureAlert.evaluateF(tempF);
-                    tvTempAlert.setVisibility(View.VISIBLE);
-                    tvTempAlert.setContentDescription("Temperature status: " + r.title);
-                });
-
+    /**
+     * Starts showing the latest readings and alerting on new ones. The
+     * readings come from the chart streams, so this adds no listeners.
+     */
+    private void startLiveReadings() {
+        liveReadingsShown = true;
+        // Show the latest reading again, as a fresh listener would
+        latestTemp.shownMs = Long.MIN_VALUE;
+        latestPh.shownMs = Long.MIN_VALUE;
+        showLatestTemperature();
+        showLatestPh();
     }
 
-    private void stopReadingListener() {
-        if (readingsListener != null) {
-            readingsListener.remove();
-            readingsListener = null;
-        }
-        AlertAdapter.resetDebounce();
+    private void stopLiveReadings() {
+        liveReadingsShown = false;
+        AlertAdapter.resetLevel(recipeId);
     }
 
-    private void startPhListener() {
-        stopPhListener();
-
-        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-        if (user == null) {
-            Log.w(TAG, "Cannot listen for pH: No user logged in.");
-            return;
-        }
-
-        phNotifyListener = db.collection("users")
-                .document(user.getUid())
-                .collection("Recipes")
-                .document(recipeId)
-                .collection("ph_readings")
-                .orderBy("timestamp", Query.Direction.DESCENDING)
-                .limit(1)
-                .addSnapshotListener((snapshots, error) -> {
-                    if (error != null || snapshots == null || snapshots.isEmpty()) {
-                        return;
-                    }
-
-                    Double phVal = snapshots.getDocuments().get(0).getDouble("ph_value");
-                    if (phVal == null) return;
-
-                    float ph = phVal.floatValue();
-
-                    // Update live pH display
-                    updateLivePh(ph);
+    private void showLatestTemperature() {
+        if (!liveReadingsShown || latestTemp.timestampMs == latestTemp.shownMs) return;
+        latestTemp.shownMs = latestTemp.timestampMs;
 
-                    // Check if pH is within the harvest range AND we haven't notified yet
-                    if (currentRecipe != null
-                            && "brewing".equalsIgnoreCase(currentRecipe.getStatus())
-                            && !hasHarvestNotified
-                            && !Float.isNaN(ph)) {
+        float tempC = latestTemp.value;
+        float tempF = tempC * 9 / 5 + 32;
 
-                        double minPh = currentRecipe.getMinPh();
-                        double maxPh = currentRecipe.getMaxPh();
+        // Update live temperature display
+        updateLiveTemperature(tempC);
 
-                        // Check if pH is within the user's desired harvest range
-                        if (ph >= minPh && ph <= maxPh) {
-                            hasHarvestNotified = true;
-
-                            // Create custom message based on pH type
-                            String phType = getPhType(minPh, maxPh);
-                            String title = "Ready to Harvest!";
-                            String message = String.format(
-                                    "Your kombucha has reached the %s range (%.1f-%.1f pH). Time to taste and bottle!",
-                                    phType, minPh, maxPh
-                            );
-
-                            Log.d(TAG, "pH notification triggered: " + message);
-
-                            NotificationHelper.notifyReadyToHarvest(
-                                    getApplicationContext(),
-                                    recipeId,
-                                    title,
-                                    message,
-                                    ph
-                            );
-                        }
-                    }
-                });
+        // The status pill follows the alert level, which changes less often than the reading
+        AlertAdapter.handleNewReading(this, recipeId, tempF, latestTemp.timestampMs, tvTempAlert);
     }
 
-    private void stopPhListener() {
-        if (phNotifyListener != null) {
-            phNotifyListener.remove();
-            phNotifyListener = null;
+    private void showLatestPh() {
+        if (!liveReadingsShown || latestPh.timestampMs == latestPh.shownMs) return;
+        latestPh.shownMs = latestPh.timestampMs;
+
+        float ph = latestPh.value;
+
+        // Update live pH display
+        updateLivePh(ph);
+
+        // Check if pH is within the harvest range AND we haven't notified yet
+        if (currentRecipe != null
+                && "brewing".equalsIgnoreCase(currentRecipe.getStatus())
+                && !hasHarvestNotified
+                && !Float.isNaN(ph)) {
+
+            double minPh = currentRecipe.getMinPh();
+            double maxPh = currentRecipe.getMaxPh();
+
+            // Check if pH is within the user's desired harvest range
+            if (ph >= minPh && ph <= maxPh) {
+                hasHarvestNotified = true;
+
+                // Create custom message based on pH type
+                String phType = getPhType(minPh, maxPh);
+                String title = "Ready to Harvest!";
+                String message = String.format(
+                        "Your kombucha has reached the %s range (%.1f-%.1f pH). Time to taste and bottle!",
+                        phType, minPh, maxPh
+                );
+
+                Log.d(TAG, "pH notification triggered: " + message);
+
+                NotificationHelper.notifyReadyToHarvest(
+                        getApplicationContext(),
+                        recipeId,
+                        title,
+                        message,
+                        ph
+                );
+            }
         }
     }
 
@@ -1284,10 +1187,38 @@ public class ViewRecipeActivity extends AppCompatActivity {
         temperatureChart.getLegend().setTextSize(12f);
         temperatureChart.getLegend().setTextColor(Color.DKGRAY);
 
+        // Re-sample the visible window once a zoom or pan finishes
+        temperatureChart.setOnChartGestureListener(new ResampleOnGestureEnd(() -> {
+            resampleChart(temperatureChart, tempSeries, true);
+            if (temperatureChart.getLowestVisibleX() < OLDER_PAGE_TRIGGER) {
+                loadOlderReadings(tempHistory);
+            }
+        }));
+
         temperatureChart.setNoDataText("Awaiting temperature readings...");
         temperatureChart.invalidate();
     }
 
+    private void startReadingStreams() {
+        readingStreamsActive = true;
+        loadTemperatureReadings();
+        loadPhReadings();
+    }
+
+    private void stopReadingStreams() {
+        readingStreamsActive = false;
+        if (tempHistory != null) tempHistory.stale = true;
+        if (phHistory != null) phHistory.stale = true;
+        if (tempReadingsListener != null) {
+            tempReadingsListener.remove();
+            tempReadingsListener = null;
+        }
+        if (phReadingsListener != null) {
+            phReadingsListener.remove();
+            phReadingsListener = null;
+        }
+    }
+
     private void loadTemperatureReadings() {
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         if (user == null) {
@@ -1295,128 +1226,340 @@ public class ViewRecipeActivity extends AppCompatActivity {
             return;
         }
 
-        // Stop previous listener if exists
-        if (tempReadingsListener != null) {
-            tempReadingsListener.remove();
+        // Draw the history kept on the device first, then listen only to newer readings
+        loadStoredSeries(ReadingStore.CHANNEL_TEMPERATURE, (series, history) -> {
+            // Stopped, or restarted, while the store was read
+            if (!readingStreamsActive) return;
+            if (tempReadingsListener != null) {
+                tempReadingsListener.remove();
+            }
+
+            tempSeries = series;
+            tempHistory = history;
+            latestTemp.setFrom(series);
+            updateTemperatureChart();
+            showLatestTemperature();
+
+            tempReadingsListener = tailQuery(user.getUid(), history)
+                    .addSnapshotListener((snapshots, error) -> {
+                        if (error != null) {
+                            Log.e(TAG, "Error loading temperature readings", error);
+                            return;
+                        }
+                        if (snapshots == null) return;
+
+                        // Only the changed documents are parsed, not the whole collection
+                        int appended = applyReadingChanges(tempSeries, latestTemp, snapshots,
+                                ReadingStore.CHANNEL_TEMPERATURE, "temperature_c", history.offset);
+
+                        if (appended < 0 || appended == tempSeries.size() || temperatureChart.getData() == null) {
+                            updateTemperatureChart();
+                        } else if (appended > 0) {
+                            appendEntries(temperatureChart, tempSeries, appended, true, 1f);
+                        }
+                        showLatestTemperature();
+
+                        // Nothing in the recent window, e.g. a paused brew
+                        if (tempSeries.isEmpty()) {
+                            loadOlderReadings(history);
+                        }
+                    });
+        });
+    }
+
+    private interface OnStoredSeriesLoadedListener {
+        void onLoaded(ReadingSeries series, ChannelHistory history);
+    }
+
+    /**
+     * Reads the recent window of a channel's stored readings on the store thread
+     * and hands the series back on the main thread, unless the activity has gone
+     * away in the meantime. The window ends at the last stored reading, or now
+     * if nothing is stored yet.
+     */
+    private void loadStoredSeries(String channel, OnStoredSeriesLoadedListener listener) {
+        ReadingStore store = ReadingStore.getInstance(this);
+        ReadingStore.io().execute(() -> {
+            ChannelHistory history = new ChannelHistory(channel);
+            history.lastStoredMs = store.lastTimestamp(recipeId, channel);
+            history.storeFirstMs = store.firstTimestamp(recipeId, channel);
+
+            long windowEnd = history.lastStoredMs != Long.MIN_VALUE
+                    ? history.lastStoredMs : System.currentTimeMillis();
+            // Whole seconds, the resolution of the "timestamp" field queries run on
+            long windowStart = floorToSecond(windowEnd - HISTORY_WINDOW_MS);
+
+            ReadingSeries series = new ReadingSeries();
+            store.scan(recipeId, channel, windowStart, Long.MAX_VALUE, (timestampMs, value) ->
+                    series.insert(series.size(), value, timestampMs));
+            history.offset = series.size();
+            history.loadedFromMs = history.storeFirstMs != Long.MIN_VALUE
+                    ? Math.max(windowStart, floorToSecond(history.storeFirstMs)) : windowStart;
+
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed()) return;
+                listener.onLoaded(series, history);
+            });
+        });
+    }
+
+    /**
+     * Readings of a channel newer than the last stored one, oldest first. With
+     * nothing stored, only the recent window is fetched.
+     */
+    private Query tailQuery(String userId, ChannelHistory history) {
+        Query query = readingsCollection(userId, history.channel)
+                .orderBy("timestamp", Query.Direction.ASCENDING);
+        if (history.lastStoredMs != Long.MIN_VALUE) {
+            query = query.whereGreaterThan("timestamp", ReadingTimestamps.format(history.lastStoredMs));
+        } else {
+            query = query.whereGreaterThanOrEqualTo("timestamp", ReadingTimestamps.format(history.loadedFromMs));
         }
+        return query;
+    }
 
-        // Listen to temperature readings for this recipe
-        tempReadingsListener = db.collection("users")
-                .document(user.getUid())
+    private Query readingsCollection(String userId, String channel) {
+        return db.collection("users")
+                .document(userId)
                 .collection("Recipes")
                 .document(recipeId)
-                .collection("temperature_readings")
-                .orderBy("timestamp", Query.Direction.ASCENDING)
-                .addSnapshotListener((snapshots, error) -> {
-                    if (error != null) {
-                        Log.e(TAG, "Error loading temperature readings", error);
-                        return;
-                    }
+                .collection(channel);
+    }
 
-                    if (snapshots == null || snapshots.isEmpty()) {
-                        // No data yet
-                        currentTempReadings.clear(); // Clear stored readings
-                        temperatureChart.clear();
-                        temperatureChart.setNoDataText("No temperature readings yet");
-                        temperatureChart.invalidate();
-                        return;
-                    }
+    private static long floorToSecond(long timestampMs) {
+        return Math.floorDiv(timestampMs, 1000L) * 1000L;
+    }
 
-                    // Parse readings
-                    List<SensorReadings> readings = new ArrayList<>();
-                    for (QueryDocumentSnapshot doc : snapshots) {
-                        SensorReadings reading = doc.toObject(SensorReadings.class);
-                        readings.add(reading);
-                    }
+    /**
+     * Pages in the readings before the oldest one on the chart: first from the
+     * local store, then from Firestore. Firestore pages are not stored, as the
+     * store only appends.
+     */
+    private void loadOlderReadings(ChannelHistory history) {
+        if (history == null || history.stale || history.loadingOlder || history.reachedStart) return;
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) return;
 
-                    // Store readings for unit conversion
-                    currentTempReadings = new ArrayList<>(readings);
+        history.loadingOlder = true;
+        if (history.storeFirstMs != Long.MIN_VALUE && history.loadedFromMs > history.storeFirstMs) {
+            loadOlderFromStore(history);
+        } else {
+            loadOlderFromFirestore(user.getUid(), history);
+        }
+    }
 
-                    updateTemperatureChart(readings);
-                });
+    private void loadOlderFromStore(ChannelHistory history) {
+        ReadingStore store = ReadingStore.getInstance(this);
+        String id = recipeId;
+        long loadedFrom = history.loadedFromMs;
+        long storeFirst = history.storeFirstMs;
+        ReadingStore.io().execute(() -> {
+            ReadingSeries older = new ReadingSeries();
+            long from = loadedFrom;
+            // Step over windows without readings, e.g. while the brew was paused
+            while (older.isEmpty() && from > storeFirst) {
+                long to = from - 1;
+                from = Math.max(from - HISTORY_WINDOW_MS, storeFirst);
+                store.scan(id, history.channel, from, to, (timestampMs, value) ->
+                        older.insert(older.size(), value, timestampMs));
+            }
+            long newLoadedFrom = from;
+
+            runOnUiThread(() -> {
+                if (isFinishing() || isDestroyed() || history.stale) return;
+                history.loadingOlder = false;
+                history.loadedFromMs = newLoadedFrom;
+                prependReadings(history, older);
+            });
+        });
     }
 
-    private void updateTemperatureChart(List<SensorReadings> readings) {
-        if (readings.isEmpty()) {
-            temperatureChart.clear();
-            temperatureChart.setNoDataText("No temperature readings yet");
-            temperatureChart.invalidate();
-            return;
+    private void loadOlderFromFirestore(String userId, ChannelHistory history) {
+        String valueField = ReadingStore.CHANNEL_TEMPERATURE.equals(history.channel) ? "temperature_c" : "ph_value";
+        Query query = readingsCollection(userId, history.channel)
+                .orderBy("timestamp", Query.Direction.DESCENDING);
+        if (history.oldestDoc != null) {
+            query = query.startAfter(history.oldestDoc);
+        } else {
+            query = query.whereLessThan("timestamp", ReadingTimestamps.format(history.loadedFromMs));
         }
 
-        List<Entry> tempEntries = new ArrayList<>();
-        List<String> xLabels = new ArrayList<>();
+        query.limit(OLDER_PAGE_SIZE)
+                .get()
+                .addOnSuccessListener(snapshots -> {
+                    if (history.stale) return;
+                    history.loadingOlder = false;
+                    List<DocumentSnapshot> docs = snapshots.getDocuments();
+                    if (docs.size() < OLDER_PAGE_SIZE) {
+                        history.reachedStart = true;
+                    }
+                    if (docs.isEmpty()) return;
+                    history.oldestDoc = docs.get(docs.size() - 1);
+
+                    // Newest first; the chart wants oldest first
+                    ReadingSeries older = new ReadingSeries();
+                    for (int i = docs.size() - 1; i >= 0; i--) {
+                        Double value = docs.get(i).getDouble(valueField);
+                        if (value == null) continue;
+                        older.insert(older.size(), value.floatValue(), SensorReadings.timestampMillis(docs.get(i)));
+                    }
+                    prependReadings(history, older);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Error loading older " + history.channel, e);
+                    history.loadingOlder = false;
+                });
+    }
 
-        SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-        SimpleDateFormat outputFormat = new SimpleDateFormat("MM/dd HH:mm", Locale.getDefault());
+    /**
+     * Puts older readings in front of a chart's series, keeping the readings
+     * the user was looking at in view.
+     */
+    private void prependReadings(ChannelHistory history, ReadingSeries older) {
+        if (older.isEmpty()) return;
+        boolean isTemperature = ReadingStore.CHANNEL_TEMPERATURE.equals(history.channel);
+        ReadingSeries series = isTemperature ? tempSeries : phSeries;
+        LineChart chart = isTemperature ? temperatureChart : phChart;
+
+        boolean hadReadings = !series.isEmpty() && chart.getData() != null;
+        float lowestVisible = hadReadings ? chart.getLowestVisibleX() : 0f;
 
-        float minTemp = Float.MAX_VALUE;
-        float maxTemp = Float.MIN_VALUE;
+        series.prepend(older);
+        // Snapshot indices of the tail listener now start further along
+        history.offset += older.size();
 
-        for (int i = 0; i < readings.size(); i++) {
-            SensorReadings reading = readings.get(i);
-            float tempC = reading.getTemperature_c();
+        if (isTemperature) {
+            updateTemperatureChart();
+        } else {
+            updatePhChart();
+        }
+        if (hadReadings) {
+            chart.moveViewToX(lowestVisible + older.size());
+            resampleChart(chart, series, isTemperature);
+        }
+    }
 
-            // Convert temperature based on user preference
-            float displayTemp = tempC;
-            if ("fahrenheit".equalsIgnoreCase(temperatureUnit)) {
-                displayTemp = (tempC * 9/5) + 32;
+    /**
+     * Applies the document changes of a snapshot to the series in place. Snapshot
+     * indices start after the {@code offset} readings loaded from the store.
+     * New readings are also written to the store, and {@code latest} follows
+     * the newest one. Returns how many readings were appended at the end, or -1
+     * if earlier readings were modified, removed or inserted and the chart must
+     * be rebuilt.
+     */
+    private int applyReadingChanges(ReadingSeries series, LatestReading latest, QuerySnapshot snapshots,
+                                    String channel, String valueField, int offset) {
+        int appended = 0;
+        boolean rebuild = false;
+        List<DocumentChange> changes = snapshots.getDocumentChanges();
+        long[] addedTimestamps = new long[changes.size()];
+        float[] addedValues = new float[changes.size()];
+        int addedCount = 0;
+
+        for (DocumentChange change : changes) {
+            DocumentSnapshot doc = change.getDocument();
+            Double value = doc.getDouble(valueField);
+            float v = value != null ? value.floatValue() : 0f;
+            long timestamp = SensorReadings.timestampMillis(doc);
+            int newIndex = offset + change.getNewIndex();
+            int oldIndex = offset + change.getOldIndex();
+
+            // The current reading only follows the routed sensor; the chart keeps every brew reading
+            if (change.getType() != DocumentChange.Type.REMOVED && value != null
+                    && SensorReadings.isFromSensor(doc, currentRecipe != null ? currentRecipe.getSensorId() : null)) {
+                latest.offer(v, timestamp);
             }
 
-            tempEntries.add(new Entry(i, displayTemp));
+            switch (change.getType()) {
+                case ADDED:
+                    if (newIndex != series.size()) {
+                        rebuild = true;
+                    } else {
+                        appended++;
+                    }
+                    series.insert(newIndex, v, timestamp);
+                    if (value != null && timestamp != ReadingTimestamps.INVALID) {
+                        addedTimestamps[addedCount] = timestamp;
+                        addedValues[addedCount] = v;
+                        addedCount++;
+                    }
+                    break;
+                case MODIFIED:
+                    if (oldIndex == newIndex) {
+                        series.set(newIndex, v, timestamp);
+                    } else {
+                        series.remove(oldIndex);
+                        series.insert(newIndex, v, timestamp);
+                    }
+                    rebuild = true;
+                    break;
+                case REMOVED:
+                    series.remove(oldIndex);
+                    rebuild = true;
+                    break;
+            }
+        }
 
-            // Track min/max for Y-axis
-            minTemp = Math.min(minTemp, displayTemp);
-            maxTemp = Math.max(maxTemp, displayTemp);
+        if (addedCount > 0) {
+            persistReadings(channel, addedTimestamps, addedValues, addedCount);
+        }
+        return rebuild ? -1 : appended;
+    }
 
-            // Format timestamp for X-axis label
-            try {
-                Date date = inputFormat.parse(reading.getTimestamp());
-                if (date != null) {
-                    xLabels.add(outputFormat.format(date));
-                } else {
-                    xLabels.add(String.valueOf(i + 1));
-                }
-            } catch (ParseException e) {
-                xLabels.add(String.valueOf(i + 1));
+    private void persistReadings(String channel, long[] timestamps, float[] values, int count) {
+        ReadingStore store = ReadingStore.getInstance(this);
+        InsightsCache insightsCache = InsightsCache.getInstance(this);
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        String id = recipeId;
+        ReadingStore.io().execute(() -> {
+            long newest = Long.MIN_VALUE;
+            for (int i = 0; i < count; i++) {
+                store.append(id, channel, timestamps[i], values[i]);
+                newest = Math.max(newest, timestamps[i]);
             }
-        }
+            store.flush(id, channel);
 
-        // Configure X-axis with time labels
-        XAxis xAxis = temperatureChart.getXAxis();
-        xAxis.setValueFormatter(new IndexAxisValueFormatter(xLabels));
+            // Cached insights that predate these readings are out of date for this recipe
+            if (user != null) {
+                insightsCache.onReading(user.getUid(), id, newest);
+            }
+        });
+    }
 
-        // Intelligently set label count based on number of data points
-        int dataPointCount = readings.size();
-        int labelCount;
+    private float toDisplayTemperature(float tempC) {
+        if ("fahrenheit".equalsIgnoreCase(temperatureUnit)) {
+            return (tempC * 9/5) + 32;
+        }
+        return tempC;
+    }
 
-        if (dataPointCount <= 10) {
-            // Show all labels if 10 or fewer points
-            labelCount = dataPointCount;
-        } else if (dataPointCount <= 50) {
-            // Show every 5th label
-            labelCount = dataPointCount / 5;
-        } else if (dataPointCount <= 100) {
-            // Show every 10th label
-            labelCount = dataPointCount / 10;
-        } else {
-            // For very large datasets, show roughly 15-20 labels
-            labelCount = 15;
+    private void updateTemperatureChart() {
+        if (tempSeries.isEmpty()) {
+            temperatureChart.clear();
+            temperatureChart.setNoDataText("No temperature readings yet");
+            temperatureChart.invalidate();
+            return;
         }
 
-        xAxis.setLabelCount(labelCount, false);
+        // Entries are converted to the user's unit and downsampled around the
+        // most recent readings, which is where the chart opens
+        int dataPointCount = tempSeries.size();
+        List<Entry> tempEntries = sampleEntries(temperatureChart, tempSeries, true,
+                dataPointCount - 20, dataPointCount - 1);
+
+        // Configure X-axis with time labels read straight from the series
+        XAxis xAxis = temperatureChart.getXAxis();
+        xAxis.setValueFormatter(new SeriesLabelFormatter(tempSeries));
+        xAxis.setLabelCount(labelCountFor(dataPointCount), false);
         xAxis.setLabelRotationAngle(-45f);
         // Allow granularity to be smaller than 1 for dense data
         xAxis.setGranularity(1f);
         xAxis.setGranularityEnabled(true);
 
-        // Configure Y-axis with dynamic range based on data
-        YAxis yAxis = temperatureChart.getAxisLeft();
-        // Add some padding (10%) above and below the data range
-        float range = maxTemp - minTemp;
-        float padding = range > 0 ? range * 0.1f : 1f; // At least 1 degree padding if all temps are the same
-        yAxis.setAxisMinimum(minTemp - padding);
-        yAxis.setAxisMaximum(maxTemp + padding);
+        // Configure Y-axis with dynamic range based on data (at least 1 degree padding)
+        applyYAxisRange(temperatureChart.getAxisLeft(),
+                toDisplayTemperature(tempSeries.minValue()),
+                toDisplayTemperature(tempSeries.maxValue()), 1f);
 
         // Create dataset with appropriate label based on unit
         String unitLabel = "fahrenheit".equalsIgnoreCase(temperatureUnit) ? "Temperature (°F)" : "Temperature (°C)";
@@ -1425,18 +1568,7 @@ public class ViewRecipeActivity extends AppCompatActivity {
         dataSet.setCircleColor(Color.BLUE);
         dataSet.setCircleHoleColor(Color.BLACK);
         dataSet.setLineWidth(2f);
-
-        // Adjust circle size based on data density
-        if (dataPointCount > 50) {
-            dataSet.setCircleRadius(1.5f);
-            dataSet.setDrawCircles(true);
-        } else if (dataPointCount > 20) {
-            dataSet.setCircleRadius(2f);
-            dataSet.setDrawCircles(true);
-        } else {
-            dataSet.setCircleRadius(3f);
-            dataSet.setDrawCircles(true);
-        }
+        applyDensityStyle(dataSet, dataPointCount);
 
         dataSet.setDrawValues(false);
         dataSet.setMode(LineDataSet.Mode.CUBIC_BEZIER);
@@ -1456,6 +1588,162 @@ public class ViewRecipeActivity extends AppCompatActivity {
         temperatureChart.invalidate();
     }
 
+    /**
+     * Appends the newest readings to the existing dataset instead of rebuilding it.
+     */
+    private void appendEntries(LineChart chart, ReadingSeries series, int count,
+                               boolean isTemperature, float minPadding) {
+        LineData lineData = chart.getData();
+        LineDataSet dataSet = (LineDataSet) lineData.getDataSetByIndex(0);
+
+        // Only follow new readings if the user is looking at the most recent ones
+        boolean followTail = chart.getHighestVisibleX() >= dataSet.getXMax() - 0.5f;
+
+        int dataPointCount = series.size();
+        for (int i = dataPointCount - count; i < dataPointCount; i++) {
+            dataSet.addEntry(entryAt(series, i, isTemperature));
+        }
+
+        float min = series.minValue();
+        float max = series.maxValue();
+        if (isTemperature) {
+            min = toDisplayTemperature(min);
+            max = toDisplayTemperature(max);
+        }
+        applyYAxisRange(chart.getAxisLeft(), min, max, minPadding);
+        chart.getXAxis().setLabelCount(labelCountFor(dataPointCount), false);
+        applyDensityStyle(dataSet, dataPointCount);
+
+        lineData.notifyDataChanged();
+        chart.notifyDataSetChanged();
+
+        if (dataPointCount > 20) {
+            chart.setVisibleXRangeMaximum(20);
+            if (followTail) {
+                chart.moveViewToX(dataPointCount - 1);
+            }
+        }
+        chart.invalidate();
+    }
+
+    private Entry entryAt(ReadingSeries series, int index, boolean isTemperature) {
+        float value = series.valueAt(index);
+        return new Entry(index, isTemperature ? toDisplayTemperature(value) : value);
+    }
+
+    /**
+     * Builds chart entries for the series, reduced to about the chart's pixel width.
+     * Readings around the visible window [firstVisible, lastVisible] keep full detail
+     * while the rest of the brew is sampled coarsely, so the X extent stays intact.
+     * Temperature uses min/max buckets so spikes past alert thresholds stay visible;
+     * pH uses LTTB to keep the curve shape.
+     */
+    private List<Entry> sampleEntries(LineChart chart, ReadingSeries series, boolean isTemperature,
+                                      int firstVisible, int lastVisible) {
+        int n = series.size();
+        int budget = sampleBudget(chart);
+
+        if (n <= budget * 2) {
+            List<Entry> entries = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                entries.add(entryAt(series, i, isTemperature));
+            }
+            return entries;
+        }
+
+        // Keep one extra window of detail on each side so short pans stay sharp
+        int window = Math.max(lastVisible - firstVisible, 1);
+        int lo = Math.max(0, firstVisible - window);
+        int hi = Math.min(n, lastVisible + window + 1);
+
+        List<Entry> entries = new ArrayList<>(budget * 2);
+        appendSample(entries, series, 0, lo, budget / 4, isTemperature);
+        appendSample(entries, series, lo, hi, budget, isTemperature);
+        appendSample(entries, series, hi, n, budget / 4, isTemperature);
+        return entries;
+    }
+
+    private void appendSample(List<Entry> entries, ReadingSeries series, int from, int to,
+                              int points, boolean isTemperature) {
+        if (from >= to) return;
+        points = Math.max(points, 3);
+
+        int needed = Math.min(to - from, points + 2);
+        if (sampleIndices.length < needed) {
+            sampleIndices = new int[needed];
+        }
+
+        int count = isTemperature
+                ? Downsampler.minMax(series.rawValues(), from, to, points / 2, sampleIndices)
+                : Downsampler.lttb(series.rawValues(), from, to, points, sampleIndices);
+        for (int k = 0; k < count; k++) {
+            entries.add(entryAt(series, sampleIndices[k], isTemperature));
+        }
+    }
+
+    private static int sampleBudget(LineChart chart) {
+        return Math.max(MIN_SAMPLE_BUDGET, (int) chart.getViewPortHandler().contentWidth());
+    }
+
+    /**
+     * Re-samples the chart for its current viewport after a zoom or pan.
+     */
+    private void resampleChart(LineChart chart, ReadingSeries series, boolean isTemperature) {
+        LineData lineData = chart.getData();
+        if (lineData == null || series.size() <= sampleBudget(chart) * 2) return;
+
+        int firstVisible = (int) Math.floor(chart.getLowestVisibleX());
+        int lastVisible = (int) Math.ceil(chart.getHighestVisibleX());
+
+        LineDataSet dataSet = (LineDataSet) lineData.getDataSetByIndex(0);
+        dataSet.setValues(sampleEntries(chart, series, isTemperature, firstVisible, lastVisible));
+        lineData.notifyDataChanged();
+        chart.notifyDataSetChanged();
+        chart.invalidate();
+    }
+
+    /**
+     * Intelligently picks the X-axis label count based on number of data points
+     */
+    private static int labelCountFor(int dataPointCount) {
+        if (dataPointCount <= 10) {
+            // Show all labels if 10 or fewer points
+            return dataPointCount;
+        } else if (dataPointCount <= 50) {
+            // Show every 5th label
+            return dataPointCount / 5;
+        } else if (dataPointCount <= 100) {
+            // Show every 10th label
+            return dataPointCount / 10;
+        }
+        // For very large datasets, show roughly 15-20 labels
+        return 15;
+    }
+
+    /**
+     * Adjust circle size based on data density
+     */
+    private static void applyDensityStyle(LineDataSet dataSet, int dataPointCount) {
+        if (dataPointCount > 50) {
+            dataSet.setCircleRadius(1.5f);
+        } else if (dataPointCount > 20) {
+            dataSet.setCircleRadius(2f);
+        } else {
+            dataSet.setCircleRadius(3f);
+        }
+        dataSet.setDrawCircles(true);
+    }
+
+    /**
+     * Add some padding (10%) above and below the data range
+     */
+    private static void applyYAxisRange(YAxis yAxis, float min, float max, float minPadding) {
+        float range = max - min;
+        float padding = range > 0 ? range * 0.1f : minPadding;
+        yAxis.setAxisMinimum(min - padding);
+        yAxis.setAxisMaximum(max + padding);
+    }
+
     private void setupPhChart() {
         // General Styling
         phChart.setBackgroundColor(Color.WHITE);
@@ -1497,6 +1785,13 @@ public class ViewRecipeActivity extends AppCompatActivity {
         phChart.getLegend().setTextSize(12f);
         phChart.getLegend().setTextColor(Color.DKGRAY);
 
+        phChart.setOnChartGestureListener(new ResampleOnGestureEnd(() -> {
+            resampleChart(phChart, phSeries, false);
+            if (phChart.getLowestVisibleX() < OLDER_PAGE_TRIGGER) {
+                loadOlderReadings(phHistory);
+            }
+        }));
+
         phChart.setNoDataText("Awaiting pH readings...");
         phChart.invalidate();
     }
@@ -1508,112 +1803,65 @@ public class ViewRecipeActivity extends AppCompatActivity {
             return;
         }
 
-        // Stop previous listener if exists
-        if (phReadingsListener != null) {
-            phReadingsListener.remove();
-        }
+        loadStoredSeries(ReadingStore.CHANNEL_PH, (series, history) -> {
+            if (!readingStreamsActive) return;
+            if (phReadingsListener != null) {
+                phReadingsListener.remove();
+            }
 
-        // Listen to pH readings for this recipe
-        phReadingsListener = db.collection("users")
-                .document(user.getUid())
-                .collection("Recipes")
-                .document(recipeId)
-                .collection("ph_readings")
-                .orderBy("timestamp", Query.Direction.ASCENDING)
-                .addSnapshotListener((snapshots, error) -> {
-                    if (error != null) {
-                        Log.e(TAG, "Error loading pH readings", error);
-                        return;
-                    }
+            phSeries = series;
+            phHistory = history;
+            latestPh.setFrom(series);
+            updatePhChart();
+            showLatestPh();
 
-                    if (snapshots == null || snapshots.isEmpty()) {
-                        // No data yet
-                        phChart.clear();
-                        phChart.setNoDataText("No pH readings yet");
-                        phChart.invalidate();
-                        return;
-                    }
+            phReadingsListener = tailQuery(user.getUid(), history)
+                    .addSnapshotListener((snapshots, error) -> {
+                        if (error != null) {
+                            Log.e(TAG, "Error loading pH readings", error);
+                            return;
+                        }
+                        if (snapshots == null) return;
 
-                    // Parse readings
-                    List<SensorReadings> readings = new ArrayList<>();
-                    for (QueryDocumentSnapshot doc : snapshots) {
-                        SensorReadings reading = doc.toObject(SensorReadings.class);
-                        readings.add(reading);
-                    }
+                        int appended = applyReadingChanges(phSeries, latestPh, snapshots,
+                                ReadingStore.CHANNEL_PH, "ph_value", history.offset);
 
-                    updatePhChart(readings);
-                });
+                        if (appended < 0 || appended == phSeries.size() || phChart.getData() == null) {
+                            updatePhChart();
+                        } else if (appended > 0) {
+                            appendEntries(phChart, phSeries, appended, false, 0.5f);
+                        }
+                        showLatestPh();
+
+                        if (phSeries.isEmpty()) {
+                            loadOlderReadings(history);
+                        }
+                    });
+        });
     }
 
-    private void updatePhChart(List<SensorReadings> readings) {
-        if (readings.isEmpty()) {
+    private void updatePhChart() {
+        if (phSeries.isEmpty()) {
             phChart.clear();
             phChart.setNoDataText("No pH readings yet");
             phChart.invalidate();
             return;
         }
 
-        List<Entry> phEntries = new ArrayList<>();
-        List<String> xLabels = new ArrayList<>();
+        int dataPointCount = phSeries.size();
+        List<Entry> phEntries = sampleEntries(phChart, phSeries, false,
+                dataPointCount - 20, dataPointCount - 1);
 
-        SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
-        SimpleDateFormat outputFormat = new SimpleDateFormat("MM/dd HH:mm", Locale.getDefault());
-
-        float minPh = Float.MAX_VALUE;
-        float maxPh = Float.MIN_VALUE;
-
-        for (int i = 0; i < readings.size(); i++) {
-            SensorReadings reading = readings.get(i);
-            float ph = reading.getPh_value();
-            phEntries.add(new Entry(i, ph));
-
-            // Track min/max for Y-axis
-            minPh = Math.min(minPh, ph);
-            maxPh = Math.max(maxPh, ph);
-
-            // Format timestamp for X-axis label
-            try {
-                Date date = inputFormat.parse(reading.getTimestamp());
-                if (date != null) {
-                    xLabels.add(outputFormat.format(date));
-                } else {
-                    xLabels.add(String.valueOf(i + 1));
-                }
-            } catch (ParseException e) {
-                xLabels.add(String.valueOf(i + 1));
-            }
-        }
-
-        // Configure X-axis with time labels
+        // Configure X-axis with time labels read straight from the series
         XAxis xAxis = phChart.getXAxis();
-        xAxis.setValueFormatter(new IndexAxisValueFormatter(xLabels));
-
-        // Intelligently set label count based on number of data points
-        int dataPointCount = readings.size();
-        int labelCount;
-
-        if (dataPointCount <= 10) {
-            labelCount = dataPointCount;
-        } else if (dataPointCount <= 50) {
-            labelCount = dataPointCount / 5;
-        } else if (dataPointCount <= 100) {
-            labelCount = dataPointCount / 10;
-        } else {
-            labelCount = 15;
-        }
-
-        xAxis.setLabelCount(labelCount, false);
+        xAxis.setValueFormatter(new SeriesLabelFormatter(phSeries));
+        xAxis.setLabelCount(labelCountFor(dataPointCount), false);
         xAxis.setLabelRotationAngle(-45f);
         xAxis.setGranularity(1f);
         xAxis.setGranularityEnabled(true);
 
-        // Configure Y-axis with dynamic range based on data
-        YAxis yAxis = phChart.getAxisLeft();
-        // Add some padding (10%) above and below the data range
-        float range = maxPh - minPh;
-        float padding = range > 0 ? range * 0.1f : 0.5f; // At least 0.5 pH padding
-        yAxis.setAxisMinimum(minPh - padding);
-        yAxis.setAxisMaximum(maxPh + padding);
+        // Configure Y-axis with dynamic range based on data (at least 0.5 pH padding)
+        applyYAxisRange(phChart.getAxisLeft(), phSeries.minValue(), phSeries.maxValue(), 0.5f);
 
         // Create dataset
         LineDataSet dataSet = new LineDataSet(phEntries, "pH Value");
@@ -1621,18 +1869,7 @@ public class ViewRecipeActivity extends AppCompatActivity {
         dataSet.setCircleColor(Color.parseColor("#FF6B35"));
         dataSet.setCircleHoleColor(Color.BLACK);
         dataSet.setLineWidth(2f);
-
-        // Adjust circle size based on data density
-        if (dataPointCount > 50) {
-            dataSet.setCircleRadius(1.5f);
-            dataSet.setDrawCircles(true);
-        } else if (dataPointCount > 20) {
-            dataSet.setCircleRadius(2f);
-            dataSet.setDrawCircles(true);
-        } else {
-            dataSet.setCircleRadius(3f);
-            dataSet.setDrawCircles(true);
-        }
+        applyDensityStyle(dataSet, dataPointCount);
 
         dataSet.setDrawValues(false);
         dataSet.setMode(LineDataSet.Mode.CUBIC_BEZIER);
@@ -1652,17 +1889,6 @@ public class ViewRecipeActivity extends AppCompatActivity {
         phChart.invalidate();
     }
 
-    private void stopChartListener() {
-        if (tempReadingsListener != null) {
-            tempReadingsListener.remove();
-            tempReadingsListener = null;
-        }
-        if (phReadingsListener != null) {
-            phReadingsListener.remove();
-            phReadingsListener = null;
-        }
-    }
-
     @Override
     protected void onResume() {
         super.onResume();
@@ -1676,4 +1902,95 @@ public class ViewRecipeActivity extends AppCompatActivity {
             loadRecipe();
         }
     }
+
+    /**
+     * How much of a channel's history the chart holds.
+     */
+    private static final class ChannelHistory {
+        final String channel;
+        long lastStoredMs = Long.MIN_VALUE;
+        long storeFirstMs = Long.MIN_VALUE;
+        // Every reading at or after this time is in the series
+        long loadedFromMs;
+        // Readings in the series before the tail listener's snapshot indices
+        int offset;
+        // Oldest reading paged in from Firestore, the cursor for the next page
+        DocumentSnapshot oldestDoc;
+        boolean loadingOlder;
+        boolean reachedStart;
+        // The streams were stopped; results still arriving are dropped
+        boolean stale;
+
+        ChannelHistory(String channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Newest reading of a channel, and which one the live display last showed.
+     */
+    private static final class LatestReading {
+        long timestampMs = Long.MIN_VALUE;
+        float value = Float.NaN;
+        long shownMs = Long.MIN_VALUE;
+
+        void setFrom(ReadingSeries series) {
+            timestampMs = Long.MIN_VALUE;
+            value = Float.NaN;
+            if (!series.isEmpty()) {
+                offer(series.valueAt(series.size() - 1), series.timestampAt(series.size() - 1));
+            }
+        }
+
+        void offer(float value, long timestampMs) {
+            if (timestampMs == ReadingTimestamps.INVALID || timestampMs < this.timestampMs) return;
+            this.timestampMs = timestampMs;
+            this.value = value;
+        }
+    }
+
+    /**
+     * X-axis formatter that reads labels from a live series, so appending
+     * readings does not require rebuilding the label list.
+     */
+    private static final class SeriesLabelFormatter extends ValueFormatter {
+        private final ReadingSeries series;
+
+        SeriesLabelFormatter(ReadingSeries series) {
+            this.series = series;
+        }
+
+        @Override
+        public String getFormattedValue(float value) {
+            int index = Math.round(value);
+            if (index < 0 || index >= series.size() || index != (int) value) {
+                return "";
+            }
+            return series.labelAt(index);
+        }
+    }
+
+    /**
+     * Runs an action when a chart touch gesture (drag, pinch, double tap) ends.
+     */
+    private static final class ResampleOnGestureEnd implements OnChartGestureListener {
+        private final Runnable action;
+
+        ResampleOnGestureEnd(Runnable action) {
+            this.action = action;
+        }
+
+        @Override
+        public void onChartGestureEnd(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {
+            action.run();
+        }
+
+        @Override public void onChartGestureStart(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {}
+        @Override public void onChartLongPressed(MotionEvent me) {}
+        @Override public void onChartDoubleTapped(MotionEvent me) {}
+        @Override public void onChartSingleTapped(MotionEvent me) {}
+        @Override public void onChartFling(MotionEvent me1, MotionEvent me2, float velocityX, float velocityY) {}
+        @Override public void onChartScale(MotionEvent me, float scaleX, float scaleY) {}
+        @Override public void onChartTranslate(MotionEvent me, float dX, float dY) {}
+    }
 }
@@ -1,6 +1,8 @@
 package com.example.kombuchaapp.models;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class DataInsights {
@@ -16,22 +18,35 @@ public class DataInsights {
     private float optimalTempRangeMin;
     private float optimalTempRangeMax;
     private int tempAlertsTriggered;
+    private float tempVarianceC;
+    private float tempStdDevC;
+    private long[] tempHistogram;
     
     // pH statistics
     private float avgPhAtHarvest;
     private float optimalPhRangeMin;
     private float optimalPhRangeMax;
     private float avgTimeToOptimalPhDays;
+    private float phVariance;
+    private float phStdDev;
+    private long[] phHistogram;
     
     // Recipe statistics
     private String mostUsedTea;
     private String mostSuccessfulRecipe;
     private Map<String, Integer> statusCounts;
     private Map<String, Integer> teaTypeCounts;
+    private List<RecipeBreakdown> recipeBreakdowns;
+
+    // Set while some recipes' reading statistics are still missing
+    private boolean partial;
     
     public DataInsights() {
         statusCounts = new HashMap<>();
         teaTypeCounts = new HashMap<>();
+        tempHistogram = new long[0];
+        phHistogram = new long[0];
+        recipeBreakdowns = new ArrayList<>();
     }
 
     // Getters and Setters
@@ -163,6 +178,176 @@ public class DataInsights {
         this.teaTypeCounts = teaTypeCounts;
     }
 
+    public float getTempVarianceC() {
+        return tempVarianceC;
+    }
+
+    public void setTempVarianceC(float tempVarianceC) {
+        this.tempVarianceC = tempVarianceC;
+    }
+
+    public float getTempStdDevC() {
+        return tempStdDevC;
+    }
+
+    public void setTempStdDevC(float tempStdDevC) {
+        this.tempStdDevC = tempStdDevC;
+    }
+
+    /**
+     * Reading counts per 1°C bucket, see {@link ReadingRollup#TEMP_HISTOGRAM_MIN_C}.
+     */
+    public long[] getTempHistogram() {
+        return tempHistogram;
+    }
+
+    public void setTempHistogram(long[] tempHistogram) {
+        this.tempHistogram = tempHistogram;
+    }
+
+    public float getPhVariance() {
+        return phVariance;
+    }
+
+    public void setPhVariance(float phVariance) {
+        this.phVariance = phVariance;
+    }
+
+    public float getPhStdDev() {
+        return phStdDev;
+    }
+
+    public void setPhStdDev(float phStdDev) {
+        this.phStdDev = phStdDev;
+    }
+
+    /**
+     * Reading counts per 0.1 pH bucket, see {@link ReadingRollup#PH_HISTOGRAM_MIN}.
+     */
+    public long[] getPhHistogram() {
+        return phHistogram;
+    }
+
+    public void setPhHistogram(long[] phHistogram) {
+        this.phHistogram = phHistogram;
+    }
+
+    public List<RecipeBreakdown> getRecipeBreakdowns() {
+        return recipeBreakdowns;
+    }
+
+    public void setRecipeBreakdowns(List<RecipeBreakdown> recipeBreakdowns) {
+        this.recipeBreakdowns = recipeBreakdowns;
+    }
+
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
+
+    /**
+     * Reading statistics of a single recipe.
+     */
+    public static class RecipeBreakdown {
+        private final String recipeId;
+        private final String recipeName;
+        private final String status;
+        private final long tempCount;
+        private final float avgTempC;
+        private final float tempStdDevC;
+        private final float minTempC;
+        private final float maxTempC;
+        private final long phCount;
+        private final float avgPh;
+        private final float phStdDev;
+        private final float lastPh;
+
+        public RecipeBreakdown(String recipeId, String recipeName, String status,
+                               RunningStats temperature, RunningStats ph, float lastPh) {
+            this.recipeId = recipeId;
+            this.recipeName = recipeName;
+            this.status = status;
+            this.tempCount = temperature.getCount();
+            this.avgTempC = (float) temperature.getMean();
+            this.tempStdDevC = (float) temperature.getStdDev();
+            this.minTempC = temperature.getMin();
+            this.maxTempC = temperature.getMax();
+            this.phCount = ph.getCount();
+            this.avgPh = (float) ph.getMean();
+            this.phStdDev = (float) ph.getStdDev();
+            this.lastPh = lastPh;
+        }
+
+        public RecipeBreakdown(String recipeId, String recipeName, String status,
+                               long tempCount, float avgTempC, float tempStdDevC,
+                               float minTempC, float maxTempC, long phCount,
+                               float avgPh, float phStdDev, float lastPh) {
+            this.recipeId = recipeId;
+            this.recipeName = recipeName;
+            this.status = status;
+            this.tempCount = tempCount;
+            this.avgTempC = avgTempC;
+            this.tempStdDevC = tempStdDevC;
+            this.minTempC = minTempC;
+            this.maxTempC = maxTempC;
+            this.phCount = phCount;
+            this.avgPh = avgPh;
+            this.phStdDev = phStdDev;
+            this.lastPh = lastPh;
+        }
+
+        public String getRecipeId() {
+            return recipeId;
+        }
+
+        public String getRecipeName() {
+            return recipeName;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public long getTempCount() {
+            return tempCount;
+        }
+
+        public float getAvgTempC() {
+            return avgTempC;
+        }
+
+        public float getTempStdDevC() {
+            return tempStdDevC;
+        }
+
+        public float getMinTempC() {
+            return minTempC;
+        }
+
+        public float getMaxTempC() {
+            return maxTempC;
+        }
+
+        public long getPhCount() {
+            return phCount;
+        }
+
+        public float getAvgPh() {
+            return avgPh;
+        }
+
+        public float getPhStdDev() {
+            return phStdDev;
+        }
+
+        public float getLastPh() {
+            return lastPh;
+        }
+    }
+
     @Override
     public String toString() {
         return "DataInsights{" +
@@ -171,7 +356,9 @@ public class DataInsights {
                 ", successRate=" + successRate +
                 ", avgFermentationDays=" + avgFermentationDays +
                 ", avgTemperatureC=" + avgTemperatureC +
+                ", tempStdDevC=" + tempStdDevC +
                 ", avgPhAtHarvest=" + avgPhAtHarvest +
+                ", phStdDev=" + phStdDev +
                 ", mostUsedTea='" + mostUsedTea + '\'' +
                 ", mostSuccessfulRecipe='" + mostSuccessfulRecipe + '\'' +
                 '}';
@@ -0,0 +1,61 @@
+package com.example.kombuchaapp.models;
+
+import java.util.Objects;
+
+/**
+ * Latest temperature and pH of one brewing recipe, as shown on the brew
+ * dashboard. Values that have not been reported yet are NaN, with a time of 0.
+ */
+public class LiveReading {
+
+    private final String recipeId;
+    private final String recipeName;
+    private final String sensorId;
+    private final float temperatureF;
+    private final long temperatureMs;
+    private final float ph;
+    private final long phMs;
+
+    public LiveReading(String recipeId, String recipeName, String sensorId,
+                       float temperatureF, long temperatureMs, float ph, long phMs) {
+        this.recipeId = recipeId;
+        this.recipeName = recipeName;
+        this.sensorId = sensorId;
+        this.temperatureF = temperatureF;
+        this.temperatureMs = temperatureMs;
+        this.ph = ph;
+        this.phMs = phMs;
+    }
+
+    public String getRecipeId() { return recipeId; }
+    public String getRecipeName() { return recipeName; }
+    public String getSensorId() { return sensorId; }
+    public float getTemperatureF() { return temperatureF; }
+    public long getTemperatureMs() { return temperatureMs; }
+    public float getPh() { return ph; }
+    public long getPhMs() { return phMs; }
+
+    /** Time of the newer of the two readings, or 0 if there is none. */
+    public long getLastUpdatedMs() {
+        return Math.max(temperatureMs, phMs);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LiveReading)) return false;
+        LiveReading other = (LiveReading) o;
+        return Float.compare(temperatureF, other.temperatureF) == 0
+                && temperatureMs == other.temperatureMs
+                && Float.compare(ph, other.ph) == 0
+                && phMs == other.phMs
+                && Objects.equals(recipeId, other.recipeId)
+                && Objects.equals(recipeName, other.recipeName)
+                && Objects.equals(sensorId, other.sensorId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(recipeId, recipeName, sensorId, temperatureF, temperatureMs, ph, phMs);
+    }
+}
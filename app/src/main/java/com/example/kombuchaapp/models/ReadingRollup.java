@@ -0,0 +1,224 @@
+package com.example.kombuchaapp.models;
+
+/**
+ * Running summary of one recipe's sensor readings, stored at
+ * users/{uid}/reading_rollups/{recipeId}. Readings are folded in as they are
+ * seen, so insights never have to re-read a recipe's full history.
+ * {@link #getTempLastMs()} and {@link #getPhLastMs()} mark how far each
+ * channel has been folded; 0 means nothing yet.
+ */
+public class ReadingRollup {
+
+    // Optimal and critical ranges used by the insights screen
+    public static final float OPTIMAL_TEMP_MIN_C = 23.9f;  // 75°F
+    public static final float OPTIMAL_TEMP_MAX_C = 26.7f;  // 80°F
+    public static final float CRITICAL_TEMP_MIN_C = 18.3f; // 65°F
+    public static final float CRITICAL_TEMP_MAX_C = 29.4f; // 85°F
+    public static final float OPTIMAL_PH_MIN = 2.5f;
+    public static final float OPTIMAL_PH_MAX = 3.5f;
+
+    // Histogram ranges; rollups are only merged with others of the same version
+    public static final float TEMP_HISTOGRAM_MIN_C = 10f;
+    public static final float TEMP_HISTOGRAM_MAX_C = 40f;
+    public static final int TEMP_HISTOGRAM_BUCKETS = 30;  // 1°C each
+    public static final float PH_HISTOGRAM_MIN = 2f;
+    public static final float PH_HISTOGRAM_MAX = 5f;
+    public static final int PH_HISTOGRAM_BUCKETS = 30;    // 0.1 each
+
+    /** Bumped when the stored shape changes; older rollups are rebuilt from scratch. */
+    public static final int CURRENT_VERSION = 2;
+
+    private int version;
+    private String recipeId;
+    // Recipe status when the rollup was last brought up to date
+    private String status;
+
+    private RunningStats temperature = newTemperatureStats();
+    private int optimalTempCount;
+    private float optimalTempMin;
+    private float optimalTempMax;
+    private int tempAlertCount;
+    private long tempLastMs;
+
+    private RunningStats ph = newPhStats();
+    private int optimalPhCount;
+    private float optimalPhMin;
+    private float optimalPhMax;
+    private long firstOptimalPhMs;
+    private float lastPh;
+    private long phLastMs;
+
+    public ReadingRollup() {}
+
+    public ReadingRollup(String recipeId) {
+        this.recipeId = recipeId;
+        this.version = CURRENT_VERSION;
+    }
+
+    public static RunningStats newTemperatureStats() {
+        return new RunningStats(TEMP_HISTOGRAM_MIN_C, TEMP_HISTOGRAM_MAX_C, TEMP_HISTOGRAM_BUCKETS);
+    }
+
+    public static RunningStats newPhStats() {
+        return new RunningStats(PH_HISTOGRAM_MIN, PH_HISTOGRAM_MAX, PH_HISTOGRAM_BUCKETS);
+    }
+
+    public void addTemperature(long timestampMs, float tempC) {
+        temperature.add(tempC);
+
+        if (tempC >= OPTIMAL_TEMP_MIN_C && tempC <= OPTIMAL_TEMP_MAX_C) {
+            if (optimalTempCount == 0 || tempC < optimalTempMin) optimalTempMin = tempC;
+            if (optimalTempCount == 0 || tempC > optimalTempMax) optimalTempMax = tempC;
+            optimalTempCount++;
+        }
+
+        if (tempC < CRITICAL_TEMP_MIN_C || tempC > CRITICAL_TEMP_MAX_C) {
+            tempAlertCount++;
+        }
+
+        tempLastMs = Math.max(tempLastMs, timestampMs);
+    }
+
+    public void addPh(long timestampMs, float ph) {
+        this.ph.add(ph);
+        lastPh = ph;
+
+        if (ph >= OPTIMAL_PH_MIN && ph <= OPTIMAL_PH_MAX) {
+            if (optimalPhCount == 0 || ph < optimalPhMin) optimalPhMin = ph;
+            if (optimalPhCount == 0 || ph > optimalPhMax) optimalPhMax = ph;
+            optimalPhCount++;
+            if (firstOptimalPhMs == 0) firstOptimalPhMs = timestampMs;
+        }
+
+        phLastMs = Math.max(phLastMs, timestampMs);
+    }
+
+    // Getters and Setters
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getRecipeId() {
+        return recipeId;
+    }
+
+    public void setRecipeId(String recipeId) {
+        this.recipeId = recipeId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public RunningStats getTemperature() {
+        return temperature;
+    }
+
+    public void setTemperature(RunningStats temperature) {
+        this.temperature = temperature;
+    }
+
+    public int getOptimalTempCount() {
+        return optimalTempCount;
+    }
+
+    public void setOptimalTempCount(int optimalTempCount) {
+        this.optimalTempCount = optimalTempCount;
+    }
+
+    public float getOptimalTempMin() {
+        return optimalTempMin;
+    }
+
+    public void setOptimalTempMin(float optimalTempMin) {
+        this.optimalTempMin = optimalTempMin;
+    }
+
+    public float getOptimalTempMax() {
+        return optimalTempMax;
+    }
+
+    public void setOptimalTempMax(float optimalTempMax) {
+        this.optimalTempMax = optimalTempMax;
+    }
+
+    public int getTempAlertCount() {
+        return tempAlertCount;
+    }
+
+    public void setTempAlertCount(int tempAlertCount) {
+        this.tempAlertCount = tempAlertCount;
+    }
+
+    public long getTempLastMs() {
+        return tempLastMs;
+    }
+
+    public void setTempLastMs(long tempLastMs) {
+        this.tempLastMs = tempLastMs;
+    }
+
+    public RunningStats getPh() {
+        return ph;
+    }
+
+    public void setPh(RunningStats ph) {
+        this.ph = ph;
+    }
+
+    public int getOptimalPhCount() {
+        return optimalPhCount;
+    }
+
+    public void setOptimalPhCount(int optimalPhCount) {
+        this.optimalPhCount = optimalPhCount;
+    }
+
+    public float getOptimalPhMin() {
+        return optimalPhMin;
+    }
+
+    public void setOptimalPhMin(float optimalPhMin) {
+        this.optimalPhMin = optimalPhMin;
+    }
+
+    public float getOptimalPhMax() {
+        return optimalPhMax;
+    }
+
+    public void setOptimalPhMax(float optimalPhMax) {
+        this.optimalPhMax = optimalPhMax;
+    }
+
+    public long getFirstOptimalPhMs() {
+        return firstOptimalPhMs;
+    }
+
+    public void setFirstOptimalPhMs(long firstOptimalPhMs) {
+        this.firstOptimalPhMs = firstOptimalPhMs;
+    }
+
+    public float getLastPh() {
+        return lastPh;
+    }
+
+    public void setLastPh(float lastPh) {
+        this.lastPh = lastPh;
+    }
+
+    public long getPhLastMs() {
+        return phLastMs;
+    }
+
+    public void setPhLastMs(long phLastMs) {
+        this.phLastMs = phLastMs;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.kombuchaapp.models;
+
+import java.util.TimeZone;
+
+/**
+ * Parser and formatter for the legacy "yyyy-MM-dd HH:mm:ss" reading timestamps,
+ * interpreted in the device time zone like the SimpleDateFormat it replaces.
+ * Fields are read and written by hand and every method is safe to call from
+ * any thread. The device zone is cached, since TimeZone.getDefault() clones
+ * it on every call; {@link #refreshZone()} picks up a time zone change.
+ */
+public final class ReadingTimestamps {
+
+    /** Returned by {@link #parse(CharSequence)} for missing or malformed timestamps. */
+    public static final long INVALID = Long.MIN_VALUE;
+
+    /** Length of a "yyyy-MM-dd HH:mm:ss" timestamp. */
+    public static final int LENGTH = 19;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    // Device zone, looked up again after refreshZone()
+    private static volatile TimeZone zone;
+
+    private ReadingTimestamps() {}
+
+    /**
+     * Drops the cached device time zone, so the next call reads it again.
+     * Call on {@link android.content.Intent#ACTION_TIMEZONE_CHANGED}.
+     */
+    public static void refreshZone() {
+        zone = null;
+    }
+
+    private static TimeZone deviceZone() {
+        TimeZone z = zone;
+        if (z == null) {
+            z = TimeZone.getDefault();
+            zone = z;
+        }
+        return z;
+    }
+
+    /**
+     * Epoch millis of a "yyyy-MM-dd HH:mm:ss" timestamp in the device time zone,
+     * or {@link #INVALID}.
+     */
+    public static long parse(CharSequence text) {
+        return parse(text, deviceZone());
+    }
+
+    static long parse(CharSequence text, TimeZone zone) {
+        if (text == null || text.length() != LENGTH
+                || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != ' '
+                || text.charAt(13) != ':' || text.charAt(16) != ':') {
+            return INVALID;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        int second = digits(text, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > 31
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID;
+        }
+
+        long local = daysFromCivil(year, month, day) * MILLIS_PER_DAY
+                + ((hour * 60L + minute) * 60L + second) * 1000L;
+
+        // Local wall time to UTC. Starting from standard time resolves the repeated
+        // hour at the end of DST the same way SimpleDateFormat does
+        int offset = zone.getOffset(local - zone.getRawOffset());
+        long utc = local - offset;
+        int actual = zone.getOffset(utc);
+        if (actual != offset) {
+            // A wall time skipped by a forward shift: like GregorianCalendar, read it
+            // with the offset from before the shift, e.g. 02:30 becomes 03:30
+            utc = local - actual;
+        }
+        return utc;
+    }
+
+    /**
+     * Writes "yyyy-MM-dd HH:mm:ss" into {@code out} at {@code offset}; needs {@link #LENGTH} chars.
+     */
+    public static void formatTo(long timestampMs, char[] out, int offset) {
+        formatTo(timestampMs, deviceZone(), out, offset);
+    }
+
+    static void formatTo(long timestampMs, TimeZone zone, char[] out, int offset) {
+        long local = timestampMs + zone.getOffset(timestampMs);
+        long days = Math.floorDiv(local, MILLIS_PER_DAY);
+        int secondOfDay = (int) (Math.floorMod(local, MILLIS_PER_DAY) / 1000);
+        long yearMonthDay = civilFromDays(days);
+
+        writeDigits(out, offset, (int) (yearMonthDay / 10000), 4);
+        out[offset + 4] = '-';
+        writeDigits(out, offset + 5, (int) (yearMonthDay / 100 % 100), 2);
+        out[offset + 7] = '-';
+        writeDigits(out, offset + 8, (int) (yearMonthDay % 100), 2);
+        out[offset + 10] = ' ';
+        writeDigits(out, offset + 11, secondOfDay / 3600, 2);
+        out[offset + 13] = ':';
+        writeDigits(out, offset + 14, secondOfDay / 60 % 60, 2);
+        out[offset + 16] = ':';
+        writeDigits(out, offset + 17, secondOfDay % 60, 2);
+    }
+
+    public static String format(long timestampMs) {
+        char[] out = new char[LENGTH];
+        formatTo(timestampMs, out, 0);
+        return new String(out);
+    }
+
+    /**
+     * Short "MM/dd HH:mm" form used for chart axis labels.
+     */
+    public static String formatLabel(long timestampMs) {
+        char[] full = new char[LENGTH];
+        formatTo(timestampMs, full, 0);
+        char[] out = {full[5], full[6], '/', full[8], full[9], ' ',
+                full[11], full[12], ':', full[14], full[15]};
+        return new String(out);
+    }
+
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int d = text.charAt(i) - '0';
+            if (d < 0 || d > 9) return -1;
+            value = value * 10 + d;
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] out, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    // Proleptic Gregorian day arithmetic (H. Hinnant's days_from_civil / civil_from_days)
+
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+
+    /**
+     * Returns the date packed as yyyyMMdd to avoid allocating a holder.
+     */
+    private static long civilFromDays(long days) {
+        days += 719468;
+        long era = Math.floorDiv(days, 146097);
+        int dayOfEra = (int) (days - era * 146097);
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+}
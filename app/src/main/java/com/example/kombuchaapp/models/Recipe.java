@@ -4,6 +4,7 @@ import com.google.firebase.Timestamp;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 
 public class Recipe {
 
@@ -31,9 +32,17 @@ public class Recipe {
     private double maxPh;
     
     private Boolean published;
-
+    // Set while a background worker deletes the recipe's readings
+    private boolean purging;
+    // Mode of a purge the worker gave up on (ReadingPurgeWorker.MODE_*); null otherwise
+    private String purgeFailed;
+    // Sensor last routed to this recipe; see SensorRouter
+    private String sensorId;
+
+    // As stored on the recipe until likes are loaded; then including the like shards
     private int likes = 0;
 
+    // Legacy likers from the recipe document; once likes are loaded, just the current user if they like it
     private List<String> likedBy = new ArrayList<>();
 
     // Review fields
@@ -79,6 +88,9 @@ public class Recipe {
     public String getStatus() { return status; }
     public String getNotes() { return notes; }
     public Boolean getPublished() {return published; }
+    public boolean isPurging() { return purging; }
+    public String getPurgeFailed() { return purgeFailed; }
+    public String getSensorId() { return sensorId; }
     public int getLikes() { return likes; }
     public List<String> getLikedBy() { return likedBy; }
     public Float getRating() { return rating; }
@@ -114,11 +126,23 @@ public class Recipe {
         this.maxPh = maxPh;
     }
     public void setPublished(Boolean published ) { this.published = published; }
+    public void setPurging(boolean purging) { this.purging = purging; }
+    public void setPurgeFailed(String purgeFailed) { this.purgeFailed = purgeFailed; }
+    public void setSensorId(String sensorId) { this.sensorId = sensorId; }
     public void setLikes(int likes) { this.likes = likes; }
     public void setRating(Float rating) { this.rating = rating; }
     public void setReviewNotes(String reviewNotes) { this.reviewNotes = reviewNotes; }
     public void setReviewDate(Timestamp reviewDate) { this.reviewDate = reviewDate; }
 
+    /**
+     * Hash of the fields a recipe card shows, apart from likes, so list diffs
+     * can tell a like from an edit.
+     */
+    public int contentHash() {
+        return Objects.hash(userId, recipeName, teaLeaf, water, sugar, createdDate,
+                status, published, purging, purgeFailed);
+    }
+
     @Override
     public String toString() {
         return  "Recipe{" +
@@ -0,0 +1,200 @@
+package com.example.kombuchaapp.models;
+
+import com.google.firebase.firestore.Exclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass statistics over a stream of readings: count, mean and variance
+ * (Welford), min/max and a fixed-width histogram. Memory does not grow with the
+ * number of readings, and two accumulators over the same histogram range can be
+ * merged, so per-recipe results combine into totals without keeping readings.
+ * Not thread-safe; merge results from different threads on one thread.
+ *
+ * Values outside the histogram range are counted in the first or last bucket.
+ */
+public class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2; // Sum of squared differences from the mean
+    private float min;
+    private float max;
+
+    private float histogramMin;
+    private float histogramMax;
+    private long[] buckets;
+
+    // Needed by Firestore
+    public RunningStats() {
+        this.buckets = new long[0];
+    }
+
+    public RunningStats(float histogramMin, float histogramMax, int bucketCount) {
+        if (bucketCount < 1 || !(histogramMax > histogramMin)) {
+            throw new IllegalArgumentException("Invalid histogram range");
+        }
+        this.histogramMin = histogramMin;
+        this.histogramMax = histogramMax;
+        this.buckets = new long[bucketCount];
+    }
+
+    public void add(float value) {
+        if (count == 0 || value < min) min = value;
+        if (count == 0 || value > max) max = value;
+
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+
+        if (buckets.length > 0) {
+            buckets[bucketOf(value)]++;
+        }
+    }
+
+    /**
+     * Folds another accumulator into this one (Chan et al. parallel variance).
+     */
+    public void merge(RunningStats other) {
+        if (other.count == 0) return;
+        if (buckets.length != other.buckets.length
+                || histogramMin != other.histogramMin || histogramMax != other.histogramMax) {
+            throw new IllegalArgumentException("Histogram ranges differ");
+        }
+
+        if (count == 0) {
+            min = other.min;
+            max = other.max;
+        } else {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] += other.buckets[i];
+        }
+    }
+
+    @Exclude
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Population variance, or 0 with fewer than two values.
+     */
+    @Exclude
+    public double getVariance() {
+        return count > 1 ? m2 / count : 0;
+    }
+
+    @Exclude
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    @Exclude
+    public int getBucketCount() {
+        return buckets.length;
+    }
+
+    @Exclude
+    public long getBucket(int index) {
+        return buckets[index];
+    }
+
+    /**
+     * Lower edge of a histogram bucket.
+     */
+    @Exclude
+    public float getBucketStart(int index) {
+        return histogramMin + (histogramMax - histogramMin) * index / buckets.length;
+    }
+
+    private int bucketOf(float value) {
+        int index = (int) ((value - histogramMin) / (histogramMax - histogramMin) * buckets.length);
+        if (index < 0) return 0;
+        return Math.min(index, buckets.length - 1);
+    }
+
+    // Getters and Setters (used by Firestore)
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    public double getM2() {
+        return m2;
+    }
+
+    public void setM2(double m2) {
+        this.m2 = m2;
+    }
+
+    public float getMin() {
+        return min;
+    }
+
+    public void setMin(float min) {
+        this.min = min;
+    }
+
+    public float getMax() {
+        return max;
+    }
+
+    public void setMax(float max) {
+        this.max = max;
+    }
+
+    public float getHistogramMin() {
+        return histogramMin;
+    }
+
+    public void setHistogramMin(float histogramMin) {
+        this.histogramMin = histogramMin;
+    }
+
+    public float getHistogramMax() {
+        return histogramMax;
+    }
+
+    public void setHistogramMax(float histogramMax) {
+        this.histogramMax = histogramMax;
+    }
+
+    public List<Long> getHistogram() {
+        List<Long> list = new ArrayList<>(buckets.length);
+        for (long bucket : buckets) {
+            list.add(bucket);
+        }
+        return list;
+    }
+
+    public void setHistogram(List<Long> histogram) {
+        buckets = new long[histogram != null ? histogram.size() : 0];
+        for (int i = 0; i < buckets.length; i++) {
+            Long bucket = histogram.get(i);
+            buckets[i] = bucket != null ? bucket : 0;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.kombuchaapp.models;
 
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.Exclude;
+
 public class SensorReadings {
     private String recipe_id;
     private String sensor_id;
@@ -7,6 +10,8 @@ public class SensorReadings {
     private float temperature_f;
     private float ph_value;
     private String timestamp;
+    // Epoch millis; 0 on legacy documents that only carry the timestamp string
+    private long timestamp_ms;
     private String user_id;
 
     public SensorReadings() {}
@@ -76,6 +81,45 @@ public class SensorReadings {
         this.timestamp = timestamp;
     }
 
+    public long getTimestamp_ms() {
+        return timestamp_ms;
+    }
+
+    public void setTimestamp_ms(long timestamp_ms) {
+        this.timestamp_ms = timestamp_ms;
+    }
+
+    /**
+     * Reading time in epoch millis, parsed from the timestamp string on legacy
+     * documents. Returns {@link ReadingTimestamps#INVALID} if neither is usable.
+     */
+    @Exclude
+    public long getTimestampMillis() {
+        return timestamp_ms > 0 ? timestamp_ms : ReadingTimestamps.parse(timestamp);
+    }
+
+    /**
+     * Same as {@link #getTimestampMillis()} straight from a reading document,
+     * without mapping the whole document to a model.
+     */
+    public static long timestampMillis(DocumentSnapshot doc) {
+        Long millis = doc.getLong("timestamp_ms");
+        if (millis != null && millis > 0) {
+            return millis;
+        }
+        return ReadingTimestamps.parse(doc.getString("timestamp"));
+    }
+
+    /**
+     * Whether a reading document may come from the sensor now routed to its
+     * recipe, so a sensor still writing after being moved to another brew is
+     * ignored. Readings without a sensor_id and recipes never routed match.
+     */
+    public static boolean isFromSensor(DocumentSnapshot doc, String sensorId) {
+        String readingSensor = doc.getString("sensor_id");
+        return sensorId == null || readingSensor == null || readingSensor.equals(sensorId);
+    }
+
     public String getUser_id() {
         return user_id;
     }
@@ -0,0 +1,289 @@
+package com.example.kombuchaapp.repositories;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deletes every document of one or more collections with batched writes of
+ * {@link #BATCH_SIZE} deletes, fetching the next page while the current batch
+ * commits. A job may also name documents to delete once the collections are
+ * empty, e.g. the recipe that owned them.
+ *
+ * When constructed with a context, each job is journaled in SharedPreferences
+ * until it completes, and {@link #resumePending()} finishes jobs left behind by
+ * an earlier run of the app. Deleting is idempotent, so a resumed job simply
+ * starts over on what is left. Callbacks run on the main thread.
+ */
+public class BatchDeleter {
+
+    private static final String TAG = "BatchDeleter";
+    private static final String PREFS_NAME = "batch_deletes";
+
+    // Firestore WriteBatch has a limit of 500 operations; use 450 to leave some margin
+    public static final int BATCH_SIZE = 450;
+
+    public interface OnProgressListener {
+        void onProgress(int deleted);
+    }
+
+    public interface OnDeleteListener {
+        void onSuccess(int deleted);
+        void onFailure(String error);
+    }
+
+    /** A running job. */
+    public interface DeleteHandle {
+        /**
+         * Stops the job before its next query or batch; a batch already
+         * committing still lands. The listener is not called any more.
+         */
+        void cancel();
+    }
+
+    private final FirebaseFirestore fStore;
+    // Null when jobs are not journaled
+    private final SharedPreferences journal;
+
+    public BatchDeleter() {
+        fStore = FirebaseFirestore.getInstance();
+        journal = null;
+    }
+
+    public BatchDeleter(Context context) {
+        fStore = FirebaseFirestore.getInstance();
+        journal = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Paths of the reading subcollections of a recipe.
+     */
+    public static List<String> readingCollections(String userId, String recipeId) {
+        String recipePath = "users/" + userId + "/Recipes/" + recipeId + "/";
+        return Arrays.asList(recipePath + ReadingStore.CHANNEL_TEMPERATURE,
+                recipePath + ReadingStore.CHANNEL_PH);
+    }
+
+    /**
+     * Paths of every subcollection of a recipe: its readings and its likes.
+     */
+    public static List<String> recipeCollections(String userId, String recipeId) {
+        List<String> collections = new ArrayList<>(readingCollections(userId, recipeId));
+        collections.addAll(LikeCounter.collections(userId, recipeId));
+        return collections;
+    }
+
+    /**
+     * Deletes all documents of {@code collectionPaths}, then {@code documentPaths}.
+     * Starting a job with the id of an unfinished one replaces it.
+     *
+     * @param progress may be null; called with the running total after each batch
+     */
+    public DeleteHandle delete(String jobId, List<String> collectionPaths, List<String> documentPaths,
+                               OnProgressListener progress, OnDeleteListener listener) {
+        Job job = new Job(jobId, collectionPaths, documentPaths, progress, listener);
+        saveJob(job);
+        Log.d(TAG, "Starting delete job " + jobId);
+        deleteCollection(job);
+        return job;
+    }
+
+    /**
+     * Finishes delete jobs that were interrupted, e.g. by the app being killed.
+     */
+    public void resumePending() {
+        if (journal == null) return;
+
+        for (Map.Entry<String, ?> entry : journal.getAll().entrySet()) {
+            String jobId = entry.getKey();
+            try {
+                JSONObject json = new JSONObject((String) entry.getValue());
+                List<String> collections = stringsOf(json.getJSONArray("collections"));
+                List<String> documents = stringsOf(json.getJSONArray("documents"));
+                Log.d(TAG, "Resuming delete job " + jobId);
+                delete(jobId, collections, documents, null, new OnDeleteListener() {
+                    @Override
+                    public void onSuccess(int deleted) {
+                        Log.d(TAG, "Resumed job " + jobId + " deleted " + deleted + " documents");
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        Log.e(TAG, "Resumed job " + jobId + " failed: " + error);
+                    }
+                });
+            } catch (JSONException | ClassCastException e) {
+                Log.e(TAG, "Dropping unreadable delete job " + jobId, e);
+                journal.edit().remove(jobId).apply();
+            }
+        }
+    }
+
+    private void deleteCollection(Job job) {
+        if (job.cancelled) return;
+        if (job.collectionIndex == job.collections.size()) {
+            deleteDocuments(job, 0);
+            return;
+        }
+
+        Query firstPage = pageQuery(job.collections.get(job.collectionIndex), null);
+        firstPage.get()
+                .addOnSuccessListener(page -> deletePage(job, page))
+                .addOnFailureListener(e -> fail(job, e));
+    }
+
+    /**
+     * Commits the deletes of one page and, if the page was full, fetches the
+     * next one at the same time. Paging continues after the last document of
+     * this page, so the fetch does not wait for the commit.
+     */
+    private void deletePage(Job job, QuerySnapshot page) {
+        if (job.cancelled) return;
+        if (page.isEmpty()) {
+            job.collectionIndex++;
+            deleteCollection(job);
+            return;
+        }
+
+        List<DocumentSnapshot> docs = page.getDocuments();
+        WriteBatch batch = fStore.batch();
+        for (DocumentSnapshot doc : docs) {
+            batch.delete(doc.getReference());
+        }
+        Task<Void> commit = batch.commit();
+
+        Task<QuerySnapshot> next = null;
+        if (docs.size() >= BATCH_SIZE) {
+            DocumentSnapshot last = docs.get(docs.size() - 1);
+            next = pageQuery(job.collections.get(job.collectionIndex), last).get();
+        }
+        Task<QuerySnapshot> nextPage = next;
+
+        Task<?> both = nextPage != null ? Tasks.whenAll(commit, nextPage) : commit;
+        both.addOnSuccessListener(result -> {
+                    job.deleted += docs.size();
+                    if (job.progress != null) {
+                        job.progress.onProgress(job.deleted);
+                    }
+
+                    if (nextPage != null) {
+                        deletePage(job, nextPage.getResult());
+                    } else {
+                        job.collectionIndex++;
+                        deleteCollection(job);
+                    }
+                })
+                .addOnFailureListener(e -> fail(job, e));
+    }
+
+    private void deleteDocuments(Job job, int from) {
+        if (job.cancelled) return;
+        if (from >= job.documents.size()) {
+            finish(job);
+            return;
+        }
+
+        int to = Math.min(from + BATCH_SIZE, job.documents.size());
+        WriteBatch batch = fStore.batch();
+        for (int i = from; i < to; i++) {
+            batch.delete(fStore.document(job.documents.get(i)));
+        }
+        batch.commit()
+                .addOnSuccessListener(aVoid -> {
+                    job.deleted += to - from;
+                    deleteDocuments(job, to);
+                })
+                .addOnFailureListener(e -> fail(job, e));
+    }
+
+    private Query pageQuery(String collectionPath, DocumentSnapshot after) {
+        Query query = fStore.collection(collectionPath)
+                .orderBy(FieldPath.documentId())
+                .limit(BATCH_SIZE);
+        return after != null ? query.startAfter(after) : query;
+    }
+
+    private void finish(Job job) {
+        if (journal != null) {
+            journal.edit().remove(job.id).apply();
+        }
+        Log.d(TAG, "Delete job " + job.id + " finished, " + job.deleted + " documents");
+        job.listener.onSuccess(job.deleted);
+    }
+
+    private void fail(Job job, Exception e) {
+        if (job.cancelled) return;
+        // The journal entry stays, so the job is retried on the next resumePending()
+        Log.e(TAG, "Delete job " + job.id + " failed after " + job.deleted + " documents", e);
+        job.listener.onFailure(e.getMessage());
+    }
+
+    private void saveJob(Job job) {
+        if (journal == null) return;
+
+        try {
+            JSONObject json = new JSONObject();
+            json.put("collections", new JSONArray(job.collections));
+            json.put("documents", new JSONArray(job.documents));
+            // Committed right away; the point of the journal is to survive the process
+            journal.edit().putString(job.id, json.toString()).commit();
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to journal delete job " + job.id, e);
+        }
+    }
+
+    private static List<String> stringsOf(JSONArray array) throws JSONException {
+        List<String> values = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            values.add(array.getString(i));
+        }
+        return values;
+    }
+
+    /**
+     * State of one running job; only touched from main-thread callbacks, apart
+     * from {@link #cancel()}.
+     */
+    private static final class Job implements DeleteHandle {
+        final String id;
+        final List<String> collections;
+        final List<String> documents;
+        final OnProgressListener progress;
+        final OnDeleteListener listener;
+        int collectionIndex;
+        int deleted;
+        volatile boolean cancelled;
+
+        Job(String id, List<String> collections, List<String> documents,
+            OnProgressListener progress, OnDeleteListener listener) {
+            this.id = id;
+            this.collections = new ArrayList<>(collections);
+            this.documents = new ArrayList<>(documents);
+            this.progress = progress;
+            this.listener = listener;
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.kombuchaapp.repositories;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingPeriodicWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.PeriodicWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.example.kombuchaapp.AlertEngine;
+import com.example.kombuchaapp.NotificationHelper;
+import com.example.kombuchaapp.TemperatureAlert;
+import com.example.kombuchaapp.models.ReadingTimestamps;
+import com.example.kombuchaapp.models.SensorReadings;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Watches the user's brews while the app is closed. Every 15 minutes, when
+ * the network is up, it reads each brewing recipe's temperature readings
+ * since the last one it saw and its newest pH reading. Dangerous
+ * temperatures raise the critical notification and a pH in the recipe's
+ * harvest range raises "Ready to Harvest", the same notifications as the
+ * recipe screen. The work cancels itself once nothing is brewing; starting a
+ * brew schedules it again.
+ */
+public class BrewMonitorWorker extends Worker {
+
+    private static final String TAG = "BrewMonitorWorker";
+
+    private static final String WORK_NAME = "brew_monitor";
+    private static final String PREFS_NAME = "brew_monitor";
+
+    // WorkManager's shortest period
+    private static final long INTERVAL_MINUTES = 15;
+    // On the first run for a brew, older readings are history, not news
+    private static final long FIRST_LOOK_BACK_MS = 2 * INTERVAL_MINUTES * 60_000;
+    // Readings per brew and run; the rest is read on the next run
+    private static final int MAX_READINGS = 500;
+    // A condition that lasts is pushed again after this long
+    private static final long RENOTIFY_MS = 60 * 60_000;
+    private static final long READ_TIMEOUT_SECONDS = 30;
+
+    public BrewMonitorWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Starts monitoring, unless it is already scheduled. Call when a user is
+     * signed in and when a brew starts.
+     */
+    public static void schedule(Context context) {
+        PeriodicWorkRequest request = new PeriodicWorkRequest.Builder(
+                BrewMonitorWorker.class, INTERVAL_MINUTES, TimeUnit.MINUTES)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniquePeriodicWork(WORK_NAME, ExistingPeriodicWorkPolicy.KEEP, request);
+    }
+
+    /**
+     * Stops monitoring and forgets what was seen, e.g. on sign out.
+     */
+    public static void cancel(Context context) {
+        WorkManager.getInstance(context).cancelUniqueWork(WORK_NAME);
+        context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE)
+                .edit().clear().apply();
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null) {
+            cancel(getApplicationContext());
+            return Result.success();
+        }
+
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        CollectionReference recipes = db.collection("users").document(user.getUid()).collection("Recipes");
+        SharedPreferences prefs = getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+
+        try {
+            QuerySnapshot brewing = Tasks.await(recipes.whereEqualTo("status", "brewing").get(),
+                    READ_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (brewing.isEmpty()) {
+                Log.d(TAG, "Nothing brewing; monitoring stopped");
+                cancel(getApplicationContext());
+                return Result.success();
+            }
+
+            SharedPreferences.Editor editor = prefs.edit();
+            try {
+                for (DocumentSnapshot recipe : brewing.getDocuments()) {
+                    try {
+                        checkTemperature(recipe, prefs, editor);
+                        checkPh(recipe, prefs, editor);
+                    } catch (ExecutionException | TimeoutException e) {
+                        // Other brews are still checked; this one catches up next run
+                        Log.e(TAG, "Brew check failed for recipe " + recipe.getId(), e);
+                    }
+                }
+            } finally {
+                // Keeps what was seen and notified before any interruption
+                editor.apply();
+                // This process may not outlive the coalescing window
+                NotificationHelper.flush(getApplicationContext());
+            }
+        } catch (ExecutionException | TimeoutException e) {
+            // The next run catches up from the same point
+            Log.e(TAG, "Brew check failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Result.success();
+    }
+
+    /**
+     * Runs the readings since the last run through an alert engine and pushes
+     * the worst level that raised an alert.
+     */
+    private void checkTemperature(DocumentSnapshot recipe, SharedPreferences prefs,
+                                  SharedPreferences.Editor editor)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        String recipeId = recipe.getId();
+        String sensorId = recipe.getString("sensorId");
+        String seenKey = "temp_seen_" + recipeId;
+        long lastSeen = prefs.getLong(seenKey, System.currentTimeMillis() - FIRST_LOOK_BACK_MS);
+
+        List<DocumentSnapshot> readings = Tasks.await(recipe.getReference().collection(ReadingStore.CHANNEL_TEMPERATURE)
+                        .whereGreaterThan("timestamp", ReadingTimestamps.format(lastSeen))
+                        .orderBy("timestamp", Query.Direction.ASCENDING)
+                        .limit(MAX_READINGS)
+                        .get(),
+                READ_TIMEOUT_SECONDS, TimeUnit.SECONDS).getDocuments();
+        if (readings.isEmpty()) return;
+
+        AlertEngine<TemperatureAlert.Level> engine = AlertEngine.forTemperature();
+        AlertEngine.Transition<TemperatureAlert.Level> worst = null;
+        DocumentSnapshot newest = null;
+        for (DocumentSnapshot reading : readings) {
+            long timestamp = SensorReadings.timestampMillis(reading);
+            Float tempF = LiveReadingsRepository.temperatureF(reading);
+            if (timestamp == ReadingTimestamps.INVALID || tempF == null) continue;
+            lastSeen = Math.max(lastSeen, timestamp);
+            if (!SensorReadings.isFromSensor(reading, sensorId)) continue;
+            newest = reading;
+
+            AlertEngine.Transition<TemperatureAlert.Level> transition = engine.offer(recipeId, tempF, timestamp);
+            if (transition != null && transition.alert && pushes(transition.to)
+                    && (worst == null || transition.to == TemperatureAlert.Level.LETHAL)) {
+                worst = transition;
+            }
+        }
+        editor.putLong(seenKey, lastSeen);
+        // A full page may not reach the newest reading
+        if (newest != null && readings.size() < MAX_READINGS) {
+            putLatest(recipe, ReadingStore.CHANNEL_TEMPERATURE, LiveReadingsRepository.temperatureF(newest),
+                    SensorReadings.timestampMillis(newest), newest.getString("sensor_id"));
+        }
+
+        if (worst == null) return;
+        String notifiedKey = "temp_notified_" + recipeId + "_" + worst.to.name();
+        if (worst.timestampMs - prefs.getLong(notifiedKey, Long.MIN_VALUE / 2) < RENOTIFY_MS) return;
+        editor.putLong(notifiedKey, worst.timestampMs);
+
+        TemperatureAlert.Result r = TemperatureAlert.evaluateF(worst.value);
+        Log.d(TAG, "Temperature alert for " + recipeId + ": " + r.title);
+        NotificationHelper.notifyCritical(getApplicationContext(), recipeId, r.title, r.message, worst.value);
+    }
+
+    /**
+     * Pushes "Ready to Harvest" once per brew when the newest pH reading is in
+     * the recipe's range.
+     */
+    private void checkPh(DocumentSnapshot recipe, SharedPreferences prefs, SharedPreferences.Editor editor)
+            throws ExecutionException, InterruptedException, TimeoutException {
+        String recipeId = recipe.getId();
+        Double minPh = recipe.getDouble("minPh");
+        Double maxPh = recipe.getDouble("maxPh");
+        // Keyed by brew start, so a rebrew can be notified again
+        String harvestKey = "harvest_" + recipeId + "_" + recipe.get("brewingStartDate");
+
+        List<DocumentSnapshot> latest = Tasks.await(recipe.getReference().collection(ReadingStore.CHANNEL_PH)
+                        .orderBy("timestamp", Query.Direction.DESCENDING)
+                        .limit(1)
+                        .get(),
+                READ_TIMEOUT_SECONDS, TimeUnit.SECONDS).getDocuments();
+        if (latest.isEmpty()) return;
+
+        DocumentSnapshot reading = latest.get(0);
+        if (!SensorReadings.isFromSensor(reading, recipe.getString("sensorId"))) return;
+        Double ph = reading.getDouble("ph_value");
+        long timestamp = SensorReadings.timestampMillis(reading);
+        if (ph != null && timestamp != ReadingTimestamps.INVALID) {
+            putLatest(recipe, ReadingStore.CHANNEL_PH, ph.floatValue(), timestamp, reading.getString("sensor_id"));
+        }
+
+        if (minPh == null || maxPh == null || prefs.getBoolean(harvestKey, false)) return;
+        if (ph == null || ph < minPh || ph > maxPh) return;
+        editor.putBoolean(harvestKey, true);
+
+        String message = String.format(Locale.getDefault(),
+                "Your kombucha has reached its harvest range (%.1f-%.1f pH). Time to taste and bottle!",
+                minPh, maxPh);
+        NotificationHelper.notifyReadyToHarvest(getApplicationContext(), recipeId,
+                "Ready to Harvest!", message, ph.floatValue());
+    }
+
+    private static boolean pushes(TemperatureAlert.Level level) {
+        return level == TemperatureAlert.Level.CRITICAL || level == TemperatureAlert.Level.LETHAL;
+    }
+
+    /** Keeps the dashboard's latest-readings document current; see {@link LiveReadingsRepository}. */
+    private static void putLatest(DocumentSnapshot recipe, String channel, float value, long timestampMs,
+                                  String sensorId) {
+        // users/{uid}/Recipes/{recipeId}
+        String userId = recipe.getReference().getParent().getParent().getId();
+        LiveReadingsRepository.putLatest(recipe.getReference().getFirestore(), userId, recipe.getId(),
+                        channel, value, timestampMs, sensorId)
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to update latest " + channel, e));
+    }
+}
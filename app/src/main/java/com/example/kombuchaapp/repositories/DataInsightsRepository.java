@@ -1,12 +1,19 @@
 package com.example.kombuchaapp.repositories;
 
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.example.kombuchaapp.models.DataInsights;
+import com.example.kombuchaapp.models.ReadingRollup;
+import com.example.kombuchaapp.models.ReadingTimestamps;
 import com.example.kombuchaapp.models.Recipe;
-import com.google.firebase.Timestamp;
+import com.example.kombuchaapp.models.RunningStats;
+import com.example.kombuchaapp.models.SensorReadings;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
@@ -23,10 +30,45 @@ public class DataInsightsRepository {
     private static final String TAG = "DataInsightsRepository";
     private FirebaseAuth fAuth;
     private FirebaseFirestore fStore;
+    private final ReadingStore readingStore;
+    private final InsightsCache insightsCache;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Reading catch-up queries in flight at once, and how long each may take
+    private static final int DEFAULT_MAX_CONCURRENT_QUERIES = 6;
+    private static final long DEFAULT_QUERY_TIMEOUT_MS = 15000;
+    private final int maxConcurrentQueries;
+    private final long queryTimeoutMs;
+
+    public DataInsightsRepository(Context context) {
+        this(context, DEFAULT_MAX_CONCURRENT_QUERIES, DEFAULT_QUERY_TIMEOUT_MS);
+    }
 
-    public DataInsightsRepository() {
+    public DataInsightsRepository(Context context, int maxConcurrentQueries, long queryTimeoutMs) {
         fAuth = FirebaseAuth.getInstance();
         fStore = FirebaseFirestore.getInstance();
+        readingStore = ReadingStore.getInstance(context);
+        insightsCache = InsightsCache.getInstance(context);
+        this.maxConcurrentQueries = maxConcurrentQueries;
+        this.queryTimeoutMs = queryTimeoutMs;
+    }
+
+    /**
+     * Insights saved by the last complete {@link #calculateInsights}, or null.
+     * Reads from memory after the first call, so it is cheap on the main thread.
+     */
+    public DataInsights getCachedInsights() {
+        FirebaseUser user = fAuth.getCurrentUser();
+        return user != null ? insightsCache.get(user.getUid()) : null;
+    }
+
+    /**
+     * Whether the cached insights are missing, expired, or cover a recipe that
+     * has changed since, so {@link #calculateInsights} should run.
+     */
+    public boolean isCacheStale() {
+        FirebaseUser user = fAuth.getCurrentUser();
+        return user == null || insightsCache.needsRefresh(user.getUid(), System.currentTimeMillis());
     }
 
     public void calculateInsights(OnInsightsLoadedListener listener) {
@@ -38,6 +80,8 @@ public class DataInsightsRepository {
 
         String userId = user.getUid();
         DataInsights insights = new DataInsights();
+        Map<String, Long> readingVersions = new HashMap<>();
+        long cacheGeneration = insightsCache.generation();
 
         // Load all recipes for the user
         fStore.collection("users")
@@ -46,6 +90,8 @@ public class DataInsightsRepository {
                 .get()
                 .addOnSuccessListener(queryDocumentSnapshots -> {
                     if (queryDocumentSnapshots.isEmpty()) {
+                        insightsCache.put(userId, insights, readingVersions,
+                                cacheGeneration, System.currentTimeMillis());
                         listener.onSuccess(insights);
                         return;
                     }
@@ -117,11 +163,15 @@ public class DataInsightsRepository {
 
                     // Find most successful recipe (most completed)
                     findMostSuccessfulRecipe(userId, insights, recipes, () -> {
-                        // Calculate temperature and pH statistics
-                        calculateTemperatureStats(userId, recipes, insights, () -> {
-                            calculatePhStats(userId, recipes, insights, () -> {
-                                listener.onSuccess(insights);
-                            });
+                        // Temperature and pH statistics come from the per-recipe rollups
+                        calculateReadingStats(userId, recipes, insights, readingVersions, listener, () -> {
+                            // Incomplete insights are shown but not cached
+                            if (!insights.isPartial()) {
+                                insightsCache.put(userId, insights, readingVersions,
+                                        cacheGeneration, System.currentTimeMillis());
+                            }
+                            // Rollups may be brought up to date on the store thread
+                            mainHandler.post(() -> listener.onSuccess(insights));
                         });
                     });
 
@@ -164,188 +214,349 @@ public class DataInsightsRepository {
         onComplete.run();
     }
 
-    private void calculateTemperatureStats(String userId, List<Recipe> recipes,
-                                           DataInsights insights, Runnable onComplete) {
+    private static void putReadingVersions(Map<String, ReadingRollup> rollups, Map<String, Long> out) {
+        for (ReadingRollup rollup : rollups.values()) {
+            out.put(rollup.getRecipeId(), Math.max(rollup.getTempLastMs(), rollup.getPhLastMs()));
+        }
+    }
+
+    private CollectionReference getRollupsCollection(String userId) {
+        return fStore.collection("users").document(userId).collection("reading_rollups");
+    }
+
+    /**
+     * Fills the temperature and pH statistics from the per-recipe rollup documents.
+     * Only rollups that can be behind are brought up to date first: recipes still
+     * brewing, recipes whose status changed since the last update, and recipes
+     * with readings but no rollup yet. Those read only readings newer than the
+     * rollup, so the cost does not grow with the length of a recipe's history.
+     * While they run, the listener gets a partial result from the stored rollups.
+     * {@code readingVersions} receives the newest reading folded in per recipe.
+     */
+    private void calculateReadingStats(String userId, List<Recipe> recipes, DataInsights insights,
+                                       Map<String, Long> readingVersions,
+                                       OnInsightsLoadedListener listener, Runnable onComplete) {
         if (recipes.isEmpty()) {
             onComplete.run();
             return;
         }
 
-        final AtomicInteger pendingReads = new AtomicInteger(recipes.size());
-        final List<Float> allTemperatures = new ArrayList<>();
-        final List<Float> optimalTemperatures = new ArrayList<>();
-        final AtomicInteger alertCount = new AtomicInteger(0);
+        getRollupsCollection(userId)
+                .get()
+                .addOnSuccessListener(rollupSnapshots -> {
+                    Map<String, ReadingRollup> rollups = new HashMap<>();
+                    for (DocumentSnapshot doc : rollupSnapshots.getDocuments()) {
+                        ReadingRollup rollup = doc.toObject(ReadingRollup.class);
+                        // Rollups of an older shape are rebuilt from scratch
+                        if (rollup != null && rollup.getVersion() == ReadingRollup.CURRENT_VERSION) {
+                            rollup.setRecipeId(doc.getId());
+                            rollups.put(doc.getId(), rollup);
+                        }
+                    }
 
-        for (Recipe recipe : recipes) {
-            fStore.collection("users")
-                    .document(userId)
-                    .collection("Recipes")
-                    .document(recipe.getRecipeId())
-                    .collection("temperature_readings")
-                    .orderBy("timestamp", Query.Direction.ASCENDING)
-                    .get()
-                    .addOnSuccessListener(tempSnapshots -> {
-                        for (QueryDocumentSnapshot doc : tempSnapshots) {
-                            Double tempC = doc.getDouble("temperature_c");
-                            if (tempC != null) {
-                                allTemperatures.add(tempC.floatValue());
-
-                                // Check if in optimal range (23.9-26.7°C which is 75-80°F)
-                                if (tempC >= 23.9f && tempC <= 26.7f &&
-                                        "completed".equalsIgnoreCase(recipe.getStatus())) {
-                                    optimalTemperatures.add(tempC.floatValue());
-                                }
-
-                                // Check if critical/lethal (outside 18.3-29.4°C which is 65-85°F)
-                                if (tempC < 18.3f || tempC > 29.4f) {
-                                    alertCount.incrementAndGet();
-                                }
-                            }
+                    List<Recipe> stale = new ArrayList<>();
+                    for (Recipe recipe : recipes) {
+                        if (needsCatchUp(recipe, rollups.get(recipe.getRecipeId()))) {
+                            stale.add(recipe);
                         }
+                    }
 
-                        if (pendingReads.decrementAndGet() == 0) {
-                            // All recipes processed
-                            if (!allTemperatures.isEmpty()) {
-                                float sum = 0;
-                                for (Float temp : allTemperatures) {
-                                    sum += temp;
-                                }
-                                insights.setAvgTemperatureC(sum / allTemperatures.size());
-                            }
+                    if (stale.isEmpty()) {
+                        applyRollups(recipes, rollups, insights);
+                        putReadingVersions(rollups, readingVersions);
+                        onComplete.run();
+                        return;
+                    }
 
-                            if (!optimalTemperatures.isEmpty()) {
-                                float min = Float.MAX_VALUE;
-                                float max = Float.MIN_VALUE;
-                                for (Float temp : optimalTemperatures) {
-                                    min = Math.min(min, temp);
-                                    max = Math.max(max, temp);
-                                }
-                                insights.setOptimalTempRangeMin(min);
-                                insights.setOptimalTempRangeMax(max);
-                            }
+                    // Show what the stored rollups already know while the rest catches up
+                    applyRollups(recipes, rollups, insights);
+                    insights.setPartial(true);
+                    listener.onPartialResult(insights);
+
+                    // Temperature and pH of every stale recipe load side by side,
+                    // with a bounded number of queries in flight
+                    QueryScheduler scheduler = new QueryScheduler(maxConcurrentQueries, queryTimeoutMs,
+                            ms -> Log.w(TAG, "Reading query timed out after " + ms + " ms"));
+                    for (Recipe recipe : stale) {
+                        ReadingRollup rollup = rollups.get(recipe.getRecipeId());
+                        if (rollup == null) {
+                            rollup = new ReadingRollup(recipe.getRecipeId());
+                            rollups.put(recipe.getRecipeId(), rollup);
+                        }
+                        catchUpRollup(userId, recipe, rollup, scheduler);
+                    }
 
-                            insights.setTempAlertsTriggered(alertCount.get());
-                            onComplete.run();
+                    scheduler.whenIdle(() -> ReadingStore.io().execute(() -> {
+                        // Recipes whose queries timed out keep their stored rollup values
+                        applyRollups(recipes, rollups, insights);
+                        insights.setPartial(scheduler.timedOutCount() > 0);
+                        putReadingVersions(rollups, readingVersions);
+                        onComplete.run();
+                    }));
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load reading rollups", e);
+                    insights.setPartial(true);
+                    onComplete.run();
+                });
+    }
+
+    private boolean needsCatchUp(Recipe recipe, ReadingRollup rollup) {
+        // Readings being purged must not be folded back into a rollup
+        if (recipe.isPurging()) {
+            return false;
+        }
+        String status = recipe.getStatus();
+        if (rollup == null) {
+            // Drafts have no readings yet
+            return !"draft".equalsIgnoreCase(status);
+        }
+        return "brewing".equalsIgnoreCase(status) || !status.equalsIgnoreCase(rollup.getStatus());
+    }
+
+    /**
+     * Queues the temperature and pH catch-up of one recipe and saves the rollup
+     * once both have folded their new readings in. A channel that times out
+     * leaves its high-water mark where it was, so the next catch-up retries it.
+     */
+    private void catchUpRollup(String userId, Recipe recipe, ReadingRollup rollup, QueryScheduler scheduler) {
+        String recipeId = recipe.getRecipeId();
+        AtomicInteger pendingChannels = new AtomicInteger(2);
+        Runnable onChannelDone = () -> {
+            if (pendingChannels.decrementAndGet() == 0) {
+                rollup.setStatus(recipe.getStatus());
+                getRollupsCollection(userId).document(recipeId)
+                        .set(rollup)
+                        .addOnFailureListener(e ->
+                                Log.e(TAG, "Failed to save rollup for recipe: " + recipeId, e));
+            }
+        };
+
+        scheduler.submit(call -> readNewReadings(userId, recipeId,
+                ReadingStore.CHANNEL_TEMPERATURE, "temperature_c",
+                rollup.getTempLastMs(), call, rollup::addTemperature, () -> {
+                    onChannelDone.run();
+                    call.run();
+                }));
+        scheduler.submit(call -> readNewReadings(userId, recipeId,
+                ReadingStore.CHANNEL_PH, "ph_value",
+                rollup.getPhLastMs(), call, rollup::addPh, () -> {
+                    onChannelDone.run();
+                    call.run();
+                }));
+    }
+
+    /**
+     * Visits readings of a recipe's channel newer than {@code sinceMs}, oldest first.
+     * Readings already on the device are read from the local {@link ReadingStore};
+     * only newer ones are fetched from Firestore and added to the store. If the
+     * store starts after {@code sinceMs}, e.g. when a chart cached only the recent
+     * readings, the readings before it are fetched from Firestore too. The visitor
+     * and {@code onComplete} run on {@link ReadingStore#io()}. Readings without a
+     * usable timestamp are skipped, since a rollup could not tell if it has seen them.
+     * Once {@code call} has timed out the visitor and {@code onComplete} no longer
+     * run; the call is just finished, so the rollup is not changed after the
+     * insights were built from it.
+     */
+    private void readNewReadings(String userId, String recipeId, String channel, String valueField,
+                                 long sinceMs, QueryScheduler.Call call,
+                                 ReadingStore.ReadingVisitor visitor, Runnable onComplete) {
+        ReadingStore.io().execute(() -> {
+            if (call.isTimedOut()) {
+                call.run();
+                return;
+            }
+            long storeFirst = readingStore.missingBefore(recipeId, channel, sinceMs);
+            if (storeFirst == Long.MIN_VALUE) {
+                readStoredAndNewer(userId, recipeId, channel, valueField, sinceMs, call, visitor, onComplete);
+                return;
+            }
+
+            // Not added to the store, which only grows at its end
+            Query gap = readingsQuery(userId, recipeId, channel, sinceMs)
+                    .whereLessThanOrEqualTo("timestamp", ReadingTimestamps.format(storeFirst));
+            gap.get()
+                    .addOnSuccessListener(ReadingStore.io(), snapshots -> {
+                        if (call.isTimedOut()) {
+                            Log.w(TAG, "Dropping late " + channel + " for recipe: " + recipeId);
+                            call.run();
+                            return;
+                        }
+                        for (QueryDocumentSnapshot doc : snapshots) {
+                            Double value = doc.getDouble(valueField);
+                            long timestampMs = SensorReadings.timestampMillis(doc);
+                            // The timestamp strings only have whole seconds
+                            if (value == null || timestampMs <= sinceMs || timestampMs >= storeFirst) continue;
+                            visitor.onReading(timestampMs, value.floatValue());
                         }
+                        readStoredAndNewer(userId, recipeId, channel, valueField, sinceMs, call, visitor, onComplete);
                     })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Failed to load temperature readings for recipe: " +
-                                recipe.getRecipeId(), e);
-                        if (pendingReads.decrementAndGet() == 0) {
+                    .addOnFailureListener(ReadingStore.io(), e -> {
+                        // Going on would move the rollup past the readings it missed
+                        Log.e(TAG, "Failed to load older " + channel + " for recipe: " + recipeId, e);
+                        if (call.isTimedOut()) {
+                            call.run();
+                        } else {
                             onComplete.run();
                         }
                     });
-        }
+        });
     }
 
-    private void calculatePhStats(String userId, List<Recipe> recipes,
-                                  DataInsights insights, Runnable onComplete) {
-        if (recipes.isEmpty()) {
-            onComplete.run();
-            return;
+    /** The part of {@link #readNewReadings} from the store on, on {@link ReadingStore#io()}. */
+    private void readStoredAndNewer(String userId, String recipeId, String channel, String valueField,
+                                    long sinceMs, QueryScheduler.Call call,
+                                    ReadingStore.ReadingVisitor visitor, Runnable onComplete) {
+        readingStore.scan(recipeId, channel, sinceMs + 1, Long.MAX_VALUE, visitor);
+        long fetchAfter = Math.max(sinceMs, readingStore.lastTimestamp(recipeId, channel));
+
+        readingsQuery(userId, recipeId, channel, fetchAfter).get()
+                .addOnSuccessListener(ReadingStore.io(), snapshots -> {
+                    if (call.isTimedOut()) {
+                        Log.w(TAG, "Dropping late " + channel + " for recipe: " + recipeId);
+                        call.run();
+                        return;
+                    }
+                    for (QueryDocumentSnapshot doc : snapshots) {
+                        Double value = doc.getDouble(valueField);
+                        long timestampMs = SensorReadings.timestampMillis(doc);
+                        if (value == null || timestampMs == ReadingTimestamps.INVALID) continue;
+
+                        readingStore.append(recipeId, channel, timestampMs, value.floatValue());
+                        visitor.onReading(timestampMs, value.floatValue());
+                    }
+                    readingStore.flush(recipeId, channel);
+                    onComplete.run();
+                })
+                .addOnFailureListener(ReadingStore.io(), e -> {
+                    Log.e(TAG, "Failed to load " + channel + " for recipe: " + recipeId, e);
+                    if (call.isTimedOut()) {
+                        call.run();
+                    } else {
+                        onComplete.run();
+                    }
+                });
+    }
+
+    /** Readings of a recipe's channel after {@code afterMs}, oldest first. */
+    private Query readingsQuery(String userId, String recipeId, String channel, long afterMs) {
+        Query query = fStore.collection("users")
+                .document(userId)
+                .collection("Recipes")
+                .document(recipeId)
+                .collection(channel)
+                .orderBy("timestamp", Query.Direction.ASCENDING);
+        if (afterMs > 0) {
+            query = query.whereGreaterThan("timestamp", ReadingTimestamps.format(afterMs));
         }
+        return query;
+    }
 
-        final AtomicInteger pendingReads = new AtomicInteger(recipes.size());
-        final List<Float> harvestPhValues = new ArrayList<>();
-        final List<Float> optimalPhValues = new ArrayList<>();
-        final List<Long> timeToOptimalPh = new ArrayList<>();
+    /**
+     * Combines the per-recipe rollups into the insights.
+     */
+    private void applyRollups(List<Recipe> recipes, Map<String, ReadingRollup> rollups,
+                              DataInsights insights) {
+        RunningStats temperature = ReadingRollup.newTemperatureStats();
+        RunningStats ph = ReadingRollup.newPhStats();
+        RunningStats harvestPh = new RunningStats();
+        RunningStats timeToOptimalPhMs = new RunningStats();
+        int alertCount = 0;
+        int optimalTempCount = 0;
+        float optimalTempMin = 0;
+        float optimalTempMax = 0;
+        int optimalPhCount = 0;
+        float optimalPhMin = 0;
+        float optimalPhMax = 0;
+        List<DataInsights.RecipeBreakdown> breakdowns = new ArrayList<>();
 
         for (Recipe recipe : recipes) {
-            fStore.collection("users")
-                    .document(userId)
-                    .collection("Recipes")
-                    .document(recipe.getRecipeId())
-                    .collection("ph_readings")
-                    .orderBy("timestamp", Query.Direction.ASCENDING)
-                    .get()
-                    .addOnSuccessListener(phSnapshots -> {
-                        Float lastPh = null;
-                        Long firstOptimalTime = null;
-                        Long startTime = recipe.getBrewingStartDate() != null ?
-                                recipe.getBrewingStartDate().toDate().getTime() : null;
-
-                        for (QueryDocumentSnapshot doc : phSnapshots) {
-                            Double phVal = doc.getDouble("ph_value");
-                            if (phVal != null) {
-                                lastPh = phVal.floatValue();
-
-                                // Check if in optimal range (2.5-3.5)
-                                if (phVal >= 2.5f && phVal <= 3.5f) {
-                                    optimalPhValues.add(phVal.floatValue());
-
-                                    // Track time to reach optimal pH
-                                    if (firstOptimalTime == null && startTime != null) {
-                                        String timestamp = doc.getString("timestamp");
-                                        if (timestamp != null) {
-                                            try {
-                                                // Parse timestamp (format: yyyy-MM-dd HH:mm:ss)
-                                                java.text.SimpleDateFormat sdf =
-                                                        new java.text.SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-                                                java.util.Date date = sdf.parse(timestamp);
-                                                if (date != null) {
-                                                    firstOptimalTime = date.getTime();
-                                                }
-                                            } catch (Exception e) {
-                                                Log.e(TAG, "Failed to parse pH timestamp", e);
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
+            ReadingRollup rollup = rollups.get(recipe.getRecipeId());
+            if (rollup == null) continue;
+            boolean completed = "completed".equalsIgnoreCase(recipe.getStatus());
+
+            temperature.merge(rollup.getTemperature());
+            ph.merge(rollup.getPh());
+            alertCount += rollup.getTempAlertCount();
+
+            // Optimal temperatures only count for brews that made it to harvest
+            if (completed && rollup.getOptimalTempCount() > 0) {
+                if (optimalTempCount == 0 || rollup.getOptimalTempMin() < optimalTempMin) {
+                    optimalTempMin = rollup.getOptimalTempMin();
+                }
+                if (optimalTempCount == 0 || rollup.getOptimalTempMax() > optimalTempMax) {
+                    optimalTempMax = rollup.getOptimalTempMax();
+                }
+                optimalTempCount += rollup.getOptimalTempCount();
+            }
 
-                        // Record pH at harvest for completed brews
-                        if ("completed".equalsIgnoreCase(recipe.getStatus()) && lastPh != null) {
-                            harvestPhValues.add(lastPh);
-                        }
+            // Record pH at harvest for completed brews
+            if (completed && !rollup.getPh().isEmpty()) {
+                harvestPh.add(rollup.getLastPh());
+            }
 
-                        // Record time to optimal pH
-                        if (firstOptimalTime != null && startTime != null) {
-                            timeToOptimalPh.add(firstOptimalTime - startTime);
-                        }
+            if (rollup.getOptimalPhCount() > 0) {
+                if (optimalPhCount == 0 || rollup.getOptimalPhMin() < optimalPhMin) {
+                    optimalPhMin = rollup.getOptimalPhMin();
+                }
+                if (optimalPhCount == 0 || rollup.getOptimalPhMax() > optimalPhMax) {
+                    optimalPhMax = rollup.getOptimalPhMax();
+                }
+                optimalPhCount += rollup.getOptimalPhCount();
+            }
 
-                        if (pendingReads.decrementAndGet() == 0) {
-                            // All recipes processed
-                            if (!harvestPhValues.isEmpty()) {
-                                float sum = 0;
-                                for (Float ph : harvestPhValues) {
-                                    sum += ph;
-                                }
-                                insights.setAvgPhAtHarvest(sum / harvestPhValues.size());
-                            }
+            // Record time to optimal pH
+            if (rollup.getFirstOptimalPhMs() > 0 && recipe.getBrewingStartDate() != null) {
+                timeToOptimalPhMs.add(rollup.getFirstOptimalPhMs()
+                        - recipe.getBrewingStartDate().toDate().getTime());
+            }
 
-                            if (!optimalPhValues.isEmpty()) {
-                                float min = Float.MAX_VALUE;
-                                float max = Float.MIN_VALUE;
-                                for (Float ph : optimalPhValues) {
-                                    min = Math.min(min, ph);
-                                    max = Math.max(max, ph);
-                                }
-                                insights.setOptimalPhRangeMin(min);
-                                insights.setOptimalPhRangeMax(max);
-                            }
+            if (!rollup.getTemperature().isEmpty() || !rollup.getPh().isEmpty()) {
+                breakdowns.add(new DataInsights.RecipeBreakdown(recipe.getRecipeId(),
+                        recipe.getRecipeName(), recipe.getStatus(),
+                        rollup.getTemperature(), rollup.getPh(), rollup.getLastPh()));
+            }
+        }
 
-                            if (!timeToOptimalPh.isEmpty()) {
-                                long sum = 0;
-                                for (Long time : timeToOptimalPh) {
-                                    sum += time;
-                                }
-                                float avgMillis = (float) sum / timeToOptimalPh.size();
-                                float avgDays = avgMillis / (1000 * 60 * 60 * 24);
-                                insights.setAvgTimeToOptimalPhDays(avgDays);
-                            }
+        if (!temperature.isEmpty()) {
+            insights.setAvgTemperatureC((float) temperature.getMean());
+            insights.setTempVarianceC((float) temperature.getVariance());
+            insights.setTempStdDevC((float) temperature.getStdDev());
+            insights.setTempHistogram(histogramOf(temperature));
+        }
+        if (optimalTempCount > 0) {
+            insights.setOptimalTempRangeMin(optimalTempMin);
+            insights.setOptimalTempRangeMax(optimalTempMax);
+        }
+        insights.setTempAlertsTriggered(alertCount);
 
-                            onComplete.run();
-                        }
-                    })
-                    .addOnFailureListener(e -> {
-                        Log.e(TAG, "Failed to load pH readings for recipe: " +
-                                recipe.getRecipeId(), e);
-                        if (pendingReads.decrementAndGet() == 0) {
-                            onComplete.run();
-                        }
-                    });
+        if (!ph.isEmpty()) {
+            insights.setPhVariance((float) ph.getVariance());
+            insights.setPhStdDev((float) ph.getStdDev());
+            insights.setPhHistogram(histogramOf(ph));
+        }
+        if (!harvestPh.isEmpty()) {
+            insights.setAvgPhAtHarvest((float) harvestPh.getMean());
+        }
+        if (optimalPhCount > 0) {
+            insights.setOptimalPhRangeMin(optimalPhMin);
+            insights.setOptimalPhRangeMax(optimalPhMax);
+        }
+        if (!timeToOptimalPhMs.isEmpty()) {
+            float avgMillis = (float) timeToOptimalPhMs.getMean();
+            float avgDays = avgMillis / (1000 * 60 * 60 * 24);
+            insights.setAvgTimeToOptimalPhDays(avgDays);
         }
+
+        insights.setRecipeBreakdowns(breakdowns);
+    }
+
+    private static long[] histogramOf(RunningStats stats) {
+        long[] histogram = new long[stats.getBucketCount()];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = stats.getBucket(i);
+        }
+        return histogram;
     }
 
     private String extractTeaType(String teaLeaf) {
@@ -366,6 +577,7 @@ public class DataInsightsRepository {
         recipe.setKombuchaStarter(doc.getString("kombuchaStarter"));
         recipe.setFlavor(doc.getString("flavor"));
         recipe.setStatus(doc.getString("status") != null ? doc.getString("status") : "draft");
+        recipe.setPurging(Boolean.TRUE.equals(doc.getBoolean("purging")));
         recipe.setNotes(doc.getString("notes"));
         recipe.setCreatedDate(doc.getTimestamp("createdDate"));
         recipe.setBrewingStartDate(doc.getTimestamp("brewingStartDate"));
@@ -376,5 +588,12 @@ public class DataInsightsRepository {
     public interface OnInsightsLoadedListener {
         void onSuccess(DataInsights insights);
         void onFailure(String error);
+
+        /**
+         * Called on the main thread with the insights known so far, before
+         * {@link #onSuccess} completes them. The same instance is filled in
+         * afterwards, so read it during this call only.
+         */
+        default void onPartialResult(DataInsights insights) {}
     }
 }
@@ -0,0 +1,118 @@
+package com.example.kombuchaapp.repositories;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps like shards and markers in subcollections of the recipe document.
+ */
+class FirestoreLikeStore implements LikeCounter.Store {
+
+    private static final String TAG = "FirestoreLikeStore";
+
+    private final FirebaseFirestore fStore = FirebaseFirestore.getInstance();
+
+    @Override
+    public void runTransaction(LikeCounter.TransactionBody body, LikeCounter.OnTransactionListener listener) {
+        fStore.runTransaction(transaction -> {
+                    try {
+                        return body.run(new FirestoreTransaction(transaction));
+                    } catch (FirebaseFirestoreException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new FirebaseFirestoreException(String.valueOf(e.getMessage()),
+                                FirebaseFirestoreException.Code.UNKNOWN, e);
+                    }
+                })
+                .addOnSuccessListener(changed -> listener.onSuccess(Boolean.TRUE.equals(changed)))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Like transaction failed", e);
+                    listener.onFailure(e.getMessage());
+                });
+    }
+
+    @Override
+    public void sumShards(String recipePath, LikeCounter.OnCountListener listener) {
+        fStore.collection(recipePath + "/" + LikeCounter.SHARDS)
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    long count = 0;
+                    for (DocumentSnapshot shard : snapshot.getDocuments()) {
+                        Long shardCount = shard.getLong("count");
+                        if (shardCount != null) {
+                            count += shardCount;
+                        }
+                    }
+                    listener.onSuccess(count);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load like shards of " + recipePath, e);
+                    listener.onFailure(e.getMessage());
+                });
+    }
+
+    @Override
+    public void readMarker(String recipePath, String userId, LikeCounter.OnMarkerListener listener) {
+        marker(recipePath, userId)
+                .get()
+                .addOnSuccessListener(doc -> listener.onSuccess(likedOf(doc)))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load like marker of " + recipePath, e);
+                    listener.onFailure(e.getMessage());
+                });
+    }
+
+    private DocumentReference marker(String recipePath, String userId) {
+        return fStore.document(recipePath + "/" + LikeCounter.MARKERS + "/" + userId);
+    }
+
+    private static Boolean likedOf(DocumentSnapshot marker) {
+        return marker.exists() ? Boolean.TRUE.equals(marker.getBoolean("liked")) : null;
+    }
+
+    private class FirestoreTransaction implements LikeCounter.Transaction {
+        private final com.google.firebase.firestore.Transaction transaction;
+
+        FirestoreTransaction(com.google.firebase.firestore.Transaction transaction) {
+            this.transaction = transaction;
+        }
+
+        @Override
+        public Boolean getMarker(String recipePath, String userId) throws FirebaseFirestoreException {
+            return likedOf(transaction.get(marker(recipePath, userId)));
+        }
+
+        @Override
+        public boolean isLegacyLiker(String recipePath, String userId) throws FirebaseFirestoreException {
+            // Nobody writes "likedBy" any more, so this read does not contend with other likers
+            Object likedBy = transaction.get(fStore.document(recipePath)).get("likedBy");
+            return likedBy instanceof List<?> && ((List<?>) likedBy).contains(userId);
+        }
+
+        @Override
+        public void setMarker(String recipePath, String userId, boolean liked) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("liked", liked);
+            data.put("updatedAt", FieldValue.serverTimestamp());
+            transaction.set(marker(recipePath, userId), data);
+        }
+
+        @Override
+        public void incrementShard(String recipePath, int shard, long delta) {
+            DocumentReference shardRef = fStore.document(recipePath + "/" + LikeCounter.SHARDS + "/" + shard);
+            transaction.set(shardRef, Collections.singletonMap("count", FieldValue.increment(delta)),
+                    SetOptions.merge());
+        }
+    }
+}
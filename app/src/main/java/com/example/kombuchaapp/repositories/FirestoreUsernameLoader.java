@@ -0,0 +1,42 @@
+package com.example.kombuchaapp.repositories;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads usernames ("fName") from users/{uid} with one whereIn query per batch.
+ */
+class FirestoreUsernameLoader implements UsernameCache.Loader {
+
+    private static final String TAG = "FirestoreUsernameLoader";
+
+    private final FirebaseFirestore fStore = FirebaseFirestore.getInstance();
+
+    @Override
+    public void load(List<String> userIds, UsernameCache.OnLoadedListener listener) {
+        fStore.collection("users")
+                .whereIn(FieldPath.documentId(), userIds)
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    Map<String, String> usernames = new HashMap<>();
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        String username = doc.getString("fName");
+                        if (username != null) {
+                            usernames.put(doc.getId(), username);
+                        }
+                    }
+                    listener.onSuccess(usernames);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load " + userIds.size() + " usernames", e);
+                    listener.onFailure(e.getMessage());
+                });
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.kombuchaapp.repositories;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Log;
+
+import com.example.kombuchaapp.models.DataInsights;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Last computed {@link DataInsights} of the signed-in user, kept in SharedPreferences
+ * so the insights screen can show them before anything is loaded.
+ *
+ * Alongside the insights it keeps a version vector: the newest reading timestamp
+ * folded into each recipe's statistics. Writes that change a recipe (status
+ * updates, edits, new readings newer than its version) mark that recipe dirty,
+ * and only a dirty or expired cache is recomputed.
+ */
+public class InsightsCache {
+
+    private static final String TAG = "InsightsCache";
+    private static final String PREFS_NAME = "insights_cache";
+
+    /** Insights older than this are recomputed even if nothing marked them dirty. */
+    public static final long MAX_AGE_MS = 15 * 60 * 1000L;
+
+    private static final String KEY_USER = "user_id";
+    private static final String KEY_INSIGHTS = "insights";
+    private static final String KEY_VERSIONS = "versions";
+    private static final String KEY_DIRTY = "dirty";
+    private static final String KEY_SAVED_AT = "saved_at";
+
+    private static InsightsCache instance;
+
+    private final SharedPreferences prefs;
+
+    // In-memory copy of what is stored for userId
+    private String userId;
+    private DataInsights insights;
+    private final Map<String, Long> versions = new HashMap<>();
+    private final Set<String> dirty = new HashSet<>();
+    private long savedAtMs;
+    // Bumped on every invalidation, so a recompute that started earlier does not clear it
+    private long generation;
+
+    private InsightsCache(Context context) {
+        prefs = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static synchronized InsightsCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new InsightsCache(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Cached insights of the user, or null if none are stored.
+     */
+    public synchronized DataInsights get(String userId) {
+        ensureLoaded(userId);
+        return insights;
+    }
+
+    /**
+     * Whether the cached insights have to be recomputed: missing, expired, or
+     * some recipe changed since they were saved.
+     */
+    public synchronized boolean needsRefresh(String userId, long nowMs) {
+        ensureLoaded(userId);
+        return insights == null || !dirty.isEmpty()
+                || nowMs - savedAtMs > MAX_AGE_MS || nowMs < savedAtMs;
+    }
+
+    /**
+     * Marks a point to compare against in {@link #put}; invalidations after it survive the put.
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * Stores freshly computed insights with the reading version of each recipe.
+     * Recipes invalidated since {@code startGeneration} stay dirty.
+     */
+    public synchronized void put(String userId, DataInsights insights, Map<String, Long> versions,
+                                 long startGeneration, long nowMs) {
+        ensureLoaded(userId);
+        this.insights = insights;
+        this.versions.clear();
+        this.versions.putAll(versions);
+        if (generation == startGeneration) {
+            dirty.clear();
+        }
+        savedAtMs = nowMs;
+
+        try {
+            prefs.edit()
+                    .putString(KEY_USER, userId)
+                    .putString(KEY_INSIGHTS, toJson(insights).toString())
+                    .putString(KEY_VERSIONS, new JSONObject(versions).toString())
+                    .putStringSet(KEY_DIRTY, new HashSet<>(dirty))
+                    .putLong(KEY_SAVED_AT, nowMs)
+                    .apply();
+        } catch (JSONException e) {
+            Log.e(TAG, "Failed to save insights", e);
+        }
+    }
+
+    /**
+     * Marks a recipe as changed, e.g. after its status or details were updated.
+     */
+    public synchronized void invalidateRecipe(String userId, String recipeId) {
+        ensureLoaded(userId);
+        generation++;
+        if (dirty.add(recipeId)) {
+            prefs.edit().putStringSet(KEY_DIRTY, new HashSet<>(dirty)).apply();
+        }
+    }
+
+    /**
+     * Marks a recipe as changed if a reading is newer than its cached statistics.
+     * Cheap to call for every reading batch; only the first newer one writes.
+     */
+    public synchronized void onReading(String userId, String recipeId, long timestampMs) {
+        ensureLoaded(userId);
+        if (dirty.contains(recipeId)) return;
+        Long version = versions.get(recipeId);
+        if (version == null || timestampMs > version) {
+            invalidateRecipe(userId, recipeId);
+        }
+    }
+
+    private void ensureLoaded(String userId) {
+        if (userId.equals(this.userId)) return;
+
+        this.userId = userId;
+        insights = null;
+        versions.clear();
+        dirty.clear();
+        savedAtMs = 0;
+
+        // Only one user's insights are kept; another user's are ignored and replaced
+        if (!userId.equals(prefs.getString(KEY_USER, null))) return;
+
+        try {
+            String json = prefs.getString(KEY_INSIGHTS, null);
+            if (json != null) {
+                insights = fromJson(new JSONObject(json));
+            }
+            JSONObject versionsJson = new JSONObject(prefs.getString(KEY_VERSIONS, "{}"));
+            Iterator<String> keys = versionsJson.keys();
+            while (keys.hasNext()) {
+                String recipeId = keys.next();
+                versions.put(recipeId, versionsJson.getLong(recipeId));
+            }
+        } catch (JSONException e) {
+            Log.e(TAG, "Discarding unreadable insights cache", e);
+            insights = null;
+            versions.clear();
+        }
+        dirty.addAll(prefs.getStringSet(KEY_DIRTY, new HashSet<>()));
+        savedAtMs = prefs.getLong(KEY_SAVED_AT, 0);
+    }
+
+    private static JSONObject toJson(DataInsights insights) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("totalRecipes", insights.getTotalRecipes());
+        json.put("completedBrews", insights.getCompletedBrews());
+        json.put("successRate", insights.getSuccessRate());
+        json.put("avgFermentationDays", insights.getAvgFermentationDays());
+
+        json.put("avgTemperatureC", insights.getAvgTemperatureC());
+        json.put("optimalTempRangeMin", insights.getOptimalTempRangeMin());
+        json.put("optimalTempRangeMax", insights.getOptimalTempRangeMax());
+        json.put("tempAlertsTriggered", insights.getTempAlertsTriggered());
+        json.put("tempVarianceC", insights.getTempVarianceC());
+        json.put("tempStdDevC", insights.getTempStdDevC());
+        json.put("tempHistogram", toJson(insights.getTempHistogram()));
+
+        json.put("avgPhAtHarvest", insights.getAvgPhAtHarvest());
+        json.put("optimalPhRangeMin", insights.getOptimalPhRangeMin());
+        json.put("optimalPhRangeMax", insights.getOptimalPhRangeMax());
+        json.put("avgTimeToOptimalPhDays", insights.getAvgTimeToOptimalPhDays());
+        json.put("phVariance", insights.getPhVariance());
+        json.put("phStdDev", insights.getPhStdDev());
+        json.put("phHistogram", toJson(insights.getPhHistogram()));
+
+        json.put("mostUsedTea", insights.getMostUsedTea());
+        json.put("mostSuccessfulRecipe", insights.getMostSuccessfulRecipe());
+        json.put("statusCounts", new JSONObject(insights.getStatusCounts()));
+        json.put("teaTypeCounts", new JSONObject(insights.getTeaTypeCounts()));
+
+        JSONArray breakdowns = new JSONArray();
+        for (DataInsights.RecipeBreakdown breakdown : insights.getRecipeBreakdowns()) {
+            JSONObject item = new JSONObject();
+            item.put("recipeId", breakdown.getRecipeId());
+            item.put("recipeName", breakdown.getRecipeName());
+            item.put("status", breakdown.getStatus());
+            item.put("tempCount", breakdown.getTempCount());
+            item.put("avgTempC", breakdown.getAvgTempC());
+            item.put("tempStdDevC", breakdown.getTempStdDevC());
+            item.put("minTempC", breakdown.getMinTempC());
+            item.put("maxTempC", breakdown.getMaxTempC());
+            item.put("phCount", breakdown.getPhCount());
+            item.put("avgPh", breakdown.getAvgPh());
+            item.put("phStdDev", breakdown.getPhStdDev());
+            item.put("lastPh", breakdown.getLastPh());
+            breakdowns.put(item);
+        }
+        json.put("recipeBreakdowns", breakdowns);
+        return json;
+    }
+
+    private static DataInsights fromJson(JSONObject json) throws JSONException {
+        DataInsights insights = new DataInsights();
+        insights.setTotalRecipes(json.getInt("totalRecipes"));
+        insights.setCompletedBrews(json.getInt("completedBrews"));
+        insights.setSuccessRate((float) json.getDouble("successRate"));
+        insights.setAvgFermentationDays((float) json.getDouble("avgFermentationDays"));
+
+        insights.setAvgTemperatureC((float) json.getDouble("avgTemperatureC"));
+        insights.setOptimalTempRangeMin((float) json.getDouble("optimalTempRangeMin"));
+        insights.setOptimalTempRangeMax((float) json.getDouble("optimalTempRangeMax"));
+        insights.setTempAlertsTriggered(json.getInt("tempAlertsTriggered"));
+        insights.setTempVarianceC((float) json.getDouble("tempVarianceC"));
+        insights.setTempStdDevC((float) json.getDouble("tempStdDevC"));
+        insights.setTempHistogram(longsOf(json.getJSONArray("tempHistogram")));
+
+        insights.setAvgPhAtHarvest((float) json.getDouble("avgPhAtHarvest"));
+        insights.setOptimalPhRangeMin((float) json.getDouble("optimalPhRangeMin"));
+        insights.setOptimalPhRangeMax((float) json.getDouble("optimalPhRangeMax"));
+        insights.setAvgTimeToOptimalPhDays((float) json.getDouble("avgTimeToOptimalPhDays"));
+        insights.setPhVariance((float) json.getDouble("phVariance"));
+        insights.setPhStdDev((float) json.getDouble("phStdDev"));
+        insights.setPhHistogram(longsOf(json.getJSONArray("phHistogram")));
+
+        insights.setMostUsedTea(json.optString("mostUsedTea", null));
+        insights.setMostSuccessfulRecipe(json.optString("mostSuccessfulRecipe", null));
+        insights.setStatusCounts(countsOf(json.getJSONObject("statusCounts")));
+        insights.setTeaTypeCounts(countsOf(json.getJSONObject("teaTypeCounts")));
+
+        JSONArray breakdownsJson = json.getJSONArray("recipeBreakdowns");
+        List<DataInsights.RecipeBreakdown> breakdowns = new ArrayList<>(breakdownsJson.length());
+        for (int i = 0; i < breakdownsJson.length(); i++) {
+            JSONObject item = breakdownsJson.getJSONObject(i);
+            breakdowns.add(new DataInsights.RecipeBreakdown(
+                    item.getString("recipeId"),
+                    item.optString("recipeName", null),
+                    item.optString("status", null),
+                    item.getLong("tempCount"),
+                    (float) item.getDouble("avgTempC"),
+                    (float) item.getDouble("tempStdDevC"),
+                    (float) item.getDouble("minTempC"),
+                    (float) item.getDouble("maxTempC"),
+                    item.getLong("phCount"),
+                    (float) item.getDouble("avgPh"),
+                    (float) item.getDouble("phStdDev"),
+                    (float) item.getDouble("lastPh")));
+        }
+        insights.setRecipeBreakdowns(breakdowns);
+        return insights;
+    }
+
+    private static JSONArray toJson(long[] values) {
+        JSONArray array = new JSONArray();
+        for (long value : values) {
+            array.put(value);
+        }
+        return array;
+    }
+
+    private static long[] longsOf(JSONArray array) throws JSONException {
+        long[] values = new long[array.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.getLong(i);
+        }
+        return values;
+    }
+
+    private static Map<String, Integer> countsOf(JSONObject json) throws JSONException {
+        Map<String, Integer> counts = new HashMap<>();
+        Iterator<String> keys = json.keys();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            counts.put(key, json.getInt(key));
+        }
+        return counts;
+    }
+}
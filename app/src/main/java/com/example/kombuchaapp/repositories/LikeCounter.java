@@ -0,0 +1,289 @@
+package com.example.kombuchaapp.repositories;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Likes of published recipes, kept out of the recipe document so a popular
+ * recipe does not push every like through one contended document.
+ *
+ * Each like or unlike is counted in one of {@link #NUM_SHARDS} shard documents
+ * under {@code users/{owner}/Recipes/{recipeId}/like_shards}, picked at random,
+ * and the total is their sum. Whether a user likes a recipe is kept in a
+ * marker document at {@code .../likes/{userId}}. Setting a like reads only that
+ * user's marker and adds to a shard without reading it, so likers of the same
+ * recipe never conflict with each other.
+ *
+ * Recipes liked before the shards existed keep their "likes" and "likedBy"
+ * fields; those are a base the shards add to, and a marker overrides the
+ * user's entry in "likedBy".
+ *
+ * Shard sums and the current user's markers are cached for {@link #TTL_MS}.
+ * Must be used from the main thread, where Firestore delivers its results.
+ */
+public class LikeCounter {
+
+    public static final int NUM_SHARDS = 10;
+    public static final long TTL_MS = 60 * 1000L;
+    static final int MAX_ENTRIES = 256;
+
+    static final String SHARDS = "like_shards";
+    static final String MARKERS = "likes";
+
+    public interface OnLikeSetListener {
+        void onSuccess();
+        void onFailure(String error);
+    }
+
+    public interface OnLikesLoadedListener {
+        /**
+         * @param shardLikes likes counted in the shards, on top of the recipe's legacy "likes"
+         * @param liked      the user's like state, or null if the user has no marker
+         */
+        void onSuccess(long shardLikes, Boolean liked);
+        void onFailure(String error);
+    }
+
+    interface Store {
+        /**
+         * Runs the body atomically, running it again if a document it read
+         * changed before the writes were committed.
+         */
+        void runTransaction(TransactionBody body, OnTransactionListener listener);
+        void sumShards(String recipePath, OnCountListener listener);
+        void readMarker(String recipePath, String userId, OnMarkerListener listener);
+    }
+
+    interface Transaction {
+        /**
+         * @return the user's like state, or null if the user has no marker
+         */
+        Boolean getMarker(String recipePath, String userId) throws Exception;
+        /** Whether the user is in the recipe's legacy "likedBy" array. */
+        boolean isLegacyLiker(String recipePath, String userId) throws Exception;
+        void setMarker(String recipePath, String userId, boolean liked);
+        /** Adds to a shard without reading it. */
+        void incrementShard(String recipePath, int shard, long delta);
+    }
+
+    interface TransactionBody {
+        /**
+         * @return whether anything was written
+         */
+        boolean run(Transaction transaction) throws Exception;
+    }
+
+    interface OnTransactionListener {
+        void onSuccess(boolean changed);
+        void onFailure(String error);
+    }
+
+    interface OnCountListener {
+        void onSuccess(long count);
+        void onFailure(String error);
+    }
+
+    interface OnMarkerListener {
+        void onSuccess(Boolean liked);
+        void onFailure(String error);
+    }
+
+    interface Clock {
+        long nowMs();
+    }
+
+    private static LikeCounter instance;
+
+    private final Store store;
+    private final Clock clock;
+    private final long ttlMs;
+    private final Random random = new Random();
+
+    // Keyed by recipe path, and by marker path
+    private final Map<String, Entry<Long>> shardSums = newLruMap();
+    private final Map<String, Entry<Boolean>> markers = newLruMap();
+
+    public static LikeCounter getInstance() {
+        if (instance == null) {
+            instance = new LikeCounter(new FirestoreLikeStore(), System::currentTimeMillis, TTL_MS);
+        }
+        return instance;
+    }
+
+    LikeCounter(Store store, Clock clock, long ttlMs) {
+        this.store = store;
+        this.clock = clock;
+        this.ttlMs = ttlMs;
+    }
+
+    public static String recipePath(String ownerUserId, String recipeId) {
+        return "users/" + ownerUserId + "/Recipes/" + recipeId;
+    }
+
+    /**
+     * Paths of the like subcollections of a recipe, for deleting it.
+     */
+    public static List<String> collections(String ownerUserId, String recipeId) {
+        String recipePath = recipePath(ownerUserId, recipeId);
+        return Arrays.asList(recipePath + "/" + SHARDS, recipePath + "/" + MARKERS);
+    }
+
+    /**
+     * Sets whether the user likes the recipe. Setting the state the user is
+     * already in writes nothing, so the count cannot drift on repeated taps
+     * or from a second device.
+     */
+    public void setLiked(String ownerUserId, String recipeId, String userId, boolean liked,
+                         OnLikeSetListener listener) {
+        String recipePath = recipePath(ownerUserId, recipeId);
+        int shard = random.nextInt(NUM_SHARDS);
+
+        // May run more than once, off the main thread; it only touches the transaction
+        store.runTransaction(transaction -> {
+            Boolean marker = transaction.getMarker(recipePath, userId);
+            boolean current = marker != null ? marker : transaction.isLegacyLiker(recipePath, userId);
+            if (current == liked) return false;
+
+            transaction.setMarker(recipePath, userId, liked);
+            transaction.incrementShard(recipePath, shard, liked ? 1 : -1);
+            return true;
+        }, new OnTransactionListener() {
+            @Override
+            public void onSuccess(boolean changed) {
+                Entry<Long> sum = fresh(shardSums, recipePath);
+                if (changed && sum != null) {
+                    shardSums.put(recipePath, new Entry<>(sum.value + (liked ? 1 : -1), sum.expiresAtMs));
+                }
+                markers.put(markerPath(recipePath, userId), new Entry<>(liked, clock.nowMs() + ttlMs));
+                listener.onSuccess();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                listener.onFailure(error);
+            }
+        });
+    }
+
+    /**
+     * Loads the shard total of a recipe and, if {@code userId} is not null,
+     * the user's marker, from the cache where possible.
+     */
+    public void getLikes(String ownerUserId, String recipeId, String userId, OnLikesLoadedListener listener) {
+        String recipePath = recipePath(ownerUserId, recipeId);
+        Result result = new Result(listener, userId != null ? 2 : 1);
+
+        Entry<Long> sum = fresh(shardSums, recipePath);
+        if (sum != null) {
+            result.setCount(sum.value);
+        } else {
+            store.sumShards(recipePath, new OnCountListener() {
+                @Override
+                public void onSuccess(long count) {
+                    shardSums.put(recipePath, new Entry<>(count, clock.nowMs() + ttlMs));
+                    result.setCount(count);
+                }
+
+                @Override
+                public void onFailure(String error) {
+                    result.fail(error);
+                }
+            });
+        }
+
+        if (userId == null) return;
+
+        String markerPath = markerPath(recipePath, userId);
+        Entry<Boolean> marker = fresh(markers, markerPath);
+        if (marker != null) {
+            result.setLiked(marker.value);
+        } else {
+            store.readMarker(recipePath, userId, new OnMarkerListener() {
+                @Override
+                public void onSuccess(Boolean liked) {
+                    markers.put(markerPath, new Entry<>(liked, clock.nowMs() + ttlMs));
+                    result.setLiked(liked);
+                }
+
+                @Override
+                public void onFailure(String error) {
+                    result.fail(error);
+                }
+            });
+        }
+    }
+
+    private static String markerPath(String recipePath, String userId) {
+        return recipePath + "/" + MARKERS + "/" + userId;
+    }
+
+    private <T> Entry<T> fresh(Map<String, Entry<T>> cache, String key) {
+        Entry<T> entry = cache.get(key);
+        if (entry == null) return null;
+        if (clock.nowMs() >= entry.expiresAtMs) {
+            cache.remove(key);
+            return null;
+        }
+        return entry;
+    }
+
+    private static <T> Map<String, Entry<T>> newLruMap() {
+        return new LinkedHashMap<String, Entry<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry<T>> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    }
+
+    private static final class Entry<T> {
+        final T value;
+        final long expiresAtMs;
+
+        Entry(T value, long expiresAtMs) {
+            this.value = value;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+
+    /**
+     * Joins the count and the marker, which may arrive in either order.
+     */
+    private static final class Result {
+        final OnLikesLoadedListener listener;
+        int remaining;
+        long count;
+        Boolean liked;
+        boolean failed;
+
+        Result(OnLikesLoadedListener listener, int parts) {
+            this.listener = listener;
+            this.remaining = parts;
+        }
+
+        void setCount(long count) {
+            this.count = count;
+            partDone();
+        }
+
+        void setLiked(Boolean liked) {
+            this.liked = liked;
+            partDone();
+        }
+
+        void fail(String error) {
+            if (failed) return;
+            failed = true;
+            listener.onFailure(error);
+        }
+
+        private void partDone() {
+            if (--remaining == 0 && !failed) {
+                listener.onSuccess(count, liked);
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.kombuchaapp.repositories;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Write-behind queue for likes. The like button shows the new state at once
+ * and hands it here; the write goes out once the user has stopped tapping
+ * for {@link #WINDOW_MS}, and only if the final state differs from what the
+ * server has. Like, unlike, like becomes one write; like, unlike becomes none.
+ * At most one write per recipe is in flight; taps made meanwhile are written
+ * after it.
+ *
+ * Must be used from the main thread.
+ */
+public class LikeWriteQueue {
+
+    public static final long WINDOW_MS = 750;
+
+    public interface OnLikeSettledListener {
+        /**
+         * Called once no taps or writes are pending for the recipe.
+         *
+         * @param liked the state the server now has
+         */
+        void onSettled(boolean liked);
+
+        /**
+         * @param liked the last state the server confirmed, to show instead
+         */
+        void onFailure(boolean liked, String error);
+    }
+
+    interface Writer {
+        void setLiked(String ownerUserId, String recipeId, String userId, boolean liked,
+                      LikeCounter.OnLikeSetListener listener);
+    }
+
+    interface Scheduler {
+        void schedule(Runnable task, long delayMs);
+        void cancel(Runnable task);
+    }
+
+    private static LikeWriteQueue instance;
+
+    private final Writer writer;
+    private final Scheduler scheduler;
+    private final long windowMs;
+
+    // Keyed by recipe path and user; an entry exists while taps or a write are pending
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    public static LikeWriteQueue getInstance() {
+        if (instance == null) {
+            Handler handler = new Handler(Looper.getMainLooper());
+            instance = new LikeWriteQueue(LikeCounter.getInstance()::setLiked, new Scheduler() {
+                @Override
+                public void schedule(Runnable task, long delayMs) {
+                    handler.postDelayed(task, delayMs);
+                }
+
+                @Override
+                public void cancel(Runnable task) {
+                    handler.removeCallbacks(task);
+                }
+            }, WINDOW_MS);
+        }
+        return instance;
+    }
+
+    LikeWriteQueue(Writer writer, Scheduler scheduler, long windowMs) {
+        this.writer = writer;
+        this.scheduler = scheduler;
+        this.windowMs = windowMs;
+    }
+
+    /**
+     * Records a tap of the like button.
+     *
+     * @param wasLiked the state shown before this tap; taken as the server's
+     *                 state when nothing is pending for the recipe
+     * @param listener replaces the listener of earlier pending taps
+     */
+    public void setLiked(String ownerUserId, String recipeId, String userId, boolean liked, boolean wasLiked,
+                         OnLikeSettledListener listener) {
+        String key = key(ownerUserId, recipeId, userId);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            entry = new Entry(key, ownerUserId, recipeId, userId, wasLiked);
+            entries.put(key, entry);
+        }
+        entry.desired = liked;
+        entry.listener = listener;
+
+        // A write in flight picks up the new state when it returns
+        if (!entry.inFlight) {
+            scheduler.cancel(entry.flush);
+            scheduler.schedule(entry.flush, windowMs);
+        }
+    }
+
+    /**
+     * The state last tapped for a recipe, or null if nothing is pending, so
+     * freshly loaded likes do not undo a tap that has not been written yet.
+     */
+    public Boolean pendingLiked(String ownerUserId, String recipeId, String userId) {
+        Entry entry = entries.get(key(ownerUserId, recipeId, userId));
+        return entry != null ? entry.desired : null;
+    }
+
+    private void flush(Entry entry) {
+        if (entry.desired == entry.confirmed) {
+            // The taps cancelled out
+            settle(entry);
+            return;
+        }
+
+        boolean writing = entry.desired;
+        entry.inFlight = true;
+        writer.setLiked(entry.ownerUserId, entry.recipeId, entry.userId, writing,
+                new LikeCounter.OnLikeSetListener() {
+                    @Override
+                    public void onSuccess() {
+                        entry.inFlight = false;
+                        entry.confirmed = writing;
+                        if (entry.desired != writing) {
+                            // Tapped again while writing
+                            scheduler.schedule(entry.flush, windowMs);
+                        } else {
+                            settle(entry);
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        entry.inFlight = false;
+                        entries.remove(entry.key);
+                        entry.listener.onFailure(entry.confirmed, error);
+                    }
+                });
+    }
+
+    private void settle(Entry entry) {
+        entries.remove(entry.key);
+        entry.listener.onSettled(entry.confirmed);
+    }
+
+    private static String key(String ownerUserId, String recipeId, String userId) {
+        return LikeCounter.recipePath(ownerUserId, recipeId) + "#" + userId;
+    }
+
+    private final class Entry {
+        final String key;
+        final String ownerUserId;
+        final String recipeId;
+        final String userId;
+        final Runnable flush = () -> flush(this);
+        // Last state the server is known to have
+        boolean confirmed;
+        boolean desired;
+        boolean inFlight;
+        OnLikeSettledListener listener;
+
+        Entry(String key, String ownerUserId, String recipeId, String userId, boolean confirmed) {
+            this.key = key;
+            this.ownerUserId = ownerUserId;
+            this.recipeId = recipeId;
+            this.userId = userId;
+            this.confirmed = confirmed;
+            this.desired = confirmed;
+        }
+    }
+}
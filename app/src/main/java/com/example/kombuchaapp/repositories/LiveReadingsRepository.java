@@ -0,0 +1,243 @@
+package com.example.kombuchaapp.repositories;
+
+import android.util.Log;
+
+import com.example.kombuchaapp.models.LiveReading;
+import com.example.kombuchaapp.models.ReadingTimestamps;
+import com.example.kombuchaapp.models.SensorReadings;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Live readings of every brewing recipe of the user, for the brew dashboard.
+ *
+ * Instead of two "latest reading" listeners per recipe, the sensor keeps one
+ * document per user at {@code users/{uid}/live/latest_readings} up to date
+ * when it writes a reading, using dotted field paths so brews never overwrite
+ * each other:
+ * <pre>
+ *   recipes.{recipe_id}.temperature_f   recipes.{recipe_id}.temperature_ms
+ *   recipes.{recipe_id}.ph_value        recipes.{recipe_id}.ph_ms
+ *   recipes.{recipe_id}.sensor_id
+ * </pre>
+ * The dashboard then needs two listeners, that document and the query for
+ * brewing recipes, however many brews are running.
+ *
+ * The sensor firmware does not write the document yet, so the app fills it
+ * in: {@link BrewMonitorWorker} records the newest readings it checks, and
+ * a brewing recipe missing from the document is backfilled once from its own
+ * newest readings when the dashboard starts listening.
+ */
+public class LiveReadingsRepository {
+
+    private static final String TAG = "LiveReadingsRepository";
+
+    public static final String COLLECTION = "live";
+    public static final String DOCUMENT = "latest_readings";
+
+    public interface OnLiveReadingsListener {
+        /**
+         * @param readings one entry per brewing recipe, by name
+         */
+        void onSuccess(List<LiveReading> readings);
+        void onFailure(String error);
+    }
+
+    private final FirebaseFirestore fStore;
+    private final FirebaseAuth fAuth;
+
+    public LiveReadingsRepository() {
+        fStore = FirebaseFirestore.getInstance();
+        fAuth = FirebaseAuth.getInstance();
+    }
+
+    public static DocumentReference latestReadingsDoc(FirebaseFirestore fStore, String userId) {
+        return fStore.collection("users").document(userId)
+                .collection(COLLECTION).document(DOCUMENT);
+    }
+
+    /**
+     * Records a recipe's newest reading of a channel, merging it into the
+     * latest-readings document so other brews and channels are kept.
+     */
+    public static Task<Void> putLatest(FirebaseFirestore fStore, String userId, String recipeId,
+                                       String channel, float value, long timestampMs, String sensorId) {
+        boolean isTemperature = ReadingStore.CHANNEL_TEMPERATURE.equals(channel);
+        Map<String, Object> fields = new HashMap<>();
+        fields.put(isTemperature ? "temperature_f" : "ph_value", value);
+        fields.put(isTemperature ? "temperature_ms" : "ph_ms", timestampMs);
+        if (sensorId != null) {
+            fields.put("sensor_id", sensorId);
+        }
+        return latestReadingsDoc(fStore, userId)
+                .set(Collections.singletonMap("recipes", Collections.singletonMap(recipeId, fields)),
+                        SetOptions.merge());
+    }
+
+    /**
+     * Listens to the brewing recipes and their latest readings. Remove the
+     * returned registration to stop both listeners.
+     */
+    public ListenerRegistration listen(OnLiveReadingsListener listener) {
+        FirebaseUser currentUser = fAuth.getCurrentUser();
+        if (currentUser == null) {
+            listener.onFailure("User not logged in");
+            return () -> { };
+        }
+        String userId = currentUser.getUid();
+
+        Snapshots state = new Snapshots();
+
+        ListenerRegistration recipesListener = fStore.collection("users").document(userId)
+                .collection("Recipes")
+                .whereEqualTo("status", "brewing")
+                .addSnapshotListener((snapshot, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Brewing recipes listener failed", e);
+                        listener.onFailure(e.getMessage());
+                        return;
+                    }
+                    if (snapshot == null) return;
+
+                    List<DocumentSnapshot> docs = new ArrayList<>(snapshot.getDocuments());
+                    Collections.sort(docs, (a, b) -> name(a).compareToIgnoreCase(name(b)));
+                    Map<String, String> names = new LinkedHashMap<>();
+                    for (DocumentSnapshot doc : docs) {
+                        names.put(doc.getId(), name(doc));
+                    }
+                    state.brewing = names;
+                    backfillMissing(userId, state);
+                    deliver(state, listener);
+                });
+
+        ListenerRegistration latestListener = latestReadingsDoc(fStore, userId)
+                .addSnapshotListener((snapshot, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Latest readings listener failed", e);
+                        listener.onFailure(e.getMessage());
+                        return;
+                    }
+                    if (snapshot == null) return;
+
+                    Object recipes = snapshot.get("recipes");
+                    state.latest = recipes instanceof Map ? (Map<?, ?>) recipes : Collections.emptyMap();
+                    backfillMissing(userId, state);
+                    deliver(state, listener);
+                });
+
+        return () -> {
+            recipesListener.remove();
+            latestListener.remove();
+        };
+    }
+
+    /**
+     * Reads the newest readings of brewing recipes the document has no entry
+     * for, once per recipe. The write comes back through the document listener.
+     */
+    private void backfillMissing(String userId, Snapshots state) {
+        if (state.brewing == null || state.latest == null) return;
+
+        for (String recipeId : state.brewing.keySet()) {
+            if (state.latest.containsKey(recipeId) || !state.backfilled.add(recipeId)) continue;
+
+            DocumentReference recipeRef = fStore.collection("users").document(userId)
+                    .collection("Recipes").document(recipeId);
+            backfill(userId, recipeRef, ReadingStore.CHANNEL_TEMPERATURE);
+            backfill(userId, recipeRef, ReadingStore.CHANNEL_PH);
+        }
+    }
+
+    private void backfill(String userId, DocumentReference recipeRef, String channel) {
+        recipeRef.collection(channel)
+                .orderBy("timestamp", Query.Direction.DESCENDING)
+                .limit(1)
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    if (snapshot.isEmpty()) return;
+                    DocumentSnapshot reading = snapshot.getDocuments().get(0);
+                    Float value = ReadingStore.CHANNEL_TEMPERATURE.equals(channel)
+                            ? temperatureF(reading) : floatOrNull(reading.getDouble("ph_value"));
+                    long timestampMs = SensorReadings.timestampMillis(reading);
+                    if (value == null || timestampMs == ReadingTimestamps.INVALID) return;
+
+                    putLatest(fStore, userId, recipeRef.getId(), channel, value, timestampMs,
+                            reading.getString("sensor_id"))
+                            .addOnFailureListener(e -> Log.e(TAG, "Failed to backfill latest " + channel, e));
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to read latest " + channel
+                        + " of " + recipeRef.getId(), e));
+    }
+
+    /** A temperature reading in Fahrenheit, converted from Celsius on readings without it. */
+    public static Float temperatureF(DocumentSnapshot reading) {
+        Double tempF = reading.getDouble("temperature_f");
+        if (tempF != null) return tempF.floatValue();
+        Double tempC = reading.getDouble("temperature_c");
+        return tempC != null ? (float) (tempC * 9 / 5 + 32) : null;
+    }
+
+    private static Float floatOrNull(Double value) {
+        return value != null ? value.floatValue() : null;
+    }
+
+    private static void deliver(Snapshots state, OnLiveReadingsListener listener) {
+        // Wait for both listeners, so brews do not flash up without readings
+        if (state.brewing == null || state.latest == null) return;
+
+        List<LiveReading> readings = new ArrayList<>(state.brewing.size());
+        for (Map.Entry<String, String> recipe : state.brewing.entrySet()) {
+            Object fields = state.latest.get(recipe.getKey());
+            readings.add(parse(recipe.getKey(), recipe.getValue(),
+                    fields instanceof Map ? (Map<?, ?>) fields : Collections.emptyMap()));
+        }
+        listener.onSuccess(readings);
+    }
+
+    private static LiveReading parse(String recipeId, String recipeName, Map<?, ?> fields) {
+        Object sensorId = fields.get("sensor_id");
+        return new LiveReading(recipeId, recipeName,
+                sensorId instanceof String ? (String) sensorId : null,
+                floatValue(fields.get("temperature_f")), longValue(fields.get("temperature_ms")),
+                floatValue(fields.get("ph_value")), longValue(fields.get("ph_ms")));
+    }
+
+    private static String name(DocumentSnapshot doc) {
+        String name = doc.getString("recipeName");
+        return name != null ? name : "";
+    }
+
+    private static float floatValue(Object value) {
+        return value instanceof Number ? ((Number) value).floatValue() : Float.NaN;
+    }
+
+    private static long longValue(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0;
+    }
+
+    /** Latest result of each listener; null until its first snapshot. */
+    private static final class Snapshots {
+        // Recipe id to name, by name
+        Map<String, String> brewing;
+        // Recipe id to its map of latest reading fields
+        Map<?, ?> latest;
+        // Recipes whose missing entry was already backfilled
+        final Set<String> backfilled = new HashSet<>();
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.kombuchaapp.repositories;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs asynchronous queries with at most {@code maxInFlight} outstanding at once.
+ * Each task gets a timeout; a task that has not called back by then is counted
+ * as timed out and no longer holds up {@code onIdle}, but it keeps its slot
+ * until the query really finishes, so the bound on running queries holds.
+ * A task must check {@link Call#isTimedOut()} before using its results, and
+ * drop them once it has timed out. {@code onIdle} runs once every submitted
+ * task has finished or timed out. Plain Java, so it runs in local unit tests;
+ * timeouts are reported to a {@link TimeoutListener}, e.g. to log them.
+ */
+final class QueryScheduler {
+
+    private static final String TAG = "QueryScheduler";
+
+    // Shared timer thread; it only fires timeouts, tasks never run on it
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, TAG);
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    interface TimeoutListener {
+        void onTimeout(long timeoutMs);
+    }
+
+    interface Task {
+        /**
+         * Starts the query and runs {@code call} once it has finished, on any
+         * thread, also after a timeout.
+         */
+        void start(Call call);
+    }
+
+    /**
+     * One started task. Running it marks the query finished and frees its slot.
+     */
+    static final class Call implements Runnable {
+        private final QueryScheduler scheduler;
+        private volatile ScheduledFuture<?> timeout;
+        private boolean finished;
+        private boolean timedOut;
+
+        private Call(QueryScheduler scheduler) {
+            this.scheduler = scheduler;
+        }
+
+        /** True once the task timed out; its results must then be dropped. */
+        synchronized boolean isTimedOut() {
+            return timedOut;
+        }
+
+        @Override
+        public void run() {
+            boolean wasTimedOut;
+            synchronized (this) {
+                if (finished) return;
+                finished = true;
+                wasTimedOut = timedOut;
+            }
+            ScheduledFuture<?> pending = timeout;
+            if (pending != null) pending.cancel(false);
+            scheduler.onFinished(wasTimedOut);
+        }
+
+        private void timeOut() {
+            synchronized (this) {
+                if (finished || timedOut) return;
+                timedOut = true;
+            }
+            // Counted first, so a failing listener cannot keep onIdle from running
+            scheduler.onTimedOut();
+            scheduler.timeoutListener.onTimeout(scheduler.timeoutMs);
+        }
+    }
+
+    private final int maxInFlight;
+    private final long timeoutMs;
+    private final TimeoutListener timeoutListener;
+    private final Queue<Task> queue = new ArrayDeque<>();
+    // Started and not finished, including timed out ones still holding their slot
+    private int inFlight;
+    private int stalled;
+    private int timedOut;
+    private Runnable onIdle;
+
+    QueryScheduler(int maxInFlight, long timeoutMs) {
+        this(maxInFlight, timeoutMs, ms -> { });
+    }
+
+    QueryScheduler(int maxInFlight, long timeoutMs, TimeoutListener timeoutListener) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.maxInFlight = maxInFlight;
+        this.timeoutMs = timeoutMs;
+        this.timeoutListener = timeoutListener;
+    }
+
+    void submit(Task task) {
+        List<Task> ready;
+        synchronized (this) {
+            queue.add(task);
+            ready = takeReady();
+        }
+        start(ready);
+    }
+
+    /**
+     * Runs {@code onIdle} once the scheduler has no queued tasks and no running
+     * tasks that have not timed out, immediately if that is already the case.
+     */
+    void whenIdle(Runnable onIdle) {
+        boolean idle;
+        synchronized (this) {
+            idle = isIdle();
+            if (!idle) {
+                this.onIdle = onIdle;
+            }
+        }
+        if (idle) {
+            onIdle.run();
+        }
+    }
+
+    synchronized int timedOutCount() {
+        return timedOut;
+    }
+
+    private boolean isIdle() {
+        return queue.isEmpty() && inFlight == stalled;
+    }
+
+    /**
+     * Moves as many queued tasks as there are free slots to the caller, which
+     * starts them outside the lock.
+     */
+    private List<Task> takeReady() {
+        List<Task> ready = new ArrayList<>();
+        while (inFlight < maxInFlight && !queue.isEmpty()) {
+            ready.add(queue.poll());
+            inFlight++;
+        }
+        return ready;
+    }
+
+    private void start(List<Task> ready) {
+        for (Task task : ready) {
+            Call call = new Call(this);
+            call.timeout = TIMER.schedule(call::timeOut, timeoutMs, TimeUnit.MILLISECONDS);
+            task.start(call);
+        }
+    }
+
+    private void onTimedOut() {
+        Runnable idleCallback;
+        synchronized (this) {
+            stalled++;
+            timedOut++;
+            idleCallback = takeIdleCallback();
+        }
+        if (idleCallback != null) {
+            idleCallback.run();
+        }
+    }
+
+    private void onFinished(boolean wasTimedOut) {
+        List<Task> ready;
+        Runnable idleCallback;
+        synchronized (this) {
+            inFlight--;
+            if (wasTimedOut) stalled--;
+            ready = takeReady();
+            idleCallback = takeIdleCallback();
+        }
+        start(ready);
+        if (idleCallback != null) {
+            idleCallback.run();
+        }
+    }
+
+    private Runnable takeIdleCallback() {
+        if (!isIdle() || onIdle == null) return null;
+        Runnable idleCallback = onIdle;
+        onIdle = null;
+        return idleCallback;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.kombuchaapp.repositories;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Compresses a block of sensor readings for the local {@link ReadingStore}.
+ * Timestamps are stored as delta-of-deltas and values as deltas of quantized
+ * integers, both zigzag varint encoded. Readings taken at a steady interval
+ * with small changes take about two bytes each.
+ */
+final class ReadingBlockCodec {
+    private ReadingBlockCodec() {}
+
+    static byte[] encode(long[] timestamps, float[] values, int count, float scale) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 3 + 8);
+        writeVarLong(out, count);
+
+        long prevTimestamp = 0;
+        long prevDelta = 0;
+        for (int i = 0; i < count; i++) {
+            long timestamp = timestamps[i];
+            if (i == 0) {
+                writeVarLong(out, zigzag(timestamp));
+            } else {
+                long delta = timestamp - prevTimestamp;
+                writeVarLong(out, zigzag(delta - prevDelta));
+                prevDelta = delta;
+            }
+            prevTimestamp = timestamp;
+        }
+
+        long prevQuantized = 0;
+        for (int i = 0; i < count; i++) {
+            long quantized = Math.round(values[i] * (double) scale);
+            writeVarLong(out, zigzag(quantized - prevQuantized));
+            prevQuantized = quantized;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a block into the given arrays, which must hold at least the
+     * encoded count. Returns the number of readings decoded.
+     */
+    static int decode(byte[] data, float scale, long[] timestampsOut, float[] valuesOut) {
+        Reader in = new Reader(data);
+        int count = (int) in.readVarLong();
+
+        long timestamp = 0;
+        long delta = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0) {
+                timestamp = unzigzag(in.readVarLong());
+            } else {
+                delta += unzigzag(in.readVarLong());
+                timestamp += delta;
+            }
+            timestampsOut[i] = timestamp;
+        }
+
+        long quantized = 0;
+        for (int i = 0; i < count; i++) {
+            quantized += unzigzag(in.readVarLong());
+            valuesOut[i] = (float) (quantized / (double) scale);
+        }
+        return count;
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            int shift = 0;
+            while (true) {
+                byte b = data[pos++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+                shift += 7;
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.example.kombuchaapp.repositories;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Deletes a recipe's readings in the background, so the screen that asked for
+ * it can return at once. The recipe is flagged "purging" before the work is
+ * queued; the worker clears the flag when it is done (back to draft), or
+ * deletes the recipe itself (recipe deletion). Runs when the network is
+ * available and is retried with backoff if a batch fails. When it gives up,
+ * the recipe is marked with "purgeFailed" set to the mode, so the user can
+ * retry it; see {@link RecipeRepository#retryPurge}.
+ */
+public class ReadingPurgeWorker extends Worker {
+
+    private static final String TAG = "ReadingPurgeWorker";
+
+    /** Tag of every purge request, for observing them from the recipe list. */
+    public static final String WORK_TAG = "reading_purge";
+
+    public static final String MODE_DRAFT = "draft";
+    public static final String MODE_DELETE = "delete";
+
+    private static final String KEY_USER_ID = "user_id";
+    private static final String KEY_RECIPE_ID = "recipe_id";
+    private static final String KEY_MODE = "mode";
+
+    // A signed-out or different user will not be able to finish; give up eventually
+    private static final int MAX_ATTEMPTS = 10;
+    private static final long WRITE_TIMEOUT_SECONDS = 60;
+    // Below WorkManager's 10 minute limit, so a stalled delete ends in a retry
+    private static final long DELETE_TIMEOUT_MINUTES = 8;
+
+    public ReadingPurgeWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    /**
+     * Queues the purge of a recipe's readings. A purge already queued for the
+     * recipe runs first, so a delete after a back to draft waits its turn.
+     */
+    public static void enqueue(Context context, String userId, String recipeId, String mode) {
+        Data input = new Data.Builder()
+                .putString(KEY_USER_ID, userId)
+                .putString(KEY_RECIPE_ID, recipeId)
+                .putString(KEY_MODE, mode)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(ReadingPurgeWorker.class)
+                .setInputData(input)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .addTag(WORK_TAG)
+                .build();
+
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork("purge_" + recipeId, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String userId = getInputData().getString(KEY_USER_ID);
+        String recipeId = getInputData().getString(KEY_RECIPE_ID);
+        String mode = getInputData().getString(KEY_MODE);
+        if (userId == null || recipeId == null || mode == null) {
+            Log.e(TAG, "Missing purge input");
+            return Result.failure();
+        }
+
+        FirebaseFirestore db = FirebaseFirestore.getInstance();
+        DocumentReference recipeRef = db.collection("users").document(userId)
+                .collection("Recipes").document(recipeId);
+
+        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
+        if (user == null || !userId.equals(user.getUid())) {
+            Log.w(TAG, "Purge of " + recipeId + " waiting for its user to sign in");
+            return retryOrGiveUp(recipeRef, mode);
+        }
+
+        // The rollup goes after the readings, so insights never count a half-deleted history
+        List<String> documents = new ArrayList<>();
+        documents.add("users/" + userId + "/reading_rollups/" + recipeId);
+        List<String> collections;
+        if (MODE_DELETE.equals(mode)) {
+            // A deleted recipe takes its likes along; a draft keeps them
+            collections = BatchDeleter.recipeCollections(userId, recipeId);
+            documents.add(recipeRef.getPath());
+        } else {
+            collections = BatchDeleter.readingCollections(userId, recipeId);
+        }
+
+        String error = deleteReadings(recipeId, collections, documents);
+        if (error != null) {
+            Log.e(TAG, "Purge of " + recipeId + " failed: " + error);
+            return retryOrGiveUp(recipeRef, mode);
+        }
+
+        if (MODE_DRAFT.equals(mode)) {
+            try {
+                Tasks.await(recipeRef.update("purging", FieldValue.delete(),
+                                "purgeFailed", FieldValue.delete()),
+                        WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                // NOT_FOUND means the recipe was deleted in the meantime; nothing left to flag
+                if (!isNotFound(e.getCause())) {
+                    Log.e(TAG, "Failed to clear purging flag of " + recipeId, e);
+                    return retryOrGiveUp(recipeRef, mode);
+                }
+            } catch (InterruptedException | TimeoutException e) {
+                Log.e(TAG, "Failed to clear purging flag of " + recipeId, e);
+                return retryOrGiveUp(recipeRef, mode);
+            }
+        }
+
+        Log.d(TAG, "Purge of " + recipeId + " (" + mode + ") finished");
+        return Result.success();
+    }
+
+    /**
+     * Runs the batched delete and waits for it, at most {@link #DELETE_TIMEOUT_MINUTES};
+     * BatchDeleter calls back on the main thread while this worker thread blocks.
+     * Returns an error or null.
+     */
+    private String deleteReadings(String recipeId, List<String> collections, List<String> documents) {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> error = new AtomicReference<>();
+
+        // WorkManager keeps the job itself, so BatchDeleter needs no journal here
+        BatchDeleter.DeleteHandle job = new BatchDeleter().delete("purge/" + recipeId, collections, documents,
+                deleted -> Log.d(TAG, "Purged " + deleted + " readings of " + recipeId),
+                new BatchDeleter.OnDeleteListener() {
+                    @Override
+                    public void onSuccess(int deleted) {
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onFailure(String message) {
+                        error.set(message != null ? message : "unknown error");
+                        done.countDown();
+                    }
+                });
+
+        try {
+            if (!done.await(DELETE_TIMEOUT_MINUTES, TimeUnit.MINUTES)) {
+                // E.g. offline: stop it, so the retry does not run a second delete alongside;
+                // the deletes are idempotent, so the retry starts over
+                job.cancel();
+                return "timed out";
+            }
+        } catch (InterruptedException e) {
+            // Stopped by WorkManager; it reschedules the work
+            job.cancel();
+            Thread.currentThread().interrupt();
+            return "interrupted";
+        }
+        return error.get();
+    }
+
+    private static boolean isNotFound(Throwable e) {
+        return e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.NOT_FOUND;
+    }
+
+    /**
+     * Retries with backoff, or after {@link #MAX_ATTEMPTS} marks the recipe as
+     * failed, so it is not left purging with nothing running.
+     */
+    private Result retryOrGiveUp(DocumentReference recipeRef, String mode) {
+        if (getRunAttemptCount() + 1 < MAX_ATTEMPTS) {
+            return Result.retry();
+        }
+
+        Log.e(TAG, "Giving up purge of " + recipeRef.getId());
+        try {
+            Tasks.await(recipeRef.update("purgeFailed", mode), WRITE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            Log.e(TAG, "Failed to mark purge of " + recipeRef.getId() + " as failed", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Result.failure();
+    }
+}
@@ -0,0 +1,416 @@
+package com.example.kombuchaapp.repositories;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * On-device time-series store for sensor readings, keyed by recipe and channel.
+ * Readings are kept in fixed-size blocks compressed with {@link ReadingBlockCodec}
+ * so chart screens and insights can read a brew's history locally and only
+ * fetch newer readings from Firestore.
+ *
+ * Layout: files/readings/{recipeId}/{channel}.blocks holds sealed blocks, each
+ * prefixed by a header with its time range; {channel}.head holds the open block.
+ * Readings are append-only in timestamp order. All methods do disk IO and must
+ * be called off the main thread, normally on {@link #io()}.
+ */
+public class ReadingStore {
+
+    private static final String TAG = "ReadingStore";
+
+    // Channel keys match the Firestore subcollection names
+    public static final String CHANNEL_TEMPERATURE = "temperature_readings";
+    public static final String CHANNEL_PH = "ph_readings";
+
+    static final int BLOCK_SIZE = 256;
+    private static final int HEADER_BYTES = 4 + 8 + 8 + 4; // length, minTs, maxTs, count
+
+    private static ReadingStore instance;
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor();
+
+    private final File root;
+    private final Map<String, Series> openSeries = new HashMap<>();
+
+    // Scratch buffers for decoding sealed blocks during scans
+    private final long[] scanTimestamps = new long[BLOCK_SIZE];
+    private final float[] scanValues = new float[BLOCK_SIZE];
+
+    public interface ReadingVisitor {
+        void onReading(long timestampMs, float value);
+    }
+
+    public static synchronized ReadingStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReadingStore(new File(context.getApplicationContext().getFilesDir(), "readings"));
+        }
+        return instance;
+    }
+
+    /**
+     * Single background thread shared by everything that reads or writes the store.
+     */
+    public static ExecutorService io() {
+        return IO;
+    }
+
+    ReadingStore(File root) {
+        this.root = root;
+    }
+
+    /**
+     * Appends a reading. Readings at or before the last stored timestamp are ignored.
+     * Returns true if the reading was stored.
+     */
+    public synchronized boolean append(String recipeId, String channel, long timestampMs, float value) {
+        Series series = series(recipeId, channel);
+        if (series.count > 0 && timestampMs <= series.lastTimestamp) {
+            return false;
+        }
+        if (series.headCount == BLOCK_SIZE) {
+            // The last seal failed; the head has no room until one succeeds
+            sealHead(series);
+            if (series.headCount == BLOCK_SIZE) {
+                return false;
+            }
+        }
+
+        series.headTimestamps[series.headCount] = timestampMs;
+        series.headValues[series.headCount] = value;
+        series.headCount++;
+        series.headDirty = true;
+        series.lastTimestamp = timestampMs;
+        series.count++;
+
+        if (series.headCount == BLOCK_SIZE) {
+            sealHead(series);
+        }
+        return true;
+    }
+
+    /**
+     * Persists the open block so appended readings survive the app being killed.
+     */
+    public synchronized void flush(String recipeId, String channel) {
+        Series series = series(recipeId, channel);
+        if (series.headDirty) {
+            writeHead(series);
+        }
+    }
+
+    /**
+     * Timestamp of the newest stored reading, or {@link Long#MIN_VALUE} if there is none.
+     */
+    public synchronized long lastTimestamp(String recipeId, String channel) {
+        Series series = series(recipeId, channel);
+        return series.count > 0 ? series.lastTimestamp : Long.MIN_VALUE;
+    }
+
+    /**
+     * Timestamp of the oldest stored reading, or {@link Long#MIN_VALUE} if there is none.
+     */
+    public synchronized long firstTimestamp(String recipeId, String channel) {
+        Series series = series(recipeId, channel);
+        if (!series.blocks.isEmpty()) {
+            return series.blocks.get(0).minTs;
+        }
+        return series.headCount > 0 ? series.headTimestamps[0] : Long.MIN_VALUE;
+    }
+
+    /**
+     * Where the store's coverage of readings after {@code sinceMs} starts, when
+     * older readings may be missing from it, e.g. when only a recent tail was
+     * cached. Readings in (sinceMs, returned timestamp) must then be read from
+     * elsewhere. Returns {@link Long#MIN_VALUE} if nothing is missing, which
+     * includes an empty store, since every reading is newer than it.
+     */
+    public synchronized long missingBefore(String recipeId, String channel, long sinceMs) {
+        long first = firstTimestamp(recipeId, channel);
+        return first != Long.MIN_VALUE && first - 1 > sinceMs ? first : Long.MIN_VALUE;
+    }
+
+    public synchronized int count(String recipeId, String channel) {
+        return series(recipeId, channel).count;
+    }
+
+    /**
+     * Visits readings with fromMs <= timestamp <= toMs in timestamp order.
+     * Only blocks overlapping the range are read and decoded.
+     * Returns the number of readings visited.
+     */
+    public synchronized int scan(String recipeId, String channel, long fromMs, long toMs,
+                                 ReadingVisitor visitor) {
+        Series series = series(recipeId, channel);
+        int visited = 0;
+
+        if (!series.blocks.isEmpty()) {
+            try (RandomAccessFile file = new RandomAccessFile(series.blocksFile, "r")) {
+                for (BlockInfo block : series.blocks) {
+                    if (block.maxTs < fromMs || block.minTs > toMs) continue;
+
+                    byte[] payload = new byte[block.length];
+                    file.seek(block.offset + HEADER_BYTES);
+                    file.readFully(payload);
+                    int n = ReadingBlockCodec.decode(payload, series.scale, scanTimestamps, scanValues);
+                    visited += visitRange(scanTimestamps, scanValues, n, fromMs, toMs, visitor);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to scan " + recipeId + "/" + channel, e);
+            }
+        }
+
+        visited += visitRange(series.headTimestamps, series.headValues, series.headCount,
+                fromMs, toMs, visitor);
+        return visited;
+    }
+
+    /**
+     * Removes all stored readings for a recipe, e.g. when it is deleted or moved back to draft.
+     */
+    public synchronized void deleteRecipe(String recipeId) {
+        openSeries.remove(key(recipeId, CHANNEL_TEMPERATURE));
+        openSeries.remove(key(recipeId, CHANNEL_PH));
+
+        File dir = new File(root, recipeId);
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                if (!f.delete()) {
+                    Log.w(TAG, "Could not delete " + f);
+                }
+            }
+        }
+        if (dir.exists() && !dir.delete()) {
+            Log.w(TAG, "Could not delete " + dir);
+        }
+    }
+
+    private static int visitRange(long[] timestamps, float[] values, int count,
+                                  long fromMs, long toMs, ReadingVisitor visitor) {
+        int visited = 0;
+        for (int i = 0; i < count; i++) {
+            long ts = timestamps[i];
+            if (ts < fromMs) continue;
+            if (ts > toMs) break;
+            visitor.onReading(ts, values[i]);
+            visited++;
+        }
+        return visited;
+    }
+
+    private void sealHead(Series series) {
+        long offset = series.blocks.isEmpty() ? 0 : series.blocks.get(series.blocks.size() - 1).end();
+        try (RandomAccessFile file = new RandomAccessFile(series.blocksFile, "rw")) {
+            file.seek(offset);
+            byte[] payload = ReadingBlockCodec.encode(series.headTimestamps, series.headValues,
+                    series.headCount, series.scale);
+            writeHeader(file, payload.length, series.headTimestamps[0],
+                    series.headTimestamps[series.headCount - 1], series.headCount);
+            file.write(payload);
+            // Anything past the block is left over from an earlier failed write
+            file.setLength(file.getFilePointer());
+
+            series.blocks.add(new BlockInfo(offset, payload.length,
+                    series.headTimestamps[0], series.headTimestamps[series.headCount - 1]));
+        } catch (IOException e) {
+            // Keep the readings in the head block and try again on the next append.
+            // Drop whatever part of the block was written so the next seal starts clean
+            Log.e(TAG, "Failed to seal block", e);
+            truncateBlocks(series, offset);
+            return;
+        }
+
+        // Empty the head file so its readings are not loaded twice
+        series.headCount = 0;
+        writeHead(series);
+    }
+
+    private static void truncateBlocks(Series series, long length) {
+        if (!series.blocksFile.isFile()) return;
+        try (RandomAccessFile file = new RandomAccessFile(series.blocksFile, "rw")) {
+            if (file.length() > length) {
+                file.setLength(length);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to truncate " + series.blocksFile, e);
+        }
+    }
+
+    /**
+     * Rewrites the head file through a temp file so a crash never leaves it half written.
+     */
+    private void writeHead(Series series) {
+        File tmp = new File(series.headFile.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            writeRecord(out, series.headTimestamps, series.headValues, series.headCount, series.scale);
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to write " + series.headFile, e);
+            series.headDirty = true;
+            return;
+        }
+        if (!tmp.renameTo(series.headFile)) {
+            Log.e(TAG, "Failed to replace " + series.headFile);
+            series.headDirty = true;
+            return;
+        }
+        series.headDirty = false;
+    }
+
+    private Series series(String recipeId, String channel) {
+        String key = key(recipeId, channel);
+        Series series = openSeries.get(key);
+        if (series == null) {
+            series = load(recipeId, channel);
+            openSeries.put(key, series);
+        }
+        return series;
+    }
+
+    private static String key(String recipeId, String channel) {
+        return recipeId + "/" + channel;
+    }
+
+    private Series load(String recipeId, String channel) {
+        File dir = new File(root, recipeId);
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.w(TAG, "Could not create " + dir);
+        }
+
+        Series series = new Series(
+                new File(dir, channel + ".blocks"),
+                new File(dir, channel + ".head"),
+                CHANNEL_PH.equals(channel) ? 1000f : 100f);
+
+        // Index sealed blocks by reading headers only; drop a torn trailing record
+        if (series.blocksFile.exists()) {
+            try (RandomAccessFile file = new RandomAccessFile(series.blocksFile, "rw")) {
+                long offset = 0;
+                long fileLength = file.length();
+                while (offset + HEADER_BYTES <= fileLength) {
+                    file.seek(offset);
+                    int length = file.readInt();
+                    long minTs = file.readLong();
+                    long maxTs = file.readLong();
+                    int count = file.readInt();
+                    if (offset + HEADER_BYTES + length > fileLength) break;
+
+                    series.blocks.add(new BlockInfo(offset, length, minTs, maxTs));
+                    series.count += count;
+                    series.lastTimestamp = maxTs;
+                    offset += HEADER_BYTES + length;
+                }
+                if (offset != fileLength) {
+                    Log.w(TAG, "Truncating torn block in " + series.blocksFile);
+                    file.setLength(offset);
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to index " + series.blocksFile, e);
+            }
+        }
+
+        if (series.headFile.exists()) {
+            try (RandomAccessFile file = new RandomAccessFile(series.headFile, "r")) {
+                int length = file.readInt();
+                file.readLong();
+                file.readLong();
+                file.readInt();
+                byte[] payload = new byte[length];
+                file.readFully(payload);
+                int decoded = ReadingBlockCodec.decode(payload, series.scale,
+                        series.headTimestamps, series.headValues);
+
+                // A crash between sealing a block and emptying the head file leaves
+                // readings in both; the sealed copy wins
+                int skip = 0;
+                while (skip < decoded && series.count > 0
+                        && series.headTimestamps[skip] <= series.lastTimestamp) {
+                    skip++;
+                }
+                if (skip > 0) {
+                    System.arraycopy(series.headTimestamps, skip, series.headTimestamps, 0, decoded - skip);
+                    System.arraycopy(series.headValues, skip, series.headValues, 0, decoded - skip);
+                    series.headDirty = true;
+                }
+                series.headCount = decoded - skip;
+                if (series.headCount > 0) {
+                    series.count += series.headCount;
+                    series.lastTimestamp = series.headTimestamps[series.headCount - 1];
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Failed to read " + series.headFile, e);
+                series.headCount = 0;
+            }
+        }
+        return series;
+    }
+
+    private static void writeRecord(FileOutputStream out, long[] timestamps, float[] values,
+                                    int count, float scale) throws IOException {
+        byte[] payload = ReadingBlockCodec.encode(timestamps, values, count, scale);
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(payload.length);
+        data.writeLong(count > 0 ? timestamps[0] : 0);
+        data.writeLong(count > 0 ? timestamps[count - 1] : 0);
+        data.writeInt(count);
+        data.write(payload);
+        data.flush();
+    }
+
+    private static void writeHeader(RandomAccessFile file, int length, long minTs, long maxTs,
+                                    int count) throws IOException {
+        file.writeInt(length);
+        file.writeLong(minTs);
+        file.writeLong(maxTs);
+        file.writeInt(count);
+    }
+
+    private static final class BlockInfo {
+        final long offset;
+        final int length;
+        final long minTs;
+        final long maxTs;
+
+        BlockInfo(long offset, int length, long minTs, long maxTs) {
+            this.offset = offset;
+            this.length = length;
+            this.minTs = minTs;
+            this.maxTs = maxTs;
+        }
+
+        long end() {
+            return offset + HEADER_BYTES + length;
+        }
+    }
+
+    private static final class Series {
+        final File blocksFile;
+        final File headFile;
+        final float scale;
+        final List<BlockInfo> blocks = new ArrayList<>();
+
+        final long[] headTimestamps = new long[BLOCK_SIZE];
+        final float[] headValues = new float[BLOCK_SIZE];
+        int headCount;
+        boolean headDirty;
+
+        int count;
+        long lastTimestamp = Long.MIN_VALUE;
+
+        Series(File blocksFile, File headFile, float scale) {
+            this.blocksFile = blocksFile;
+            this.headFile = headFile;
+            this.scale = scale;
+        }
+    }
+}
@@ -1,18 +1,23 @@
 package com.example.kombuchaapp.repositories;
 
+import android.content.Context;
 import android.util.Log;
 import com.example.kombuchaapp.models.Recipe;
 import com.google.firebase.Timestamp;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -25,10 +30,30 @@ public class RecipeRepository {
     private FirebaseAuth fAuth;
     private FirebaseFirestore fStore;
     private String userID;
+    // Null when constructed without a context; recipe writes then leave cached insights alone
+    private InsightsCache insightsCache;
+    private BatchDeleter batchDeleter;
+    // Set with a context; reading purges then run as background work
+    private Context appContext;
 
     public RecipeRepository() {
         fAuth = FirebaseAuth.getInstance();
         fStore = FirebaseFirestore.getInstance();
+        batchDeleter = new BatchDeleter();
+    }
+
+    public RecipeRepository(Context context) {
+        this();
+        appContext = context.getApplicationContext();
+        insightsCache = InsightsCache.getInstance(context);
+        // Journaled, so a deletion cut short by the app being killed is finished later
+        batchDeleter = new BatchDeleter(context);
+    }
+
+    private void invalidateInsights(String recipeId) {
+        if (insightsCache != null && userID != null) {
+            insightsCache.invalidateRecipe(userID, recipeId);
+        }
     }
 
     private CollectionReference getRecipesCollection() {
@@ -83,6 +108,7 @@ public class RecipeRepository {
                     String recipeId = documentReference.getId();
                     recipe.setRecipeId(recipeId);
                     Log.d(TAG, "Recipe created with ID: " + recipeId);
+                    invalidateInsights(recipeId);
                     listener.onSuccess("Recipe saved successfully", recipeId);
                 })
                 .addOnFailureListener(e -> {
@@ -120,6 +146,65 @@ public class RecipeRepository {
     }
 
 
+    /**
+     * Keeps the current user's recipes, newest first, in sync with Firestore.
+     * The first snapshot delivers the whole list; after that each snapshot
+     * carries only the recipes that were added, changed or removed, which are
+     * applied to the list in place. The listener gets the updated list every
+     * time; recipes that did not change keep the same objects.
+     *
+     * @return the registration to remove when the list is no longer shown, or
+     *         null if no user is logged in
+     */
+    public ListenerRegistration listenToRecipes(OnRecipesLoadedListener listener) {
+        CollectionReference recipesRef = getRecipesCollection();
+
+        if (recipesRef == null) {
+            listener.onFailure("User not logged in");
+            return null;
+        }
+
+        // Ordered like the query, so the indexes of each DocumentChange apply directly
+        List<Recipe> index = new ArrayList<>();
+        boolean[] delivered = {false};
+
+        return recipesRef.orderBy("createdDate", Query.Direction.DESCENDING)
+                .addSnapshotListener((snapshot, e) -> {
+                    if (e != null) {
+                        Log.e(TAG, "Recipe listener failed: " + e.getMessage());
+                        listener.onFailure(e.getMessage());
+                        return;
+                    }
+                    if (snapshot == null) return;
+
+                    List<DocumentChange> changes = snapshot.getDocumentChanges();
+                    if (changes.isEmpty() && delivered[0]) return;
+
+                    applyChanges(index, changes);
+                    delivered[0] = true;
+                    Log.d(TAG, "Applied " + changes.size() + " recipe changes, " + index.size() + " recipes");
+                    listener.onSuccess(new ArrayList<>(index));
+                });
+    }
+
+    private void applyChanges(List<Recipe> index, List<DocumentChange> changes) {
+        for (DocumentChange change : changes) {
+            switch (change.getType()) {
+                case ADDED:
+                    index.add(change.getNewIndex(), parseRecipe(change.getDocument()));
+                    break;
+                case MODIFIED:
+                    // Same index when the change did not affect the order
+                    index.remove(change.getOldIndex());
+                    index.add(change.getNewIndex(), parseRecipe(change.getDocument()));
+                    break;
+                case REMOVED:
+                    index.remove(change.getOldIndex());
+                    break;
+            }
+        }
+    }
+
     public void getRecipeById(String recipeId, OnRecipeLoadedListener listener) {
         CollectionReference recipesRef = getRecipesCollection();
 
@@ -170,6 +255,7 @@ public class RecipeRepository {
                 .update(updates)
                 .addOnSuccessListener(aVoid -> {
                     Log.d(TAG, "Recipe updated: " + recipeId);
+                    invalidateInsights(recipeId);
                     listener.onSuccess("Recipe updated successfully");
                 })
                 .addOnFailureListener(e -> {
@@ -200,6 +286,7 @@ public class RecipeRepository {
                 .update(updates)
                 .addOnSuccessListener(aVoid -> {
                     Log.d(TAG, "Recipe status updated to: " + newStatus);
+                    invalidateInsights(recipeId);
                     listener.onSuccess("Status updated to " + newStatus);
                 })
                 .addOnFailureListener(e -> {
@@ -216,15 +303,35 @@ public class RecipeRepository {
             return;
         }
 
+        if (appContext != null) {
+            // Flag the recipe and let a background worker delete the readings and then the recipe
+            recipesRef.document(recipeId)
+                    .update("purging", true)
+                    .addOnSuccessListener(aVoid -> {
+                        ReadingPurgeWorker.enqueue(appContext, userID, recipeId, ReadingPurgeWorker.MODE_DELETE);
+                        Log.d(TAG, "Recipe queued for deletion: " + recipeId);
+                        invalidateInsights(recipeId);
+                        listener.onSuccess("Recipe deleted successfully");
+                    })
+                    .addOnFailureListener(e -> {
+                        Log.e(TAG, "Failed to delete recipe: " + e.getMessage());
+                        listener.onFailure(e.getMessage());
+                    });
+            return;
+        }
+
         // First, delete all subcollections (temperature_readings and ph_readings)
         deleteRecipeSubcollections(recipeId, new OnUpdateListener() {
             @Override
             public void onSuccess(String message) {
+                deleteReadingRollup(recipeId);
+
                 // After subcollections are deleted, delete the recipe document
                 recipesRef.document(recipeId)
                         .delete()
                         .addOnSuccessListener(aVoid -> {
                             Log.d(TAG, "Recipe deleted: " + recipeId);
+                            invalidateInsights(recipeId);
                             listener.onSuccess("Recipe deleted successfully");
                         })
                         .addOnFailureListener(e -> {
@@ -241,133 +348,115 @@ public class RecipeRepository {
         });
     }
 
-    private void deleteRecipeSubcollections(String recipeId, OnUpdateListener listener) {
-        FirebaseUser user = fAuth.getCurrentUser();
-        if (user == null) {
+    /**
+     * Moves a recipe back to draft right away and deletes its readings in the
+     * background. The recipe is flagged "purging" until they are gone.
+     * Needs the repository to have been created with a context.
+     */
+    public void resetToDraft(String recipeId, OnUpdateListener listener) {
+        CollectionReference recipesRef = getRecipesCollection();
+
+        if (recipesRef == null) {
             listener.onFailure("User not logged in");
             return;
         }
+        if (appContext == null) {
+            listener.onFailure("Background deletion unavailable");
+            return;
+        }
 
-        String userId = user.getUid();
+        // Clear brewing dates and update status to draft
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("status", "draft");
+        updates.put("brewingStartDate", null);
+        updates.put("completionDate", null);
+        updates.put("purging", true);
 
-        // Track completion of both subcollection deletions
-        final boolean[] tempComplete = {false};
-        final boolean[] phComplete = {false};
-        final boolean[] hasError = {false};
-
-        // Delete temperature readings
-        fStore.collection("users")
-                .document(userId)
-                .collection("Recipes")
-                .document(recipeId)
-                .collection("temperature_readings")
-                .get()
-                .addOnSuccessListener(tempSnapshots -> {
-                    if (tempSnapshots.isEmpty()) {
-                        Log.d(TAG, "No temperature readings to delete");
-                        tempComplete[0] = true;
-                        checkSubcollectionDeletionComplete(tempComplete, phComplete, hasError, listener);
-                    } else {
-                        int totalDocs = tempSnapshots.size();
-                        final int[] deletedCount = {0};
-
-                        Log.d(TAG, "Deleting " + totalDocs + " temperature readings");
-
-                        for (DocumentSnapshot doc : tempSnapshots.getDocuments()) {
-                            doc.getReference().delete()
-                                    .addOnSuccessListener(aVoid -> {
-                                        deletedCount[0]++;
-                                        Log.d(TAG, "Deleted temp reading " + deletedCount[0] + "/" + totalDocs);
-
-                                        if (deletedCount[0] == totalDocs) {
-                                            tempComplete[0] = true;
-                                            Log.d(TAG, "All temperature readings deleted");
-                                            checkSubcollectionDeletionComplete(tempComplete, phComplete, hasError, listener);
-                                        }
-                                    })
-                                    .addOnFailureListener(e -> {
-                                        Log.e(TAG, "Failed to delete temp reading", e);
-                                        hasError[0] = true;
-                                        deletedCount[0]++;
-
-                                        if (deletedCount[0] == totalDocs) {
-                                            tempComplete[0] = true;
-                                            checkSubcollectionDeletionComplete(tempComplete, phComplete, hasError, listener);
-                                        }
-                                    });
-                        }
-                    }
+        recipesRef.document(recipeId)
+                .update(updates)
+                .addOnSuccessListener(aVoid -> {
+                    ReadingPurgeWorker.enqueue(appContext, userID, recipeId, ReadingPurgeWorker.MODE_DRAFT);
+                    Log.d(TAG, "Recipe moved back to draft: " + recipeId);
+                    invalidateInsights(recipeId);
+                    listener.onSuccess("Recipe moved back to draft");
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch temperature readings", e);
-                    hasError[0] = true;
-                    tempComplete[0] = true;
-                    checkSubcollectionDeletionComplete(tempComplete, phComplete, hasError, listener);
+                    Log.e(TAG, "Failed to move recipe back to draft: " + e.getMessage());
+                    listener.onFailure(e.getMessage());
                 });
+    }
 
-        // Delete pH readings
-        fStore.collection("users")
-                .document(userId)
-                .collection("Recipes")
-                .document(recipeId)
-                .collection("ph_readings")
-                .get()
-                .addOnSuccessListener(phSnapshots -> {
-                    if (phSnapshots.isEmpty()) {
-                        Log.d(TAG, "No pH readings to delete");
-                        phComplete[0] = true;
-                        checkSubcollectionDeletionComplete(tempComplete, phComplete, hasError, listener);
-                    } else {
-                        int totalDocs = phSnapshots.size();
-                        final int[] deletedCount = {0};
-
-                        Log.d(TAG, "Deleting " + totalDocs + " pH readings");
-
-                        for (DocumentSnapshot doc : phSnapshots.getDocuments()) {
-                            doc.getReference().delete()
-                                    .addOnSuccessListener(aVoid -> {
-                                        deletedCount[0]++;
-                                        Log.d(TAG, "Deleted pH reading " + deletedCount[0] + "/" + totalDocs);
-
-                                        if (deletedCount[0] == totalDocs) {
-                                            phComplete[0] = true;
-                                            Log.d(TAG, "All pH readings deleted");
-                                            checkSubcollectionDeletionComplete(tempComplete, phComplete, hasError, listener);
-                                        }
-                                    })
-                                    .addOnFailureListener(e -> {
-                                        Log.e(TAG, "Failed to delete pH reading", e);
-                                        hasError[0] = true;
-                                        deletedCount[0]++;
-
-                                        if (deletedCount[0] == totalDocs) {
-                                            phComplete[0] = true;
-                                            checkSubcollectionDeletionComplete(tempComplete, phComplete, hasError, listener);
-                                        }
-                                    });
-                        }
-                    }
+    /**
+     * Queues again a reading purge the background worker gave up on.
+     * Needs the repository to have been created with a context.
+     */
+    public void retryPurge(String recipeId, String mode, OnUpdateListener listener) {
+        CollectionReference recipesRef = getRecipesCollection();
+
+        if (recipesRef == null) {
+            listener.onFailure("User not logged in");
+            return;
+        }
+        if (appContext == null) {
+            listener.onFailure("Background deletion unavailable");
+            return;
+        }
+
+        recipesRef.document(recipeId)
+                .update("purgeFailed", FieldValue.delete())
+                .addOnSuccessListener(aVoid -> {
+                    ReadingPurgeWorker.enqueue(appContext, userID, recipeId, mode);
+                    Log.d(TAG, "Purge of recipe queued again: " + recipeId);
+                    listener.onSuccess("Deleting sensor data again");
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to fetch pH readings", e);
-                    hasError[0] = true;
-                    phComplete[0] = true;
-                    checkSubcollectionDeletionComplete(tempComplete, phComplete, hasError, listener);
+                    Log.e(TAG, "Failed to retry purge: " + e.getMessage());
+                    listener.onFailure(e.getMessage());
                 });
     }
 
-    private void checkSubcollectionDeletionComplete(boolean[] tempComplete, boolean[] phComplete,
-                                                    boolean[] hasError, OnUpdateListener listener) {
-        // Only proceed when BOTH subcollections are completely deleted
-        if (tempComplete[0] && phComplete[0]) {
-            if (hasError[0]) {
-                Log.w(TAG, "Subcollections deleted with some errors");
-                listener.onFailure("Some sensor data could not be deleted");
-            } else {
-                Log.d(TAG, "All subcollections deleted successfully");
-                listener.onSuccess("Subcollections deleted");
-            }
+    /**
+     * Removes the reading rollup insights keep for a recipe, once its readings are gone.
+     */
+    public void deleteReadingRollup(String recipeId) {
+        FirebaseUser user = fAuth.getCurrentUser();
+        if (user == null) {
+            return;
+        }
+
+        fStore.collection("users").document(user.getUid())
+                .collection("reading_rollups").document(recipeId)
+                .delete()
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to delete reading rollup: " + e.getMessage()));
+    }
+
+    private void deleteRecipeSubcollections(String recipeId, OnUpdateListener listener) {
+        FirebaseUser user = fAuth.getCurrentUser();
+        if (user == null) {
+            listener.onFailure("User not logged in");
+            return;
         }
+
+        String userId = user.getUid();
+
+        // Temperature and pH readings, and likes, go in batches of 450 deletes
+        batchDeleter.delete("recipe/" + recipeId,
+                BatchDeleter.recipeCollections(userId, recipeId),
+                Collections.emptyList(),
+                deleted -> Log.d(TAG, "Deleted " + deleted + " readings"),
+                new BatchDeleter.OnDeleteListener() {
+                    @Override
+                    public void onSuccess(int deleted) {
+                        Log.d(TAG, "All subcollections deleted successfully");
+                        listener.onSuccess("Subcollections deleted");
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        Log.w(TAG, "Subcollections deleted with some errors");
+                        listener.onFailure("Some sensor data could not be deleted");
+                    }
+                });
     }
 
     public void updateRecipePublished(String recipeId, boolean published, OnUpdateListener listener) {
@@ -378,93 +467,117 @@ public class RecipeRepository {
             return;
         }
 
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("published", published);
+        DocumentReference recipeRef = recipesRef.document(recipeId);
+        if (!published) {
+            Map<String, Object> updates = new HashMap<>();
+            updates.put("published", false);
+            recipeRef.update(updates)
+                    .addOnSuccessListener(aVoid -> listener.onSuccess("Recipe unpublished"))
+                    .addOnFailureListener(e -> listener.onFailure(e.getMessage()));
+            return;
+        }
 
-        recipesRef.document(recipeId)
-                .update(updates)
-                .addOnSuccessListener(aVoid -> {
-                    listener.onSuccess(published ? "Recipe published" : "Recipe unpublished");
+        // The Discover feed is ordered by createdDate, which leaves out recipes
+        // without one; give such older recipes one when they are published
+        fStore.runTransaction(transaction -> {
+                    DocumentSnapshot doc = transaction.get(recipeRef);
+                    Map<String, Object> updates = new HashMap<>();
+                    updates.put("published", true);
+                    if (!doc.contains("createdDate")) {
+                        updates.put("createdDate", FieldValue.serverTimestamp());
+                    }
+                    transaction.update(recipeRef, updates);
+                    return null;
                 })
+                .addOnSuccessListener(aVoid -> listener.onSuccess("Recipe published"))
                 .addOnFailureListener(e -> listener.onFailure(e.getMessage()));
     }
 
-    public void getAllPublishedRecipes(OnRecipesLoadedListener listener) {
+    /**
+     * Loads one page of published recipes, newest first. Needs the composite
+     * collection-group index in firestore.indexes.json; recipes without a
+     * createdDate are not returned.
+     *
+     * @param after    last document of the previous page, or null for the first page
+     * @param pageSize number of recipes to load
+     */
+    public void getPublishedRecipesPage(DocumentSnapshot after, int pageSize, OnRecipePageLoadedListener listener) {
         FirebaseFirestore fStore = FirebaseFirestore.getInstance();
 
-        fStore.collectionGroup("Recipes")
+        Query query = fStore.collectionGroup("Recipes")
                 .whereEqualTo("published", true)
-                .orderBy("createdDate", com.google.firebase.firestore.Query.Direction.DESCENDING)
-                .limit(100) // Limit to prevent quota issues and improve performance
-                .get()
+                .orderBy("createdDate", Query.Direction.DESCENDING)
+                .limit(pageSize);
+        if (after != null) {
+            query = query.startAfter(after);
+        }
+
+        query.get()
                 .addOnSuccessListener(querySnapshot -> {
+                    List<DocumentSnapshot> docs = querySnapshot.getDocuments();
                     List<Recipe> recipes = new ArrayList<>();
-                    for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
+                    List<String> publisherIds = new ArrayList<>();
+                    for (DocumentSnapshot doc : docs) {
                         Recipe recipe = parseRecipe(doc);
                         if (recipe != null) {
                             recipes.add(recipe);
+                            publisherIds.add(recipe.getUserId());
                         }
                     }
-                    listener.onSuccess(recipes);
+                    // Resolve every publisher in a few batched reads before the rows bind
+                    UsernameCache.getInstance().prefetch(publisherIds);
+
+                    // The page shows at once with the likes stored on the recipes;
+                    // the sharded counts follow per recipe
+                    DocumentSnapshot last = docs.isEmpty() ? after : docs.get(docs.size() - 1);
+                    listener.onSuccess(recipes, last, docs.size() == pageSize);
+                    loadLikes(recipes, listener);
                 })
-                .addOnFailureListener(e -> listener.onFailure(e.getMessage()));
-    }
-
-    public void incrementLikes(String recipeId, String ownerUserId, OnUpdateListener listener) {
-
-        FirebaseFirestore.getInstance()
-                .collection("users")
-                .document(ownerUserId)
-                .collection("Recipes")
-                .document(recipeId)
-                .update("likes", FieldValue.increment(1))
-                .addOnSuccessListener(aVoid -> listener.onSuccess("Liked!"))
-                .addOnFailureListener(e -> listener.onFailure(e.getMessage()));
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load published recipes: " + e.getMessage());
+                    listener.onFailure(e.getMessage());
+                });
     }
 
-    public void toggleLike(String recipeId, String ownerUserId, String currentUserId, OnUpdateListener listener) {
-        DocumentReference ref = FirebaseFirestore.getInstance()
-                .collection("users")
-                .document(ownerUserId)
-                .collection("Recipes")
-                .document(recipeId);
-
-        FirebaseFirestore.getInstance().runTransaction(transaction -> {
-            DocumentSnapshot snapshot = transaction.get(ref);
-
-            // Safe type casting for likedBy list
-            List<String> likedBy = new ArrayList<>();
-            Object likedByObj = snapshot.get("likedBy");
-            if (likedByObj instanceof List<?>) {
-                for (Object item : (List<?>) likedByObj) {
-                    if (item instanceof String) {
-                        likedBy.add((String) item);
-                    }
-                }
-            }
-
-            Long likes = snapshot.getLong("likes");
-            if (likes == null) likes = 0L;
-
-            if (likedBy.contains(currentUserId)) {
-                // Unlike
-                likedBy.remove(currentUserId);
-                likes -= 1;
-            } else {
-                // Like
-                likedBy.add(currentUserId);
-                likes += 1;
-            }
-
-            transaction.update(ref, "likedBy", likedBy);
-            transaction.update(ref, "likes", likes);
+    /**
+     * Reports each recipe's stored "likes" plus its sharded like count, and
+     * whether the current user likes it, through
+     * {@link OnRecipePageLoadedListener#onLikesLoaded}. The recipes themselves
+     * are not changed, since they are already shown.
+     */
+    private void loadLikes(List<Recipe> recipes, OnRecipePageLoadedListener listener) {
+        String currentUserId = fAuth.getUid();
+        for (Recipe recipe : recipes) {
+            // Likes from before the shards, stored on the recipe itself
+            long legacyLikes = recipe.getLikes();
+            boolean legacyLiked = currentUserId != null && recipe.getLikedBy() != null
+                    && recipe.getLikedBy().contains(currentUserId);
+
+            LikeCounter.getInstance().getLikes(recipe.getUserId(), recipe.getRecipeId(), currentUserId,
+                    new LikeCounter.OnLikesLoadedListener() {
+                        @Override
+                        public void onSuccess(long shardLikes, Boolean liked) {
+                            boolean serverLiked = liked != null ? liked : legacyLiked;
+                            long likes = legacyLikes + shardLikes;
+
+                            // A tap not yet written wins over what was just loaded
+                            Boolean pending = currentUserId != null ? LikeWriteQueue.getInstance()
+                                    .pendingLiked(recipe.getUserId(), recipe.getRecipeId(), currentUserId) : null;
+                            boolean isLiked = pending != null ? pending : serverLiked;
+                            if (isLiked != serverLiked) {
+                                likes += isLiked ? 1 : -1;
+                            }
+
+                            listener.onLikesLoaded(recipe.getRecipeId(), (int) likes, isLiked);
+                        }
 
-            return null;
-        }).addOnSuccessListener(aVoid -> {
-            listener.onSuccess("Updated");
-        }).addOnFailureListener(e -> {
-            listener.onFailure(e.getMessage());
-        });
+                        @Override
+                        public void onFailure(String error) {
+                            // Stays shown with the likes stored on the recipe
+                            Log.e(TAG, "Failed to load likes of " + recipe.getRecipeId() + ": " + error);
+                        }
+                    });
+        }
     }
 
     // Parse Firestore document into Recipe object
@@ -534,6 +647,9 @@ public class RecipeRepository {
             recipe.setMaxPh(0.0);
         }
         recipe.setPublished(doc.getBoolean("published"));
+        recipe.setPurging(Boolean.TRUE.equals(doc.getBoolean("purging")));
+        recipe.setPurgeFailed(doc.getString("purgeFailed"));
+        recipe.setSensorId(doc.getString("sensorId"));
         Long likesValue = doc.getLong("likes");
         recipe.setLikes(likesValue != null ? likesValue.intValue() : 0);
         // Safe type casting for likedBy list
@@ -572,6 +688,20 @@ public class RecipeRepository {
         void onFailure(String error);
     }
 
+    public interface OnRecipePageLoadedListener {
+        /**
+         * @param lastDocument cursor to pass as {@code after} for the next page
+         * @param hasMore      whether the page was full, so another may follow
+         */
+        void onSuccess(List<Recipe> recipes, DocumentSnapshot lastDocument, boolean hasMore);
+        /**
+         * Like count and the current user's like of a recipe of a delivered page,
+         * once its sharded count has loaded.
+         */
+        void onLikesLoaded(String recipeId, int likes, boolean liked);
+        void onFailure(String error);
+    }
+
     public interface OnUpdateListener {
         void onSuccess(String message);
         void onFailure(String error);
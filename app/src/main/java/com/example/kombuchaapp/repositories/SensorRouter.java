@@ -0,0 +1,215 @@
+package com.example.kombuchaapp.repositories;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.SetOptions;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes sensors to brewing recipes, so every fermenter on the rack can
+ * monitor its own brew. Each sensor has a document at
+ * {@code sensor_routes/{sensor_id}} naming the recipe and user it currently
+ * writes for; "recipe_id" is null while the sensor is free. A sensor reads
+ * its own route and writes its readings, tagged with its sensor_id, to that
+ * recipe.
+ *
+ * Claiming and releasing run in transactions, so two brews can never hold
+ * the same sensor and a late release cannot free a sensor another brew has
+ * since claimed. The recipe remembers its last sensor in "sensorId".
+ *
+ * Until the firmware reads its route, a claim is also mirrored into the old
+ * {@code sensor_control/active_config} document while no other brew holds it,
+ * which keeps a single-sensor rack working.
+ */
+public class SensorRouter {
+
+    private static final String TAG = "SensorRouter";
+
+    public static final String COLLECTION = "sensor_routes";
+
+    public interface OnSensorsLoadedListener {
+        /**
+         * @param sensorIds sensors that are free or already routed to the recipe
+         */
+        void onSuccess(List<String> sensorIds);
+        void onFailure(String error);
+    }
+
+    private final FirebaseFirestore fStore;
+
+    public SensorRouter() {
+        fStore = FirebaseFirestore.getInstance();
+    }
+
+    /**
+     * Lists the sensors a recipe can claim. The rack is small, so every route
+     * is read and filtered here.
+     */
+    public void getAvailableSensors(String recipeId, OnSensorsLoadedListener listener) {
+        fStore.collection(COLLECTION)
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    List<String> sensorIds = new ArrayList<>();
+                    for (DocumentSnapshot route : snapshot.getDocuments()) {
+                        String routedRecipe = route.getString("recipe_id");
+                        if (routedRecipe == null || routedRecipe.equals(recipeId)) {
+                            sensorIds.add(route.getId());
+                        }
+                    }
+                    listener.onSuccess(sensorIds);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to load sensor routes", e);
+                    listener.onFailure(e.getMessage());
+                });
+    }
+
+    /**
+     * Routes a sensor to a recipe, unless another recipe holds it. A sensor
+     * the recipe held before is released in the same transaction.
+     */
+    public void claim(String sensorId, String userId, String recipeId, RecipeRepository.OnUpdateListener listener) {
+        DocumentReference routeRef = fStore.collection(COLLECTION).document(sensorId);
+        DocumentReference recipeRef = fStore.collection("users").document(userId)
+                .collection("Recipes").document(recipeId);
+
+        fStore.runTransaction(transaction -> {
+                    // Every read comes before the first write
+                    DocumentSnapshot route = transaction.get(routeRef);
+                    String holder = route.getString("recipe_id");
+                    if (holder != null && !holder.equals(recipeId)) {
+                        // Not thrown: Firestore retries an aborted transaction
+                        return "Sensor " + sensorId + " is in use by another brew";
+                    }
+
+                    String previousSensor = transaction.get(recipeRef).getString("sensorId");
+                    DocumentReference previousRef = null;
+                    if (previousSensor != null && !previousSensor.equals(sensorId)) {
+                        DocumentReference ref = fStore.collection(COLLECTION).document(previousSensor);
+                        if (recipeId.equals(transaction.get(ref).getString("recipe_id"))) {
+                            previousRef = ref;
+                        }
+                    }
+                    String activeRecipe = transaction.get(activeConfigRef()).getString("active_recipe_id");
+
+                    Map<String, Object> claim = new HashMap<>();
+                    claim.put("recipe_id", recipeId);
+                    claim.put("user_id", userId);
+                    claim.put("claimed_at", FieldValue.serverTimestamp());
+                    transaction.set(routeRef, claim, SetOptions.merge());
+                    transaction.update(recipeRef, "sensorId", sensorId);
+                    if (previousRef != null) {
+                        transaction.set(previousRef, freeRoute(), SetOptions.merge());
+                    }
+                    if (activeRecipe == null || activeRecipe.equals(recipeId)) {
+                        Map<String, Object> activeConfig = new HashMap<>();
+                        activeConfig.put("active_recipe_id", recipeId);
+                        activeConfig.put("active_user_id", userId);
+                        transaction.set(activeConfigRef(), activeConfig);
+                    }
+                    return null;
+                })
+                .addOnSuccessListener(error -> {
+                    if (error != null) {
+                        Log.w(TAG, error);
+                        listener.onFailure(error);
+                        return;
+                    }
+                    Log.d(TAG, "Sensor " + sensorId + " routed to recipe " + recipeId);
+                    listener.onSuccess("Brewing on sensor " + sensorId);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to claim sensor " + sensorId, e);
+                    listener.onFailure(e.getMessage());
+                });
+    }
+
+    /**
+     * Frees every sensor routed to a recipe. {@code onComplete} runs either
+     * way; a route that could not be freed is logged.
+     */
+    public void release(String recipeId, Runnable onComplete) {
+        fStore.collection(COLLECTION)
+                .whereEqualTo("recipe_id", recipeId)
+                .get()
+                .addOnSuccessListener(snapshot -> releaseRoutes(snapshot.getDocuments(), "recipe_id", recipeId, onComplete))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to find sensors of recipe " + recipeId, e);
+                    releaseRoutes(new ArrayList<>(), "recipe_id", recipeId, onComplete);
+                });
+    }
+
+    /**
+     * Frees every sensor routed to any recipe of a user, e.g. when the
+     * account is deleted.
+     */
+    public void releaseUser(String userId, Runnable onComplete) {
+        fStore.collection(COLLECTION)
+                .whereEqualTo("user_id", userId)
+                .get()
+                .addOnSuccessListener(snapshot -> releaseRoutes(snapshot.getDocuments(), "user_id", userId, onComplete))
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "Failed to find sensors of user " + userId, e);
+                    releaseRoutes(new ArrayList<>(), "user_id", userId, onComplete);
+                });
+    }
+
+    private void releaseRoutes(List<DocumentSnapshot> routes, String field, String holder, Runnable onComplete) {
+        // One more for active_config
+        int[] remaining = {routes.size() + 1};
+        Runnable countDown = () -> {
+            if (--remaining[0] == 0) onComplete.run();
+        };
+
+        for (DocumentSnapshot route : routes) {
+            DocumentReference routeRef = route.getReference();
+            fStore.runTransaction(transaction -> {
+                        // Claimed by another brew since the query; leave it alone
+                        if (holder.equals(transaction.get(routeRef).getString(field))) {
+                            transaction.set(routeRef, freeRoute(), SetOptions.merge());
+                        }
+                        return null;
+                    })
+                    .addOnSuccessListener(aVoid -> Log.d(TAG, "Sensor " + routeRef.getId() + " released"))
+                    .addOnFailureListener(e -> Log.e(TAG, "Failed to release sensor " + routeRef.getId(), e))
+                    .addOnCompleteListener(task -> countDown.run());
+        }
+
+        String activeField = "recipe_id".equals(field) ? "active_recipe_id" : "active_user_id";
+        fStore.runTransaction(transaction -> {
+                    if (holder.equals(transaction.get(activeConfigRef()).getString(activeField))) {
+                        Map<String, Object> activeConfig = new HashMap<>();
+                        activeConfig.put("active_recipe_id", null);
+                        activeConfig.put("active_user_id", null);
+                        transaction.set(activeConfigRef(), activeConfig);
+                    }
+                    return null;
+                })
+                .addOnFailureListener(e -> Log.e(TAG, "Failed to clear active_config", e))
+                .addOnCompleteListener(task -> countDown.run());
+    }
+
+    /**
+     * The single-sensor document the current firmware still reads. It names
+     * the first brew to claim a sensor until that brew releases it.
+     */
+    private DocumentReference activeConfigRef() {
+        return fStore.collection("sensor_control").document("active_config");
+    }
+
+    private static Map<String, Object> freeRoute() {
+        Map<String, Object> route = new HashMap<>();
+        route.put("recipe_id", null);
+        route.put("user_id", null);
+        route.put("released_at", FieldValue.serverTimestamp());
+        return route;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.kombuchaapp.repositories;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Usernames of recipe publishers, shared by every list that shows them.
+ * Entries are kept in LRU order up to {@link #MAX_ENTRIES} and expire after
+ * {@link #TTL_MS}. Concurrent lookups of the same user share one request, and
+ * {@link #prefetch} resolves many users with a few batched queries.
+ *
+ * Must be used from the main thread, where Firestore delivers its results.
+ */
+public class UsernameCache {
+
+    public static final int MAX_ENTRIES = 256;
+    public static final long TTL_MS = 10 * 60 * 1000L;
+
+    // Firestore allows at most 30 values in a whereIn filter
+    static final int BATCH_LIMIT = 30;
+
+    public interface OnUsernameLoadedListener {
+        /**
+         * @param username the username, or null if the user is unknown or could not be loaded
+         */
+        void onUsernameLoaded(String username);
+    }
+
+    interface Loader {
+        /**
+         * Looks up the usernames of at most {@link #BATCH_LIMIT} users. Users that
+         * do not exist are left out of the result.
+         */
+        void load(List<String> userIds, OnLoadedListener listener);
+    }
+
+    interface OnLoadedListener {
+        void onSuccess(Map<String, String> usernames);
+        void onFailure(String error);
+    }
+
+    interface Clock {
+        long nowMs();
+    }
+
+    private static UsernameCache instance;
+
+    private final Loader loader;
+    private final Clock clock;
+    private final int maxEntries;
+    private final long ttlMs;
+
+    private final LinkedHashMap<String, Entry> entries;
+    // Users with a request in flight, and who is waiting for each
+    private final Map<String, List<OnUsernameLoadedListener>> pending = new HashMap<>();
+
+    public static UsernameCache getInstance() {
+        if (instance == null) {
+            instance = new UsernameCache(new FirestoreUsernameLoader(), System::currentTimeMillis,
+                    MAX_ENTRIES, TTL_MS);
+        }
+        return instance;
+    }
+
+    UsernameCache(Loader loader, Clock clock, int maxEntries, long ttlMs) {
+        this.loader = loader;
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        // Access order, so the least recently shown user is dropped first
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > UsernameCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Calls back with the username, right away if it is cached, otherwise once
+     * loaded. A lookup already in flight for the user is joined, not repeated.
+     */
+    public void get(String userId, OnUsernameLoadedListener listener) {
+        Entry entry = freshEntry(userId);
+        if (entry != null) {
+            listener.onUsernameLoaded(entry.username);
+            return;
+        }
+
+        List<OnUsernameLoadedListener> waiting = pending.get(userId);
+        if (waiting != null) {
+            waiting.add(listener);
+            return;
+        }
+
+        waiting = new ArrayList<>();
+        waiting.add(listener);
+        pending.put(userId, waiting);
+        List<String> single = new ArrayList<>(1);
+        single.add(userId);
+        load(single);
+    }
+
+    /**
+     * Resolves every user that is neither cached nor already being loaded,
+     * in batches of {@link #BATCH_LIMIT}.
+     */
+    public void prefetch(Collection<String> userIds) {
+        Set<String> missing = new LinkedHashSet<>();
+        for (String userId : userIds) {
+            if (userId != null && freshEntry(userId) == null && !pending.containsKey(userId)) {
+                missing.add(userId);
+            }
+        }
+
+        List<String> batch = new ArrayList<>(BATCH_LIMIT);
+        for (String userId : missing) {
+            pending.put(userId, new ArrayList<>());
+            batch.add(userId);
+            if (batch.size() == BATCH_LIMIT) {
+                load(batch);
+                batch = new ArrayList<>(BATCH_LIMIT);
+            }
+        }
+        if (!batch.isEmpty()) {
+            load(batch);
+        }
+    }
+
+    private void load(List<String> userIds) {
+        loader.load(userIds, new OnLoadedListener() {
+            @Override
+            public void onSuccess(Map<String, String> usernames) {
+                long now = clock.nowMs();
+                for (String userId : userIds) {
+                    // Unknown users are cached too, so they are not asked for again on every bind
+                    String username = usernames.get(userId);
+                    entries.put(userId, new Entry(username, now + ttlMs));
+                    deliver(userId, username);
+                }
+            }
+
+            @Override
+            public void onFailure(String error) {
+                // Not cached; the next lookup tries again
+                for (String userId : userIds) {
+                    deliver(userId, null);
+                }
+            }
+        });
+    }
+
+    private void deliver(String userId, String username) {
+        List<OnUsernameLoadedListener> waiting = pending.remove(userId);
+        if (waiting == null) return;
+        for (OnUsernameLoadedListener listener : waiting) {
+            listener.onUsernameLoaded(username);
+        }
+    }
+
+    private Entry freshEntry(String userId) {
+        Entry entry = entries.get(userId);
+        if (entry == null) return null;
+        if (clock.nowMs() >= entry.expiresAtMs) {
+            entries.remove(userId);
+            return null;
+        }
+        return entry;
+    }
+
+    private static final class Entry {
+        final String username;
+        final long expiresAtMs;
+
+        Entry(String username, long expiresAtMs) {
+            this.username = username;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.kombuchaapp;
+
+import com.example.kombuchaapp.models.ReadingTimestamps;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * Replays a recipe's recorded readings through the app's alert logic and
+ * counts what the user would have been shown: temperature banners and pushes
+ * as {@link AlertAdapter} raises them, and "Ready to Harvest" as the recipe
+ * screen raises it.
+ *
+ * Readings come from a CSV export of the recipe's temperature_readings and
+ * ph_readings, oldest first. The header names the columns, using the
+ * Firestore field names: {@code collection}, {@code timestamp} and/or
+ * {@code timestamp_ms}, and the value fields {@code temperature_f},
+ * {@code temperature_c} and {@code ph_value}. Unknown columns are ignored.
+ */
+final class AlertBacktest {
+
+    private static final String RECIPE_ID = "backtest";
+
+    static final class Report {
+        long temperatureReadings;
+        long phReadings;
+        /** Rows without a usable timestamp or value. */
+        long skipped;
+        int levelChanges;
+        int banners;
+        int pushes;
+        final int[] alertsByLevel = new int[TemperatureAlert.Level.values().length];
+        int harvestNotifications;
+        long firstPushMs = ReadingTimestamps.INVALID;
+        long harvestMs = ReadingTimestamps.INVALID;
+        long elapsedNanos;
+
+        long readings() {
+            return temperatureReadings + phReadings;
+        }
+
+        long readingsPerSecond() {
+            return readings() * 1_000_000_000L / Math.max(elapsedNanos, 1);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(String.format(Locale.US,
+                    "%d readings (%d temperature, %d pH, %d skipped) in %d ms, %d/s: "
+                            + "%d level changes, %d banners, %d pushes, %d harvest notifications",
+                    readings(), temperatureReadings, phReadings, skipped, elapsedNanos / 1_000_000,
+                    readingsPerSecond(), levelChanges, banners, pushes, harvestNotifications));
+            for (TemperatureAlert.Level level : TemperatureAlert.Level.values()) {
+                if (alertsByLevel[level.ordinal()] > 0) {
+                    sb.append(", ").append(level).append(' ').append(alertsByLevel[level.ordinal()]);
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    private final double minPh;
+    private final double maxPh;
+    private final AlertEngine<TemperatureAlert.Level> engine = AlertEngine.forTemperature();
+    private final Report report = new Report();
+
+    /** Replays against a recipe with this harvest pH range. */
+    AlertBacktest(double minPh, double maxPh) {
+        this.minPh = minPh;
+        this.maxPh = maxPh;
+    }
+
+    void offerTemperatureF(float tempF, long timestampMs) {
+        report.temperatureReadings++;
+        AlertEngine.Transition<TemperatureAlert.Level> t = engine.offer(RECIPE_ID, tempF, timestampMs);
+        if (t == null) return;
+        if (t.from != null) report.levelChanges++;
+        if (!t.alert) return;
+
+        report.banners++;
+        report.alertsByLevel[t.to.ordinal()]++;
+        // AlertAdapter only pushes critical levels; lethal heat shakes the screen instead
+        if (t.to == TemperatureAlert.Level.CRITICAL) {
+            if (report.pushes == 0) report.firstPushMs = timestampMs;
+            report.pushes++;
+        }
+    }
+
+    void offerPh(float ph, long timestampMs) {
+        report.phReadings++;
+        // Notified once per brew
+        if (report.harvestNotifications == 0 && ph >= minPh && ph <= maxPh) {
+            report.harvestNotifications = 1;
+            report.harvestMs = timestampMs;
+        }
+    }
+
+    Report report() {
+        return report;
+    }
+
+    /** Replays a whole export and times it. */
+    Report replay(BufferedReader export) throws IOException {
+        long start = System.nanoTime();
+        String header = export.readLine();
+        if (header == null) return report;
+
+        String[] columns = header.trim().split(",", -1);
+        int collection = indexOf(columns, "collection");
+        int timestamp = indexOf(columns, "timestamp");
+        int timestampMs = indexOf(columns, "timestamp_ms");
+        int tempF = indexOf(columns, "temperature_f");
+        int tempC = indexOf(columns, "temperature_c");
+        int ph = indexOf(columns, "ph_value");
+        if (collection < 0 || (timestamp < 0 && timestampMs < 0)) {
+            throw new IOException("Export needs collection and timestamp columns: " + header);
+        }
+
+        String[] cells = new String[columns.length];
+        String line;
+        while ((line = export.readLine()) != null) {
+            if (line.isEmpty()) continue;
+            split(line, cells);
+
+            // Same rule as SensorReadings.timestampMillis: timestamp_ms if positive, else the string
+            long ts = timestampMs >= 0 ? millis(cells[timestampMs]) : 0;
+            if (ts <= 0) {
+                ts = timestamp >= 0 ? ReadingTimestamps.parse(cells[timestamp]) : ReadingTimestamps.INVALID;
+            }
+            if (ts == ReadingTimestamps.INVALID) {
+                report.skipped++;
+                continue;
+            }
+
+            String channel = cells[collection];
+            if ("temperature_readings".equals(channel)) {
+                float f = value(cells, tempF);
+                if (Float.isNaN(f)) {
+                    float c = value(cells, tempC);
+                    f = c * 9 / 5 + 32;
+                }
+                if (Float.isNaN(f)) {
+                    report.skipped++;
+                } else {
+                    offerTemperatureF(f, ts);
+                }
+            } else if ("ph_readings".equals(channel)) {
+                float p = value(cells, ph);
+                if (Float.isNaN(p)) {
+                    report.skipped++;
+                } else {
+                    offerPh(p, ts);
+                }
+            } else {
+                report.skipped++;
+            }
+        }
+        report.elapsedNanos += System.nanoTime() - start;
+        return report;
+    }
+
+    private static int indexOf(String[] columns, String name) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].trim().equals(name)) return i;
+        }
+        return -1;
+    }
+
+    /** Splits a CSV line into {@code cells}, padding missing cells with "". */
+    private static void split(String line, String[] cells) {
+        int from = 0;
+        for (int i = 0; i < cells.length; i++) {
+            if (from > line.length()) {
+                cells[i] = "";
+                continue;
+            }
+            int comma = line.indexOf(',', from);
+            int to = comma < 0 ? line.length() : comma;
+            cells[i] = line.substring(from, to).trim();
+            from = to + 1;
+        }
+    }
+
+    private static long millis(String cell) {
+        if (cell.isEmpty()) return 0;
+        try {
+            return Long.parseLong(cell);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static float value(String[] cells, int column) {
+        if (column < 0 || cells[column].isEmpty()) return Float.NaN;
+        try {
+            return Float.parseFloat(cells[column]);
+        } catch (NumberFormatException e) {
+            return Float.NaN;
+        }
+    }
+}
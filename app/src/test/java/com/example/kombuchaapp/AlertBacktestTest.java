@@ -0,0 +1,138 @@
+package com.example.kombuchaapp;
+
+import com.example.kombuchaapp.models.ReadingTimestamps;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * Replays recorded brews through {@link AlertBacktest}.
+ */
+public class AlertBacktestTest {
+
+    private static final long MINUTE = 60_000;
+    private static final long START = 1_700_000_000_000L;
+
+    private File export;
+
+    @Before
+    public void setUp() throws IOException {
+        export = File.createTempFile("brew_export", ".csv");
+    }
+
+    @After
+    public void tearDown() {
+        export.delete();
+    }
+
+    @Test
+    public void replay_countsAlertsOfSmallExport() throws IOException {
+        String csv = "collection,timestamp,temperature_c,temperature_f,ph_value\n"
+                + "temperature_readings," + ReadingTimestamps.format(START) + ",25.0,,\n"
+                // Too hot for the dwell time: one banner and one push
+                + "temperature_readings," + ReadingTimestamps.format(START + MINUTE) + ",,87.0,\n"
+                + "temperature_readings," + ReadingTimestamps.format(START + 4 * MINUTE) + ",,87.0,\n"
+                + "ph_readings," + ReadingTimestamps.format(START + 5 * MINUTE) + ",,,4.2\n"
+                + "ph_readings," + ReadingTimestamps.format(START + 6 * MINUTE) + ",,,3.3\n"
+                + "ph_readings," + ReadingTimestamps.format(START + 7 * MINUTE) + ",,,3.2\n"
+                + "ph_readings,not a time,,,3.2\n";
+        String withMillis = "collection,timestamp,timestamp_ms,ph_value\n"
+                + "ph_readings,,12x,3.2\n"
+                + "ph_readings," + ReadingTimestamps.format(START + 8 * MINUTE) + ",0,3.2\n"
+                + "ph_readings,," + (START + 9 * MINUTE) + ",3.2\n";
+
+        AlertBacktest.Report report = new AlertBacktest(3.0, 3.4)
+                .replay(new BufferedReader(new StringReader(csv)));
+
+        assertEquals(3, report.temperatureReadings);
+        assertEquals(3, report.phReadings);
+        assertEquals(1, report.skipped);
+        assertEquals(1, report.levelChanges);
+        assertEquals(1, report.banners);
+        assertEquals(1, report.pushes);
+        assertEquals(1, report.alertsByLevel[TemperatureAlert.Level.CRITICAL.ordinal()]);
+        assertEquals(START + 4 * MINUTE, report.firstPushMs);
+        assertEquals(1, report.harvestNotifications);
+        assertEquals(START + 6 * MINUTE, report.harvestMs);
+
+        report = new AlertBacktest(3.0, 3.4).replay(new BufferedReader(new StringReader(withMillis)));
+        assertEquals(1, report.skipped);
+        // A placeholder 0 falls back to the timestamp string
+        assertEquals(2, report.phReadings);
+        assertEquals(START + 8 * MINUTE, report.harvestMs);
+    }
+
+    @Test(expected = IOException.class)
+    public void replay_rejectsExportWithoutTimestamps() throws IOException {
+        new AlertBacktest(3.0, 3.4).replay(new BufferedReader(new StringReader("collection,ph_value\n")));
+    }
+
+    @Test
+    public void replay_millionReadings() throws IOException {
+        int readings = 1_000_000;
+        Random random = new Random(11);
+        try (BufferedWriter out = new BufferedWriter(new FileWriter(export))) {
+            out.write("collection,timestamp,timestamp_ms,temperature_f,ph_value\n");
+            float tempF = 77f;
+            float ph = 4.6f;
+            for (int i = 0; i < readings; i++) {
+                // A reading every 5 seconds, one in ten of them pH
+                long ts = START + i * 5_000L;
+                if (i % 10 == 9) {
+                    ph = Math.max(2.5f, ph - 0.0001f);
+                    out.write("ph_readings," + ReadingTimestamps.format(ts) + "," + ts + ",," + ph + "\n");
+                } else {
+                    // Drifts between cold and hot spells
+                    tempF = Math.max(45f, Math.min(95f, tempF + (random.nextFloat() - 0.5f) * 0.6f));
+                    out.write("temperature_readings," + ReadingTimestamps.format(ts) + "," + ts + ","
+                            + tempF + ",\n");
+                }
+            }
+        }
+
+        AlertBacktest.Report report;
+        try (BufferedReader in = new BufferedReader(new FileReader(export))) {
+            report = new AlertBacktest(3.0, 3.4).replay(in);
+        }
+
+        assertEquals(readings, report.readings());
+        assertEquals(0, report.skipped);
+        assertEquals(1, report.harvestNotifications);
+        // Cooldowns keep alerts far below the number of readings
+        assertTrue(report.banners < report.temperatureReadings / 100);
+        assertTrue(report.pushes <= report.banners);
+    }
+
+    /**
+     * Replays a recorded export and prints what it would have raised. Skipped
+     * unless an export is given, e.g.
+     * {@code ./gradlew testDebugUnitTest --tests '*AlertBacktestTest' -Dbacktest.export=brew.csv};
+     * backtest.minPh and backtest.maxPh set the harvest range.
+     */
+    @Test
+    public void replay_recordedExport() throws IOException {
+        String path = System.getProperty("backtest.export", "");
+        assumeFalse("No -Dbacktest.export given", path.isEmpty());
+        double minPh = Double.parseDouble(System.getProperty("backtest.minPh", "3.0"));
+        double maxPh = Double.parseDouble(System.getProperty("backtest.maxPh", "3.4"));
+
+        AlertBacktest.Report report;
+        try (BufferedReader in = new BufferedReader(new FileReader(path))) {
+            report = new AlertBacktest(minPh, maxPh).replay(in);
+        }
+        System.out.println("Alert backtest of " + path + ": " + report);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.kombuchaapp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that {@link AlertEngine} keeps up with thousands of readings per
+ * second across many recipes. Skipped unless run with {@code -Dbenchmark=true}.
+ */
+public class AlertEngineBenchmark {
+
+    private static final int RECIPES = 1000;
+    private static final int READINGS_PER_RECIPE = 1000;
+
+    private final AlertEngine<TemperatureAlert.Level> engine = AlertEngine.forTemperature();
+
+    @Before
+    public void setUp() {
+        assumeTrue("No -Dbenchmark=true given", Boolean.getBoolean("benchmark"));
+    }
+
+    @Test
+    public void offer_manyRecipes() {
+        String[] ids = new String[RECIPES];
+        for (int r = 0; r < RECIPES; r++) {
+            ids[r] = "recipe" + r;
+        }
+        Random random = new Random(7);
+        float[] noise = new float[4096];
+        for (int i = 0; i < noise.length; i++) {
+            noise[i] = (random.nextFloat() - 0.5f) * 4f;
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < READINGS_PER_RECIPE; i++) {
+            for (int r = 0; r < RECIPES; r++) {
+                // Each brew wanders around its own temperature between 70 and 90°F
+                float tempF = 70f + (r % 20) + noise[(i * 31 + r) & (noise.length - 1)];
+                engine.offer(ids[r], tempF, i * 30_000L);
+            }
+        }
+        long nanos = System.nanoTime() - start;
+
+        long perSecond = (long) RECIPES * READINGS_PER_RECIPE * 1_000_000_000L / Math.max(nanos, 1);
+        assertTrue(perSecond + " readings/s", perSecond > 10_000);
+    }
+}
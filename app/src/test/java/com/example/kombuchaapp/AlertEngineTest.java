@@ -0,0 +1,136 @@
+package com.example.kombuchaapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link AlertEngine} with the temperature levels.
+ */
+public class AlertEngineTest {
+
+    private static final long MINUTE = 60_000;
+
+    private final AlertEngine<TemperatureAlert.Level> engine = AlertEngine.forTemperature();
+
+    @Test
+    public void firstReading_isReportedAtOnce() {
+        AlertEngine.Transition<TemperatureAlert.Level> t = engine.offer("a", 86f, 0);
+
+        assertNotNull(t);
+        assertNull(t.from);
+        assertEquals(TemperatureAlert.Level.CRITICAL, t.to);
+        assertTrue(t.alert);
+    }
+
+    @Test
+    public void readingHoveringAtBoundary_doesNotFlip() {
+        engine.offer("a", 86f, 0);
+
+        // 85.5°F and 85.0°F sit around the CRITICAL/WARNING boundary, within the margin
+        for (int i = 1; i <= 60; i++) {
+            assertNull(engine.offer("a", i % 2 == 0 ? 85.5f : 85.0f, i * MINUTE));
+        }
+        assertEquals(TemperatureAlert.Level.CRITICAL, engine.level("a"));
+    }
+
+    @Test
+    public void newLevel_mustHoldForDwellTime() {
+        engine.offer("a", 77f, 0);
+
+        assertNull(engine.offer("a", 82f, MINUTE));
+        // Back to optimal before the dwell time passed: the warning never happened
+        assertNull(engine.offer("a", 77f, 2 * MINUTE));
+        assertNull(engine.offer("a", 82f, 3 * MINUTE));
+        assertNull(engine.offer("a", 82f, 4 * MINUTE));
+
+        AlertEngine.Transition<TemperatureAlert.Level> t = engine.offer("a", 82f, 5 * MINUTE);
+        assertNotNull(t);
+        assertEquals(TemperatureAlert.Level.OPTIMAL, t.from);
+        assertEquals(TemperatureAlert.Level.WARNING, t.to);
+        assertTrue(t.alert);
+    }
+
+    @Test
+    public void lethalHeat_isEnteredAtOnce() {
+        engine.offer("a", 77f, 0);
+
+        AlertEngine.Transition<TemperatureAlert.Level> t = engine.offer("a", 95f, MINUTE);
+        assertNotNull(t);
+        assertEquals(TemperatureAlert.Level.LETHAL, t.to);
+    }
+
+    @Test
+    public void levelReenteredWithinCooldown_changesWithoutAlert() {
+        engine.offer("a", 77f, 0);
+        engine.offer("a", 82f, MINUTE);
+        assertTrue(engine.offer("a", 82f, 3 * MINUTE).alert);
+
+        engine.offer("a", 77f, 4 * MINUTE);
+        assertEquals(TemperatureAlert.Level.OPTIMAL, engine.offer("a", 77f, 6 * MINUTE).to);
+
+        engine.offer("a", 82f, 7 * MINUTE);
+        AlertEngine.Transition<TemperatureAlert.Level> again = engine.offer("a", 82f, 9 * MINUTE);
+        assertEquals(TemperatureAlert.Level.WARNING, again.to);
+        assertFalse(again.alert);
+    }
+
+    @Test
+    public void recipes_haveIndependentState() {
+        engine.offer("a", 86f, 0);
+        engine.offer("b", 77f, 0);
+
+        // The same critical level on another brew still alerts
+        engine.offer("b", 86f, MINUTE);
+        AlertEngine.Transition<TemperatureAlert.Level> t = engine.offer("b", 86f, 3 * MINUTE);
+        assertEquals(TemperatureAlert.Level.CRITICAL, t.to);
+        assertTrue(t.alert);
+        assertEquals(TemperatureAlert.Level.CRITICAL, engine.level("a"));
+    }
+
+    @Test
+    public void clearLevel_reportsAgainWithoutAlerting() {
+        engine.offer("a", 86f, 0);
+        engine.clearLevel("a");
+
+        AlertEngine.Transition<TemperatureAlert.Level> t = engine.offer("a", 86f, MINUTE);
+        assertNotNull(t);
+        assertNull(t.from);
+        assertFalse(t.alert);
+    }
+
+    @Test
+    public void olderReading_isIgnored() {
+        engine.offer("a", 77f, 10 * MINUTE);
+        assertNull(engine.offer("a", 95f, MINUTE));
+        assertEquals(TemperatureAlert.Level.OPTIMAL, engine.level("a"));
+    }
+
+    @Test
+    public void manyRecipes_mostReadingsChangeNothing() {
+        int recipes = 50;
+        int readingsPerRecipe = 200;
+        String[] ids = new String[recipes];
+        for (int r = 0; r < recipes; r++) {
+            ids[r] = "recipe" + r;
+        }
+        Random random = new Random(7);
+        float[] noise = new float[4096];
+        for (int i = 0; i < noise.length; i++) {
+            noise[i] = (random.nextFloat() - 0.5f) * 4f;
+        }
+
+        int transitions = 0;
+        for (int i = 0; i < readingsPerRecipe; i++) {
+            for (int r = 0; r < recipes; r++) {
+                // Each brew wanders around its own temperature between 70 and 90°F
+                float tempF = 70f + (r % 20) + noise[(i * 31 + r) & (noise.length - 1)];
+                if (engine.offer(ids[r], tempF, i * 30_000L) != null) transitions++;
+            }
+        }
+
+        assertTrue(transitions < recipes * readingsPerRecipe / 10);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.kombuchaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link BandClassifier} and the alert tables built on it.
+ */
+public class BandClassifierTest {
+
+    @Test
+    public void temperature_boundaries() {
+        assertEquals(TemperatureAlert.Level.DORMANT, TemperatureAlert.levelF(49.9f));
+        assertEquals(TemperatureAlert.Level.CRITICAL, TemperatureAlert.levelF(50f));
+        assertEquals(TemperatureAlert.Level.WARNING, TemperatureAlert.levelF(65f));
+        assertEquals(TemperatureAlert.Level.OPTIMAL, TemperatureAlert.levelF(75f));
+        assertEquals(TemperatureAlert.Level.OPTIMAL, TemperatureAlert.levelF(79.9f));
+        assertEquals(TemperatureAlert.Level.WARNING, TemperatureAlert.levelF(80f));
+        assertEquals(TemperatureAlert.Level.WARNING, TemperatureAlert.levelF(85f));
+        assertEquals(TemperatureAlert.Level.CRITICAL, TemperatureAlert.levelF(85.1f));
+        assertEquals(TemperatureAlert.Level.CRITICAL, TemperatureAlert.levelF(90f));
+        assertEquals(TemperatureAlert.Level.LETHAL, TemperatureAlert.levelF(90.1f));
+        assertEquals(TemperatureAlert.Level.UNKNOWN, TemperatureAlert.levelF(Float.NaN));
+        assertEquals(TemperatureAlert.Level.UNKNOWN, TemperatureAlert.levelF(Float.POSITIVE_INFINITY));
+    }
+
+    @Test
+    public void ph_boundaries() {
+        assertEquals(PhAlert.Level.VINEGARY, PhAlert.evaluate(3.49f).level);
+        assertEquals(PhAlert.Level.TANGY, PhAlert.evaluate(3.5f).level);
+        assertEquals(PhAlert.Level.SWEET, PhAlert.evaluate(4.0f).level);
+        assertEquals(PhAlert.Level.SWEET, PhAlert.evaluate(4.5f).level);
+        assertEquals("Outside range", PhAlert.evaluate(4.51f).title);
+        assertEquals("No pH reading", PhAlert.evaluate(Float.NaN).title);
+    }
+
+    @Test
+    public void fermentationStage_boundaries() {
+        assertEquals("Unknown", PhFermentationStage.evaluate(0f).title);
+        assertEquals(PhFermentationStage.Stage.TASTE_TEST, PhFermentationStage.evaluate(0.1f).stage);
+        assertEquals(PhFermentationStage.Stage.OPTIMAL, PhFermentationStage.evaluate(2.5f).stage);
+        assertEquals(PhFermentationStage.Stage.ACTIVE, PhFermentationStage.evaluate(3.5f).stage);
+        assertEquals(PhFermentationStage.Stage.INITIAL, PhFermentationStage.evaluate(4.5f).stage);
+        assertEquals("No Reading", PhFermentationStage.evaluate(Float.NEGATIVE_INFINITY).title);
+    }
+
+    @Test
+    public void evaluate_returnsSharedResults() {
+        assertSame(TemperatureAlert.evaluateF(76f), TemperatureAlert.evaluateF(78f));
+        assertEquals(0xFF388E3C, TemperatureAlert.evaluateF(76f).color);
+    }
+
+    @Test
+    public void classifyAll_matchesClassify() {
+        float[] temps = {40f, 55f, 70f, 77f, 82f, 88f, 95f, Float.NaN};
+        TemperatureAlert.Result[] out = new TemperatureAlert.Result[temps.length];
+        TemperatureAlert.evaluateAllF(temps, out);
+
+        for (int i = 0; i < temps.length; i++) {
+            assertSame(TemperatureAlert.evaluateF(temps[i]), out[i]);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bounds_mustAscend() {
+        BandClassifier.startingWith("low").from(2f, "mid").from(1f, "high");
+    }
+}
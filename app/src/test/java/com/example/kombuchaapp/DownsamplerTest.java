@@ -0,0 +1,117 @@
+package com.example.kombuchaapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link Downsampler} over synthetic brew-length series.
+ */
+public class DownsamplerTest {
+
+    private static final int POINTS = 100_000;
+
+    private static float[] syntheticTemperatures(int n) {
+        float[] ys = new float[n];
+        Random random = new Random(42);
+        for (int i = 0; i < n; i++) {
+            // Slow daily swing around 25°C plus sensor noise
+            ys[i] = 25f + 1.5f * (float) Math.sin(i / 1440.0 * 2 * Math.PI)
+                    + (random.nextFloat() - 0.5f) * 0.2f;
+        }
+        return ys;
+    }
+
+    private static void assertAscendingWithEnds(int[] out, int count, int from, int to) {
+        assertEquals(from, out[0]);
+        assertEquals(to - 1, out[count - 1]);
+        for (int i = 1; i < count; i++) {
+            assertTrue("indices must be strictly ascending", out[i] > out[i - 1]);
+        }
+    }
+
+    private static boolean contains(int[] out, int count, int index) {
+        for (int i = 0; i < count; i++) {
+            if (out[i] == index) return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void lttb_reducesToThreshold() {
+        float[] ys = syntheticTemperatures(POINTS);
+        int[] out = new int[1000];
+
+        int count = Downsampler.lttb(ys, 0, POINTS, 1000, out);
+
+        assertEquals(1000, count);
+        assertAscendingWithEnds(out, count, 0, POINTS);
+    }
+
+    @Test
+    public void lttb_keepsIsolatedSpike() {
+        float[] ys = syntheticTemperatures(POINTS);
+        ys[54_321] = 33f; // Lethal spike (>90°F)
+        int[] out = new int[500];
+
+        int count = Downsampler.lttb(ys, 0, POINTS, 500, out);
+
+        assertTrue(contains(out, count, 54_321));
+    }
+
+    @Test
+    public void lttb_shortSeriesIsCopied() {
+        float[] ys = {1f, 2f, 3f, 4f};
+        int[] out = new int[4];
+
+        assertEquals(4, Downsampler.lttb(ys, 0, 4, 10, out));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, out);
+    }
+
+    @Test
+    public void tinyBudget_keepsOnlyEnds() {
+        float[] ys = syntheticTemperatures(100);
+        int[] out = new int[2];
+
+        assertEquals(2, Downsampler.lttb(ys, 10, 100, 2, out));
+        assertArrayEquals(new int[]{10, 99}, out);
+        assertEquals(2, Downsampler.minMax(ys, 0, 100, 0, out));
+        assertArrayEquals(new int[]{0, 99}, out);
+    }
+
+    @Test
+    public void minMax_boundsOutputAndKeepsExtremes() {
+        float[] ys = syntheticTemperatures(POINTS);
+        ys[777] = 10f;     // Dormant dip
+        ys[88_888] = 31f;  // Critical spike
+        int[] out = new int[2 * 400 + 2];
+
+        int count = Downsampler.minMax(ys, 0, POINTS, 400, out);
+
+        assertTrue(count <= 2 * 400 + 2);
+        assertAscendingWithEnds(out, count, 0, POINTS);
+        assertTrue(contains(out, count, 777));
+        assertTrue(contains(out, count, 88_888));
+    }
+
+    @Test
+    public void minMax_subRangeStaysInsideRange() {
+        float[] ys = syntheticTemperatures(POINTS);
+        int[] out = new int[2 * 100 + 2];
+
+        int count = Downsampler.minMax(ys, 40_000, 60_000, 100, out);
+
+        assertAscendingWithEnds(out, count, 40_000, 60_000);
+    }
+
+    @Test
+    public void emptyRange_returnsNothing() {
+        float[] ys = new float[10];
+        int[] out = new int[10];
+
+        assertEquals(0, Downsampler.lttb(ys, 5, 5, 3, out));
+        assertEquals(0, Downsampler.minMax(ys, 5, 5, 3, out));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.kombuchaapp;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link NotificationBatcher}.
+ */
+public class NotificationBatcherTest {
+
+    private static final int CRITICAL = 0;
+    private static final int HARVEST = 1;
+
+    // 2 s window, at most 2 deliveries a minute
+    private final NotificationBatcher batcher = new NotificationBatcher(2, 2_000, 2, 60_000);
+
+    private static NotificationBatcher.Alert alert(int severity, String recipeId, String title) {
+        return new NotificationBatcher.Alert(severity, recipeId, title, "");
+    }
+
+    @Test
+    public void alertsWithinWindow_areDeliveredTogether() {
+        batcher.offer(alert(CRITICAL, "a", "hot"), 0);
+        batcher.offer(alert(CRITICAL, "b", "hot"), 500);
+        batcher.offer(alert(CRITICAL, "a", "hotter"), 1_000);
+
+        assertTrue(batcher.drain(1_999, false).isEmpty());
+        assertEquals(2_000, batcher.nextDrainMs(1_999));
+
+        List<NotificationBatcher.Batch> batches = batcher.drain(2_000, false);
+        assertEquals(1, batches.size());
+        NotificationBatcher.Batch batch = batches.get(0);
+        assertEquals(2, batch.updated.size());
+        // Newest alert per recipe
+        assertEquals("hotter", batch.updated.get(0).title);
+        assertEquals(Long.MAX_VALUE, batcher.nextDrainMs(2_000));
+    }
+
+    @Test
+    public void laterBatch_listsEarlierAlertsAsActive() {
+        batcher.offer(alert(CRITICAL, "a", "hot"), 0);
+        batcher.drain(2_000, false);
+        batcher.offer(alert(CRITICAL, "b", "hot"), 3_000);
+
+        NotificationBatcher.Batch batch = batcher.drain(5_000, false).get(0);
+        assertEquals(1, batch.updated.size());
+        assertEquals(2, batch.active.size());
+        assertEquals("b", batch.active.get(1).recipeId);
+    }
+
+    @Test
+    public void deliveriesOverRateLimit_wait() {
+        batcher.offer(alert(CRITICAL, "a", "hot"), 0);
+        batcher.drain(2_000, false);
+        batcher.offer(alert(HARVEST, "a", "ready"), 2_000);
+        batcher.drain(4_000, false);
+
+        batcher.offer(alert(CRITICAL, "b", "hot"), 5_000);
+        assertTrue(batcher.drain(7_000, false).isEmpty());
+        assertEquals(62_000, batcher.nextDrainMs(7_000));
+        assertEquals(1, batcher.drain(62_000, false).size());
+    }
+
+    @Test
+    public void flush_skipsWindowAndRateLimit() {
+        batcher.offer(alert(CRITICAL, "a", "hot"), 0);
+        batcher.offer(alert(HARVEST, "a", "ready"), 0);
+        assertEquals(2, batcher.drain(0, true).size());
+
+        batcher.offer(alert(CRITICAL, "b", "hot"), 1_000);
+        assertEquals(1, batcher.drain(1_000, true).size());
+        // Flushed deliveries still count toward the limit
+        batcher.offer(alert(HARVEST, "b", "ready"), 2_000);
+        assertTrue(batcher.drain(4_000, false).isEmpty());
+    }
+
+    @Test
+    public void retain_dropsDismissedAlerts() {
+        batcher.offer(alert(CRITICAL, "a", "hot"), 0);
+        batcher.offer(alert(CRITICAL, "b", "hot"), 0);
+        batcher.drain(2_000, false);
+        batcher.retain(CRITICAL, Collections.singleton("b"));
+
+        batcher.offer(alert(CRITICAL, "c", "hot"), 3_000);
+        NotificationBatcher.Batch batch = batcher.drain(5_000, false).get(0);
+        assertEquals(2, batch.active.size());
+        assertEquals("b", batch.active.get(0).recipeId);
+    }
+}
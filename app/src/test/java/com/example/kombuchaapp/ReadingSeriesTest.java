@@ -0,0 +1,49 @@
+package com.example.kombuchaapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ReadingSeries}.
+ */
+public class ReadingSeriesTest {
+
+    private static ReadingSeries series(long firstTimestamp, float... values) {
+        ReadingSeries series = new ReadingSeries();
+        for (int i = 0; i < values.length; i++) {
+            series.insert(i, values[i], firstTimestamp + i * 1000L);
+        }
+        return series;
+    }
+
+    @Test
+    public void prepend_putsOlderReadingsFirstInOrder() {
+        ReadingSeries series = series(10_000, 20f, 21f);
+        series.prepend(series(0, 18f, 19f, 25f));
+
+        assertEquals(5, series.size());
+        float[] expectedValues = {18f, 19f, 25f, 20f, 21f};
+        long[] expectedTimestamps = {0, 1000, 2000, 10_000, 11_000};
+        for (int i = 0; i < expectedValues.length; i++) {
+            assertEquals(expectedValues[i], series.valueAt(i), 0f);
+            assertEquals(expectedTimestamps[i], series.timestampAt(i));
+        }
+        assertEquals(18f, series.minValue(), 0f);
+        assertEquals(25f, series.maxValue(), 0f);
+    }
+
+    @Test
+    public void prepend_growsPastInitialCapacity() {
+        ReadingSeries series = series(1_000_000, 1f);
+        ReadingSeries older = new ReadingSeries();
+        for (int i = 0; i < 200; i++) {
+            older.insert(i, i, i);
+        }
+        series.prepend(older);
+
+        assertEquals(201, series.size());
+        assertEquals(199f, series.valueAt(199), 0f);
+        assertEquals(1_000_000, series.timestampAt(200));
+    }
+}
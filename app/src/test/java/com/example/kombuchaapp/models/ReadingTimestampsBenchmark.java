@@ -0,0 +1,57 @@
+package com.example.kombuchaapp.models;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Times {@link ReadingTimestamps#parse(CharSequence)} against the per-reading
+ * SimpleDateFormat it replaced, over a brew's worth of readings; compare the
+ * durations of the two tests in the test report. Skipped unless run with
+ * {@code -Dbenchmark=true}.
+ */
+public class ReadingTimestampsBenchmark {
+
+    private static final int READINGS = 100_000;
+    private static final int ROUNDS = 5;
+    private static final long START_MS = 1_697_760_000_000L;
+    private static final long INTERVAL_MS = 61_000L;
+
+    // Keeps the parsed values alive
+    static long sink;
+
+    private String[] timestamps;
+
+    @Before
+    public void setUp() {
+        assumeTrue("No -Dbenchmark=true given", Boolean.getBoolean("benchmark"));
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault());
+        timestamps = new String[READINGS];
+        for (int i = 0; i < READINGS; i++) {
+            timestamps[i] = format.format(new Date(START_MS + i * INTERVAL_MS));
+        }
+    }
+
+    @Test
+    public void parse_readingTimestamps() {
+        for (int round = 0; round < ROUNDS; round++) {
+            for (String t : timestamps) sink += ReadingTimestamps.parse(t);
+        }
+    }
+
+    @Test
+    public void parse_simpleDateFormatPerReading() throws ParseException {
+        for (int round = 0; round < ROUNDS; round++) {
+            // The old code constructed a formatter for every reading
+            for (String t : timestamps) {
+                sink += new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.getDefault()).parse(t).getTime();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.kombuchaapp.models;
+
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks {@link ReadingTimestamps} against the SimpleDateFormat it replaces
+ * over a brew's worth of readings.
+ */
+public class ReadingTimestampsTest {
+
+    private static final int READINGS = 100_000;
+    // Both runs of ~70 days cross a DST change, the first one also a year boundary
+    private static final long FALL_START_MS = 1_697_760_000_000L;   // 2023-10-20
+    private static final long SPRING_START_MS = 1_708_387_200_000L; // 2024-02-20
+    private static final long INTERVAL_MS = 61_000L;
+
+    private static SimpleDateFormat legacyFormat(TimeZone zone) {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss", Locale.US);
+        format.setTimeZone(zone);
+        return format;
+    }
+
+    private static String[] legacyTimestamps(SimpleDateFormat format, long startMs) {
+        String[] out = new String[READINGS];
+        for (int i = 0; i < READINGS; i++) {
+            out[i] = format.format(new Date(startMs + i * INTERVAL_MS));
+        }
+        return out;
+    }
+
+    @Test
+    public void parse_matchesSimpleDateFormat() throws ParseException {
+        TimeZone zone = TimeZone.getTimeZone("America/Chicago");
+        SimpleDateFormat format = legacyFormat(zone);
+
+        for (long startMs : new long[]{FALL_START_MS, SPRING_START_MS}) {
+            for (String timestamp : legacyTimestamps(format, startMs)) {
+                assertEquals(timestamp, format.parse(timestamp).getTime(),
+                        ReadingTimestamps.parse(timestamp, zone));
+            }
+        }
+    }
+
+    @Test
+    public void format_matchesSimpleDateFormat() {
+        TimeZone zone = TimeZone.getTimeZone("America/Chicago");
+        SimpleDateFormat format = legacyFormat(zone);
+        char[] out = new char[ReadingTimestamps.LENGTH];
+
+        for (long startMs : new long[]{FALL_START_MS, SPRING_START_MS}) {
+            for (int i = 0; i < READINGS; i++) {
+                long ms = startMs + i * INTERVAL_MS;
+                ReadingTimestamps.formatTo(ms, zone, out, 0);
+                assertEquals(format.format(new Date(ms)), new String(out));
+            }
+        }
+    }
+
+    @Test
+    public void formatLabel_isShortForm() {
+        long ms = ReadingTimestamps.parse("2024-02-29 07:05:09");
+
+        assertEquals("02/29 07:05", ReadingTimestamps.formatLabel(ms));
+        assertEquals("2024-02-29 07:05:09", ReadingTimestamps.format(ms));
+    }
+
+    @Test
+    public void parse_rejectsMalformed() {
+        assertEquals(ReadingTimestamps.INVALID, ReadingTimestamps.parse(null));
+        assertEquals(ReadingTimestamps.INVALID, ReadingTimestamps.parse(""));
+        assertEquals(ReadingTimestamps.INVALID, ReadingTimestamps.parse("2024-02-29T07:05:09"));
+        assertEquals(ReadingTimestamps.INVALID, ReadingTimestamps.parse("2024-13-01 00:00:00"));
+        assertEquals(ReadingTimestamps.INVALID, ReadingTimestamps.parse("2024-01-01 24:00:00"));
+        assertEquals(ReadingTimestamps.INVALID, ReadingTimestamps.parse("2024-1-01 00:00:00"));
+        assertEquals(ReadingTimestamps.INVALID, ReadingTimestamps.parse("2024-01-01 0a:00:00"));
+    }
+
+    @Test
+    public void parse_skippedHour_matchesSimpleDateFormat() throws ParseException {
+        TimeZone zone = TimeZone.getTimeZone("America/Chicago");
+        SimpleDateFormat format = legacyFormat(zone);
+
+        // 02:00-02:59 does not exist on the day DST starts
+        for (int minute = 0; minute < 60; minute++) {
+            String timestamp = String.format(Locale.US, "2024-03-10 02:%02d:30", minute);
+            assertEquals(timestamp, format.parse(timestamp).getTime(),
+                    ReadingTimestamps.parse(timestamp, zone));
+        }
+        assertEquals(1_710_059_400_000L, ReadingTimestamps.parse("2024-03-10 02:30:00", zone));
+    }
+
+    @Test
+    public void parse_followsDefaultZoneChangeOnRefresh() {
+        TimeZone saved = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            ReadingTimestamps.refreshZone();
+            long utc = ReadingTimestamps.parse("2024-06-01 12:00:00");
+
+            TimeZone.setDefault(TimeZone.getTimeZone("America/Chicago"));
+            assertEquals(utc, ReadingTimestamps.parse("2024-06-01 12:00:00"));
+            ReadingTimestamps.refreshZone();
+            long chicago = ReadingTimestamps.parse("2024-06-01 12:00:00");
+
+            assertEquals(5 * 60 * 60 * 1000L, chicago - utc);
+        } finally {
+            TimeZone.setDefault(saved);
+            ReadingTimestamps.refreshZone();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.kombuchaapp.models;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link RunningStats} against a plain two-pass computation.
+ */
+public class RunningStatsTest {
+
+    private static float[] readings(int n, long seed) {
+        float[] values = new float[n];
+        Random random = new Random(seed);
+        for (int i = 0; i < n; i++) {
+            values[i] = 25f + (float) random.nextGaussian() * 1.5f;
+        }
+        return values;
+    }
+
+    private static double twoPassVariance(float[] values) {
+        double mean = 0;
+        for (float v : values) mean += v;
+        mean /= values.length;
+        double sum = 0;
+        for (float v : values) sum += (v - mean) * (v - mean);
+        return sum / values.length;
+    }
+
+    @Test
+    public void add_matchesTwoPass() {
+        float[] values = readings(100_000, 1);
+        RunningStats stats = ReadingRollup.newTemperatureStats();
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        for (float v : values) {
+            stats.add(v);
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+
+        assertEquals(100_000, stats.getCount());
+        assertEquals(25.0, stats.getMean(), 0.05);
+        assertEquals(twoPassVariance(values), stats.getVariance(), 1e-6);
+        assertEquals(min, stats.getMin(), 0f);
+        assertEquals(max, stats.getMax(), 0f);
+
+        long histogramTotal = 0;
+        for (int i = 0; i < stats.getBucketCount(); i++) {
+            histogramTotal += stats.getBucket(i);
+        }
+        assertEquals(100_000, histogramTotal);
+    }
+
+    @Test
+    public void merge_equalsSingleStream() {
+        float[] first = readings(3_000, 2);
+        float[] second = readings(7_000, 3);
+        RunningStats a = ReadingRollup.newTemperatureStats();
+        RunningStats b = ReadingRollup.newTemperatureStats();
+        RunningStats all = ReadingRollup.newTemperatureStats();
+        for (float v : first) {
+            a.add(v);
+            all.add(v);
+        }
+        for (float v : second) {
+            b.add(v);
+            all.add(v);
+        }
+
+        a.merge(b);
+
+        assertEquals(all.getCount(), a.getCount());
+        assertEquals(all.getMean(), a.getMean(), 1e-9);
+        assertEquals(all.getVariance(), a.getVariance(), 1e-9);
+        assertEquals(all.getMin(), a.getMin(), 0f);
+        assertEquals(all.getMax(), a.getMax(), 0f);
+        for (int i = 0; i < all.getBucketCount(); i++) {
+            assertEquals(all.getBucket(i), a.getBucket(i));
+        }
+    }
+
+    @Test
+    public void merge_intoEmptyCopiesOther() {
+        RunningStats empty = ReadingRollup.newPhStats();
+        RunningStats other = ReadingRollup.newPhStats();
+        other.add(3.1f);
+        other.add(3.4f);
+
+        empty.merge(other);
+
+        assertEquals(2, empty.getCount());
+        assertEquals(3.1f, empty.getMin(), 0f);
+        assertEquals(3.4f, empty.getMax(), 0f);
+    }
+
+    @Test
+    public void histogram_clampsOutOfRange() {
+        RunningStats stats = ReadingRollup.newTemperatureStats();
+        stats.add(-5f);
+        stats.add(55f);
+
+        assertEquals(1, stats.getBucket(0));
+        assertEquals(1, stats.getBucket(stats.getBucketCount() - 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void merge_rejectsDifferentHistograms() {
+        RunningStats temperature = ReadingRollup.newTemperatureStats();
+        RunningStats ph = ReadingRollup.newPhStats();
+        ph.add(3f);
+
+        temperature.merge(ph);
+    }
+}
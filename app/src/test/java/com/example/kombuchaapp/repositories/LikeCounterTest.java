@@ -0,0 +1,295 @@
+package com.example.kombuchaapp.repositories;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link LikeCounter}, including a load test against an
+ * in-memory store with Firestore's optimistic transaction semantics.
+ */
+public class LikeCounterTest {
+
+    private static final String OWNER = "owner";
+    private static final String RECIPE = "recipe";
+    private static final String RECIPE_PATH = LikeCounter.recipePath(OWNER, RECIPE);
+
+    /**
+     * Runs transactions on a pool of "server" threads and delivers every
+     * result on a single "main" thread, like the Firestore SDK.
+     */
+    private static class FakeStore implements LikeCounter.Store {
+        final ExecutorService server = Executors.newFixedThreadPool(16);
+        final ExecutorService main = Executors.newSingleThreadExecutor();
+        final AtomicInteger retries = new AtomicInteger();
+        final AtomicInteger shardReads = new AtomicInteger();
+
+        private final Object lock = new Object();
+        // Document path to value, and to a version bumped on every write
+        private final Map<String, Object> docs = new HashMap<>();
+        private final Map<String, Long> versions = new HashMap<>();
+
+        void putLegacyLikers(String recipePath, Set<String> likedBy) {
+            synchronized (lock) {
+                docs.put(recipePath, likedBy);
+            }
+        }
+
+        long shard(int shard) {
+            synchronized (lock) {
+                Object count = docs.get(RECIPE_PATH + "/" + LikeCounter.SHARDS + "/" + shard);
+                return count != null ? (Long) count : 0;
+            }
+        }
+
+        @Override
+        public void runTransaction(LikeCounter.TransactionBody body, LikeCounter.OnTransactionListener listener) {
+            server.execute(() -> {
+                // The Firestore SDK gives up after 5 attempts
+                for (int attempt = 0; attempt < 5; attempt++) {
+                    FakeTransaction transaction = new FakeTransaction();
+                    boolean changed;
+                    try {
+                        changed = body.run(transaction);
+                    } catch (Exception e) {
+                        main.execute(() -> listener.onFailure(e.getMessage()));
+                        return;
+                    }
+                    // Give other transactions a chance to commit in between
+                    Thread.yield();
+                    if (transaction.commit()) {
+                        main.execute(() -> listener.onSuccess(changed));
+                        return;
+                    }
+                    retries.incrementAndGet();
+                }
+                main.execute(() -> listener.onFailure("ABORTED"));
+            });
+        }
+
+        @Override
+        public void sumShards(String recipePath, LikeCounter.OnCountListener listener) {
+            shardReads.incrementAndGet();
+            long count = 0;
+            for (int shard = 0; shard < LikeCounter.NUM_SHARDS; shard++) {
+                count += shard(shard);
+            }
+            long sum = count;
+            main.execute(() -> listener.onSuccess(sum));
+        }
+
+        @Override
+        public void readMarker(String recipePath, String userId, LikeCounter.OnMarkerListener listener) {
+            Boolean liked;
+            synchronized (lock) {
+                liked = (Boolean) docs.get(recipePath + "/" + LikeCounter.MARKERS + "/" + userId);
+            }
+            main.execute(() -> listener.onSuccess(liked));
+        }
+
+        private class FakeTransaction implements LikeCounter.Transaction {
+            final Map<String, Long> readVersions = new HashMap<>();
+            final Map<String, Boolean> markerWrites = new HashMap<>();
+            final Map<String, Long> increments = new HashMap<>();
+
+            private Object read(String path) {
+                synchronized (lock) {
+                    readVersions.put(path, versions.getOrDefault(path, 0L));
+                    return docs.get(path);
+                }
+            }
+
+            @Override
+            public Boolean getMarker(String recipePath, String userId) {
+                return (Boolean) read(recipePath + "/" + LikeCounter.MARKERS + "/" + userId);
+            }
+
+            @Override
+            public boolean isLegacyLiker(String recipePath, String userId) {
+                Object likedBy = read(recipePath);
+                return likedBy instanceof Set && ((Set<?>) likedBy).contains(userId);
+            }
+
+            @Override
+            public void setMarker(String recipePath, String userId, boolean liked) {
+                markerWrites.put(recipePath + "/" + LikeCounter.MARKERS + "/" + userId, liked);
+            }
+
+            @Override
+            public void incrementShard(String recipePath, int shard, long delta) {
+                increments.merge(recipePath + "/" + LikeCounter.SHARDS + "/" + shard, delta, Long::sum);
+            }
+
+            boolean commit() {
+                synchronized (lock) {
+                    for (Map.Entry<String, Long> read : readVersions.entrySet()) {
+                        if (!read.getValue().equals(versions.getOrDefault(read.getKey(), 0L))) {
+                            return false;
+                        }
+                    }
+                    for (Map.Entry<String, Boolean> write : markerWrites.entrySet()) {
+                        docs.put(write.getKey(), write.getValue());
+                        versions.merge(write.getKey(), 1L, Long::sum);
+                    }
+                    for (Map.Entry<String, Long> increment : increments.entrySet()) {
+                        docs.merge(increment.getKey(), increment.getValue(), (a, b) -> (Long) a + (Long) b);
+                        versions.merge(increment.getKey(), 1L, Long::sum);
+                    }
+                    return true;
+                }
+            }
+        }
+    }
+
+    private final FakeStore store = new FakeStore();
+    private long now;
+    private final LikeCounter counter = new LikeCounter(store, () -> now, 1000);
+
+    @After
+    public void tearDown() {
+        store.server.shutdownNow();
+        store.main.shutdownNow();
+    }
+
+    /** Sets a like from the main thread and waits for the result. */
+    private void setLiked(String userId, boolean liked) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        store.main.execute(() -> counter.setLiked(OWNER, RECIPE, userId, liked, new LikeCounter.OnLikeSetListener() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                fail(error);
+            }
+        }));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+
+    /** Loads likes from the main thread; returns {shard likes, liked (1, 0 or -1 for no marker)}. */
+    private long[] getLikes(String userId) throws InterruptedException {
+        long[] result = new long[2];
+        CountDownLatch done = new CountDownLatch(1);
+        store.main.execute(() -> counter.getLikes(OWNER, RECIPE, userId, new LikeCounter.OnLikesLoadedListener() {
+            @Override
+            public void onSuccess(long shardLikes, Boolean liked) {
+                result[0] = shardLikes;
+                result[1] = liked == null ? -1 : liked ? 1 : 0;
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(String error) {
+                fail(error);
+            }
+        }));
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        return result;
+    }
+
+    @Test
+    public void concurrentLikers_areCountedExactlyWithoutConflicts() throws InterruptedException {
+        int likers = 500;
+        CountDownLatch done = new CountDownLatch(likers);
+        List<String> failures = new ArrayList<>();
+
+        // Every liker likes at once; every fifth then changes their mind
+        store.main.execute(() -> {
+            for (int i = 0; i < likers; i++) {
+                String userId = "user" + i;
+                boolean unlike = i % 5 == 0;
+                counter.setLiked(OWNER, RECIPE, userId, true, new LikeCounter.OnLikeSetListener() {
+                    @Override
+                    public void onSuccess() {
+                        if (!unlike) {
+                            done.countDown();
+                            return;
+                        }
+                        counter.setLiked(OWNER, RECIPE, userId, false, new LikeCounter.OnLikeSetListener() {
+                            @Override
+                            public void onSuccess() {
+                                done.countDown();
+                            }
+
+                            @Override
+                            public void onFailure(String error) {
+                                failures.add(error);
+                                done.countDown();
+                            }
+                        });
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        failures.add(error);
+                        done.countDown();
+                    }
+                });
+            }
+        });
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        assertTrue(failures.isEmpty());
+        // Each transaction reads only its own liker's marker
+        assertEquals(0, store.retries.get());
+        assertEquals(likers - likers / 5, getLikes(null)[0]);
+
+        Set<Integer> usedShards = new HashSet<>();
+        for (int shard = 0; shard < LikeCounter.NUM_SHARDS; shard++) {
+            if (store.shard(shard) != 0) usedShards.add(shard);
+        }
+        assertTrue(usedShards.size() > 1);
+    }
+
+    @Test
+    public void settingSameStateTwice_countsOnce() throws InterruptedException {
+        setLiked("a", true);
+        setLiked("a", true);
+        setLiked("b", false);
+
+        assertArrayEquals(new long[]{1, 1}, getLikes("a"));
+        assertArrayEquals(new long[]{1, 0}, getLikes("b"));
+    }
+
+    @Test
+    public void legacyLiker_unlikeSubtractsFromShards() throws InterruptedException {
+        Set<String> likedBy = new HashSet<>();
+        likedBy.add("old");
+        store.putLegacyLikers(RECIPE_PATH, likedBy);
+
+        // Still liked through "likedBy": liking again changes nothing
+        setLiked("old", true);
+        assertArrayEquals(new long[]{0, 1}, getLikes("old"));
+
+        setLiked("old", false);
+        now = 1000; // Past the cache
+        assertArrayEquals(new long[]{-1, 0}, getLikes("old"));
+    }
+
+    @Test
+    public void shardSum_isCachedAndKeptCurrentByOwnLikes() throws InterruptedException {
+        assertEquals(0, getLikes(null)[0]);
+        setLiked("a", true);
+        assertEquals(1, getLikes(null)[0]);
+        assertEquals(1, store.shardReads.get());
+
+        now = 1000;
+        assertEquals(1, getLikes(null)[0]);
+        assertEquals(2, store.shardReads.get());
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.kombuchaapp.repositories;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link LikeWriteQueue} with a fake writer and a
+ * scheduler that runs tasks when told to.
+ */
+public class LikeWriteQueueTest {
+
+    private static class FakeWriter implements LikeWriteQueue.Writer {
+        final List<Boolean> writes = new ArrayList<>();
+        final List<LikeCounter.OnLikeSetListener> listeners = new ArrayList<>();
+
+        @Override
+        public void setLiked(String ownerUserId, String recipeId, String userId, boolean liked,
+                             LikeCounter.OnLikeSetListener listener) {
+            writes.add(liked);
+            listeners.add(listener);
+        }
+    }
+
+    private static class FakeScheduler implements LikeWriteQueue.Scheduler {
+        final List<Runnable> scheduled = new ArrayList<>();
+
+        @Override
+        public void schedule(Runnable task, long delayMs) {
+            scheduled.add(task);
+        }
+
+        @Override
+        public void cancel(Runnable task) {
+            scheduled.remove(task);
+        }
+
+        /** Lets the coalescing window pass. */
+        void runAll() {
+            List<Runnable> due = new ArrayList<>(scheduled);
+            scheduled.clear();
+            for (Runnable task : due) {
+                task.run();
+            }
+        }
+    }
+
+    /** Records what the queue reports; failures are prefixed with "failed:". */
+    private static class Recorder implements LikeWriteQueue.OnLikeSettledListener {
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void onSettled(boolean liked) {
+            events.add(String.valueOf(liked));
+        }
+
+        @Override
+        public void onFailure(boolean liked, String error) {
+            events.add("failed:" + liked);
+        }
+    }
+
+    private final FakeWriter writer = new FakeWriter();
+    private final FakeScheduler scheduler = new FakeScheduler();
+    private final LikeWriteQueue queue = new LikeWriteQueue(writer, scheduler, 100);
+    private final Recorder recorder = new Recorder();
+
+    private void tap(boolean liked) {
+        queue.setLiked("owner", "recipe", "me", liked, !liked, recorder);
+    }
+
+    @Test
+    public void rapidTaps_becomeOneWriteOfTheFinalState() {
+        tap(true);
+        tap(false);
+        tap(true);
+        assertEquals(Boolean.TRUE, queue.pendingLiked("owner", "recipe", "me"));
+        assertTrue(writer.writes.isEmpty());
+
+        scheduler.runAll();
+        assertEquals(Collections.singletonList(true), writer.writes);
+
+        writer.listeners.get(0).onSuccess();
+        assertEquals(Collections.singletonList("true"), recorder.events);
+        assertNull(queue.pendingLiked("owner", "recipe", "me"));
+    }
+
+    @Test
+    public void tapsThatCancelOut_writeNothing() {
+        tap(true);
+        tap(false);
+        scheduler.runAll();
+
+        assertTrue(writer.writes.isEmpty());
+        assertEquals(Collections.singletonList("false"), recorder.events);
+    }
+
+    @Test
+    public void tapDuringWrite_isWrittenAfterIt() {
+        tap(true);
+        scheduler.runAll();
+        tap(false);
+        // Nothing new goes out while the first write is in flight
+        assertTrue(scheduler.scheduled.isEmpty());
+
+        writer.listeners.get(0).onSuccess();
+        assertTrue(recorder.events.isEmpty());
+        scheduler.runAll();
+        assertEquals(Arrays.asList(true, false), writer.writes);
+
+        writer.listeners.get(1).onSuccess();
+        assertEquals(Collections.singletonList("false"), recorder.events);
+    }
+
+    @Test
+    public void failedWrite_reportsLastConfirmedState() {
+        tap(true);
+        scheduler.runAll();
+        writer.listeners.get(0).onFailure("offline");
+
+        assertEquals(Collections.singletonList("failed:false"), recorder.events);
+        assertNull(queue.pendingLiked("owner", "recipe", "me"));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.kombuchaapp.repositories;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link QueryScheduler} with tasks that finish when told to.
+ */
+public class QuerySchedulerTest {
+
+    private static final long LONG_TIMEOUT_MS = 60_000;
+    private static final long SHORT_TIMEOUT_MS = 50;
+
+    private final List<QueryScheduler.Call> started = new ArrayList<>();
+
+    private synchronized QueryScheduler.Call call(int i) {
+        return started.get(i);
+    }
+
+    private synchronized int startedCount() {
+        return started.size();
+    }
+
+    private void submit(QueryScheduler scheduler, int tasks) {
+        for (int i = 0; i < tasks; i++) {
+            scheduler.submit(call -> {
+                synchronized (this) {
+                    started.add(call);
+                }
+            });
+        }
+    }
+
+    @Test
+    public void runsAtMostMaxInFlight() {
+        QueryScheduler scheduler = new QueryScheduler(2, LONG_TIMEOUT_MS);
+        submit(scheduler, 5);
+        assertEquals(2, startedCount());
+
+        call(0).run();
+        assertEquals(3, startedCount());
+        // Finishing twice frees only one slot
+        call(0).run();
+        assertEquals(3, startedCount());
+    }
+
+    @Test
+    public void idle_afterAllFinish() {
+        QueryScheduler scheduler = new QueryScheduler(1, LONG_TIMEOUT_MS);
+        submit(scheduler, 2);
+        int[] idle = new int[1];
+        scheduler.whenIdle(() -> idle[0]++);
+
+        call(0).run();
+        assertEquals(0, idle[0]);
+        call(1).run();
+        assertEquals(1, idle[0]);
+        assertEquals(0, scheduler.timedOutCount());
+    }
+
+    @Test
+    public void timedOutTask_keepsItsSlotUntilItFinishes() throws InterruptedException {
+        QueryScheduler scheduler = new QueryScheduler(1, SHORT_TIMEOUT_MS);
+        submit(scheduler, 2);
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (scheduler.timedOutCount() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(call(0).isTimedOut());
+        assertEquals(1, scheduler.timedOutCount());
+        assertEquals(1, startedCount());
+
+        call(0).run();
+        assertEquals(2, startedCount());
+        assertFalse(call(1).isTimedOut());
+        call(1).run();
+    }
+
+    @Test
+    public void idle_doesNotWaitForTimedOutTask() throws InterruptedException {
+        QueryScheduler scheduler = new QueryScheduler(2, SHORT_TIMEOUT_MS);
+        submit(scheduler, 2);
+        call(0).run();
+
+        CountDownLatch idle = new CountDownLatch(1);
+        scheduler.whenIdle(idle::countDown);
+
+        assertTrue(idle.await(5, TimeUnit.SECONDS));
+        assertTrue(call(1).isTimedOut());
+        assertFalse(call(0).isTimedOut());
+        // The late finish is harmless
+        call(1).run();
+        assertEquals(1, scheduler.timedOutCount());
+    }
+}
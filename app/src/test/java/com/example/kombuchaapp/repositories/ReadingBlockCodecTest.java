@@ -0,0 +1,52 @@
+package com.example.kombuchaapp.repositories;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ReadingBlockCodec}.
+ */
+public class ReadingBlockCodecTest {
+
+    private static void assertRoundTrip(long[] timestamps, float[] values, float scale) {
+        byte[] encoded = ReadingBlockCodec.encode(timestamps, values, timestamps.length, scale);
+        long[] timestampsOut = new long[timestamps.length];
+        float[] valuesOut = new float[values.length];
+
+        assertEquals(timestamps.length, ReadingBlockCodec.decode(encoded, scale, timestampsOut, valuesOut));
+        assertArrayEquals(timestamps, timestampsOut);
+        assertArrayEquals(values, valuesOut, 0.5f / scale);
+    }
+
+    @Test
+    public void steadyReadings_roundTripCompactly() {
+        int n = ReadingStore.BLOCK_SIZE;
+        long[] timestamps = new long[n];
+        float[] values = new float[n];
+        for (int i = 0; i < n; i++) {
+            timestamps[i] = 1_700_000_000_000L + i * 30_000L;
+            values[i] = 24f + (i % 7) * 0.01f;
+        }
+
+        assertRoundTrip(timestamps, values, 100f);
+        assertTrue(ReadingBlockCodec.encode(timestamps, values, n, 100f).length < n * 3);
+    }
+
+    @Test
+    public void irregularAndNegativeReadings_roundTrip() {
+        long[] timestamps = {5, 6, 1_000, 1_001, 90_000_000_000L, 90_000_000_007L};
+        float[] values = {-12.34f, 0f, 99.99f, -0.01f, 3.5f, 1e5f};
+        assertRoundTrip(timestamps, values, 100f);
+    }
+
+    @Test
+    public void phScale_keepsThreeDecimals() {
+        assertRoundTrip(new long[]{0, 1000, 2000}, new float[]{4.512f, 3.999f, 2.001f}, 1000f);
+    }
+
+    @Test
+    public void emptyBlock_roundTrips() {
+        assertRoundTrip(new long[0], new float[0], 100f);
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.kombuchaapp.repositories;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link ReadingStore} on a temporary directory.
+ */
+public class ReadingStoreTest {
+
+    private static final String RECIPE = "recipe";
+    private static final String CHANNEL = ReadingStore.CHANNEL_TEMPERATURE;
+    private static final int BLOCK = ReadingStore.BLOCK_SIZE;
+
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("readings").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(root);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static void appendRange(ReadingStore store, int from, int to) {
+        for (int i = from; i < to; i++) {
+            assertTrue(store.append(RECIPE, CHANNEL, i * 1000L, i / 100f));
+        }
+    }
+
+    private static List<Long> timestamps(ReadingStore store, long fromMs, long toMs) {
+        List<Long> timestamps = new ArrayList<>();
+        store.scan(RECIPE, CHANNEL, fromMs, toMs, (timestampMs, value) -> timestamps.add(timestampMs));
+        return timestamps;
+    }
+
+    private File file(String suffix) {
+        return new File(new File(root, RECIPE), CHANNEL + suffix);
+    }
+
+    @Test
+    public void readings_surviveReopenAcrossBlocks() {
+        ReadingStore store = new ReadingStore(root);
+        int n = 2 * BLOCK + 10;
+        appendRange(store, 0, n);
+        store.flush(RECIPE, CHANNEL);
+
+        ReadingStore reopened = new ReadingStore(root);
+        assertEquals(n, reopened.count(RECIPE, CHANNEL));
+        assertEquals(0, reopened.firstTimestamp(RECIPE, CHANNEL));
+        assertEquals((n - 1) * 1000L, reopened.lastTimestamp(RECIPE, CHANNEL));
+
+        List<Long> scanned = timestamps(reopened, 250_000, 270_000);
+        assertEquals(21, scanned.size());
+        assertEquals(250_000L, (long) scanned.get(0));
+        assertEquals(270_000L, (long) scanned.get(20));
+
+        float[] value = new float[1];
+        reopened.scan(RECIPE, CHANNEL, 300_000, 300_000, (timestampMs, v) -> value[0] = v);
+        assertEquals(3f, value[0], 0.005f);
+    }
+
+    @Test
+    public void missingBefore_reportsReadingsOlderThanTheStore() {
+        ReadingStore store = new ReadingStore(root);
+        assertEquals(Long.MIN_VALUE, store.missingBefore(RECIPE, CHANNEL, 0));
+
+        appendRange(store, 10, 20);
+        assertEquals(10_000, store.missingBefore(RECIPE, CHANNEL, 0));
+        assertEquals(10_000, store.missingBefore(RECIPE, CHANNEL, 9_998));
+        assertEquals(Long.MIN_VALUE, store.missingBefore(RECIPE, CHANNEL, 9_999));
+        assertEquals(Long.MIN_VALUE, store.missingBefore(RECIPE, CHANNEL, 15_000));
+    }
+
+    @Test
+    public void olderReading_isIgnored() {
+        ReadingStore store = new ReadingStore(root);
+        appendRange(store, 0, 3);
+
+        assertFalse(store.append(RECIPE, CHANNEL, 1000, 5f));
+        assertEquals(3, store.count(RECIPE, CHANNEL));
+    }
+
+    @Test
+    public void crashBeforeHeadIsEmptied_doesNotLoadReadingsTwice() throws IOException {
+        ReadingStore store = new ReadingStore(root);
+        appendRange(store, 0, BLOCK - 1);
+        store.flush(RECIPE, CHANNEL);
+        File stale = new File(root, "stale.head");
+        Files.copy(file(".head").toPath(), stale.toPath());
+
+        // Seals the block, then empties the head file
+        appendRange(store, BLOCK - 1, BLOCK);
+        // As if the app died before the head file was emptied
+        Files.copy(stale.toPath(), file(".head").toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        ReadingStore reopened = new ReadingStore(root);
+        assertEquals(BLOCK, reopened.count(RECIPE, CHANNEL));
+        assertEquals(BLOCK, timestamps(reopened, Long.MIN_VALUE, Long.MAX_VALUE).size());
+        assertTrue(reopened.append(RECIPE, CHANNEL, BLOCK * 1000L, 1f));
+    }
+
+    @Test
+    public void failedSeal_keepsStoreUsable() throws IOException {
+        ReadingStore store = new ReadingStore(root);
+        appendRange(store, 0, BLOCK - 1);
+        // A directory in place of the blocks file makes the seal fail
+        assertTrue(file(".blocks").mkdirs());
+
+        appendRange(store, BLOCK - 1, BLOCK);
+        assertFalse(store.append(RECIPE, CHANNEL, BLOCK * 1000L, 1f));
+        assertEquals(BLOCK, store.count(RECIPE, CHANNEL));
+
+        // Once the disk recovers the next append seals the block
+        assertTrue(file(".blocks").delete());
+        appendRange(store, BLOCK + 1, BLOCK + 3);
+        store.flush(RECIPE, CHANNEL);
+
+        ReadingStore reopened = new ReadingStore(root);
+        assertEquals(BLOCK + 2, reopened.count(RECIPE, CHANNEL));
+        assertEquals(BLOCK + 2, timestamps(reopened, Long.MIN_VALUE, Long.MAX_VALUE).size());
+    }
+
+    @Test
+    public void tornTrailingBlock_isDroppedOnLoad() throws IOException {
+        ReadingStore store = new ReadingStore(root);
+        appendRange(store, 0, BLOCK);
+        store.flush(RECIPE, CHANNEL);
+        long sealed = file(".blocks").length();
+        Files.write(file(".blocks").toPath(), new byte[]{0, 0, 1, 0, 9},
+                StandardOpenOption.APPEND);
+
+        ReadingStore reopened = new ReadingStore(root);
+        assertEquals(BLOCK, reopened.count(RECIPE, CHANNEL));
+        assertEquals(sealed, file(".blocks").length());
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.kombuchaapp.repositories;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for {@link UsernameCache} with a fake loader and clock.
+ */
+public class UsernameCacheTest {
+
+    private static final long TTL_MS = 1000;
+
+    /** Records requests and answers them when told to. */
+    private static class FakeLoader implements UsernameCache.Loader {
+        final List<List<String>> requests = new ArrayList<>();
+        final List<UsernameCache.OnLoadedListener> listeners = new ArrayList<>();
+
+        @Override
+        public void load(List<String> userIds, UsernameCache.OnLoadedListener listener) {
+            requests.add(new ArrayList<>(userIds));
+            listeners.add(listener);
+        }
+
+        void answer(int request) {
+            Map<String, String> usernames = new HashMap<>();
+            for (String userId : requests.get(request)) {
+                usernames.put(userId, "name-" + userId);
+            }
+            listeners.get(request).onSuccess(usernames);
+        }
+    }
+
+    private long now;
+    private final FakeLoader loader = new FakeLoader();
+
+    private UsernameCache newCache(int maxEntries) {
+        return new UsernameCache(loader, () -> now, maxEntries, TTL_MS);
+    }
+
+    @Test
+    public void concurrentLookups_shareOneRequest() {
+        UsernameCache cache = newCache(10);
+        List<String> results = new ArrayList<>();
+
+        cache.get("a", results::add);
+        cache.get("a", results::add);
+        assertEquals(1, loader.requests.size());
+
+        loader.answer(0);
+        assertEquals(Arrays.asList("name-a", "name-a"), results);
+    }
+
+    @Test
+    public void cachedLookup_isImmediateUntilExpired() {
+        UsernameCache cache = newCache(10);
+        cache.get("a", username -> {});
+        loader.answer(0);
+
+        List<String> results = new ArrayList<>();
+        now = TTL_MS - 1;
+        cache.get("a", results::add);
+        assertEquals(Collections.singletonList("name-a"), results);
+        assertEquals(1, loader.requests.size());
+
+        now = TTL_MS;
+        cache.get("a", results::add);
+        assertEquals(2, loader.requests.size());
+    }
+
+    @Test
+    public void prefetch_batchesDistinctMissingUsers() {
+        UsernameCache cache = newCache(100);
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i < 70; i++) {
+            userIds.add("u" + (i % 35)); // Every publisher twice
+        }
+
+        cache.prefetch(userIds);
+        assertEquals(2, loader.requests.size());
+        assertEquals(UsernameCache.BATCH_LIMIT, loader.requests.get(0).size());
+        assertEquals(35 - UsernameCache.BATCH_LIMIT, loader.requests.get(1).size());
+
+        // Rows bound before the batch returns join it instead of loading again
+        List<String> results = new ArrayList<>();
+        cache.get("u3", results::add);
+        assertEquals(2, loader.requests.size());
+        loader.answer(0);
+        loader.answer(1);
+        assertEquals(Collections.singletonList("name-u3"), results);
+
+        cache.prefetch(userIds);
+        assertEquals(2, loader.requests.size());
+    }
+
+    @Test
+    public void unknownUser_isCachedAsNull() {
+        UsernameCache cache = newCache(10);
+        List<String> results = new ArrayList<>();
+        cache.get("ghost", results::add);
+        loader.listeners.get(0).onSuccess(new HashMap<>());
+
+        cache.get("ghost", results::add);
+        assertEquals(Arrays.asList(null, null), results);
+        assertEquals(1, loader.requests.size());
+    }
+
+    @Test
+    public void failure_isNotCached() {
+        UsernameCache cache = newCache(10);
+        List<String> results = new ArrayList<>();
+        cache.get("a", results::add);
+        loader.listeners.get(0).onFailure("offline");
+        assertEquals(Collections.singletonList((String) null), results);
+
+        cache.get("a", results::add);
+        assertEquals(2, loader.requests.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        UsernameCache cache = newCache(2);
+        cache.prefetch(Arrays.asList("a", "b"));
+        loader.answer(0);
+
+        cache.get("a", username -> {}); // "b" is now the eldest
+        cache.prefetch(Collections.singletonList("c"));
+        loader.answer(1);
+
+        cache.get("a", username -> {});
+        assertEquals(2, loader.requests.size());
+        cache.get("b", username -> {});
+        assertEquals(3, loader.requests.size());
+    }
+}